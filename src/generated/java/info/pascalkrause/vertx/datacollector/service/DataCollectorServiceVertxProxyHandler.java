@@ -39,6 +39,7 @@ import io.vertx.serviceproxy.ProxyHelper;
 import io.vertx.serviceproxy.ProxyHandler;
 import io.vertx.serviceproxy.ServiceException;
 import io.vertx.serviceproxy.ServiceExceptionMessageCodec;
+import io.vertx.core.json.JsonArray;
 import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.AsyncResult;
@@ -134,6 +135,50 @@ public class DataCollectorServiceVertxProxyHandler extends ProxyHandler {
           service.collect((java.lang.String)json.getValue("requestId"), (io.vertx.core.json.JsonObject)json.getValue("feature"), createHandler(msg));
           break;
         }
+        case "collectAndStream": {
+          service.collectAndStream((java.lang.String)json.getValue("requestId"), (io.vertx.core.json.JsonObject)json.getValue("feature"), (java.lang.String)json.getValue("streamAddress"), res -> {
+            if (res.failed()) {
+              if (res.cause() instanceof ServiceException) {
+                msg.reply(res.cause());
+              } else {
+                msg.reply(new ServiceException(-1, res.cause().getMessage()));
+              }
+            } else {
+              msg.reply(res.result() == null ? null : res.result().toJson());
+            }
+         });
+          break;
+        }
+        case "submit": {
+          service.submit((java.lang.String)json.getValue("requestId"), (io.vertx.core.json.JsonObject)json.getValue("feature"), (java.lang.String)json.getValue("completionAddress"), createHandler(msg));
+          break;
+        }
+        case "status": {
+          service.status((java.lang.String)json.getValue("jobId"), createHandler(msg));
+          break;
+        }
+        case "fetch": {
+          service.fetch((java.lang.String)json.getValue("jobId"), res -> {
+            if (res.failed()) {
+              if (res.cause() instanceof ServiceException) {
+                msg.reply(res.cause());
+              } else {
+                msg.reply(new ServiceException(-1, res.cause().getMessage()));
+              }
+            } else {
+              msg.reply(res.result() == null ? null : res.result().toJson());
+            }
+         });
+          break;
+        }
+        case "cancel": {
+          service.cancel((java.lang.String)json.getValue("requestId"), createHandler(msg));
+          break;
+        }
+        case "getSlowJobs": {
+          service.getSlowJobs(createHandler(msg));
+          break;
+        }
         case "getMetricsSnapshot": {
           service.getMetricsSnapshot(createHandler(msg));
           break;
@@ -0,0 +1,83 @@
+package info.pascalkrause.vertx.datacollector.codec;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Compares the size and the encode/decode time of a {@link CollectorJobResult} on the clustered event bus, once sent
+ * as JsonObject (like the generated proxy does) and once with the {@link CollectorJobResultCodec}. The encoded sizes
+ * are printed during the setup of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({ "1", "100", "10000" })
+    public int entries;
+
+    private final CollectorJobResultCodec codec = new CollectorJobResultCodec();
+    private CollectorJobResult result;
+    private Buffer json;
+    private Buffer binary;
+
+    @Setup
+    public void setup() {
+        final JsonArray items = new JsonArray();
+        for (int i = 0; i < entries; i++) {
+            items.add(new JsonObject().put("id", i).put("name", "item-" + i).put("price", i * 1.5d)
+                    .put("available", (i % 2) == 0).put("tags", new JsonArray().add("a").add("b")));
+        }
+        result = new CollectorJobResult("request-" + entries, "benchmark", "complete", "2018-03-01T12:00:00Z",
+                new JsonObject().put("items", items), null);
+        json = encodeJson();
+        binary = encodeBinary();
+        System.out.println(String.format("%n%d entries: JSON %d bytes, binary %d bytes per message", entries,
+                json.length(), binary.length()));
+    }
+
+    @Benchmark
+    public Buffer encodeJson() {
+        final Buffer buffer = Buffer.buffer();
+        result.toJson().writeToBuffer(buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Buffer encodeBinary() {
+        final Buffer buffer = Buffer.buffer();
+        codec.encodeToWire(buffer, result);
+        return buffer;
+    }
+
+    @Benchmark
+    public CollectorJobResult decodeJson() {
+        final JsonObject decoded = new JsonObject();
+        decoded.readFromBuffer(0, json);
+        return new CollectorJobResult(decoded);
+    }
+
+    @Benchmark
+    public CollectorJobResult decodeBinary() {
+        return codec.decodeFromWire(0, binary);
+    }
+}
@@ -0,0 +1,92 @@
+package info.pascalkrause.vertx.datacollector.job;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult.Error;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Measures the work which is done with a {@link CollectorJobResult} for every completed job: it is created from the
+ * decoded JsonObject by the proxy, its error is read by the metrics and it is compared by the caller. The legacy
+ * benchmarks reproduce the former field by field copy and the error merge, to compare the allocations with the gc
+ * profiler ({@code -prof gc}, enabled by default in the Gradle build). {@code construct} and {@code jsonRoundTrip}
+ * measure the creation of a result by a job and its way through the generated proxy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectorJobResultBenchmark {
+
+    private JsonObject decoded;
+    private CollectorJobResult expected;
+
+    @Setup
+    public void setup() {
+        final JsonArray items = new JsonArray();
+        for (int i = 0; i < 100; i++) {
+            items.add(new JsonObject().put("id", i).put("name", "item-" + i));
+        }
+        expected = new CollectorJobResult("request", "benchmark", "complete", "2018-03-01T12:00:00Z",
+                new JsonObject().put("items", items), new Error("timeout"));
+        decoded = expected.toJson().copy();
+    }
+
+    @Benchmark
+    public void completedJob(Blackhole bh) {
+        final CollectorJobResult result = new CollectorJobResult(decoded);
+        bh.consume(result.getError());
+        bh.consume(result.getError());
+        bh.consume(result.equals(expected));
+    }
+
+    @Benchmark
+    public CollectorJobResult construct() {
+        return new CollectorJobResult("request", "benchmark", "complete", "2018-03-01T12:00:00Z",
+                expected.getResult(), null);
+    }
+
+    @Benchmark
+    public CollectorJobResult jsonRoundTrip() {
+        final Buffer buffer = Buffer.buffer();
+        expected.toJson().writeToBuffer(buffer);
+        final JsonObject json = new JsonObject();
+        json.readFromBuffer(0, buffer);
+        return new CollectorJobResult(json);
+    }
+
+    @Benchmark
+    public void completedJobLegacy(Blackhole bh) {
+        final JsonObject copy = new JsonObject().put("requestId", decoded.getString("requestId"))
+                .put("source", decoded.getString("source")).put("quality", decoded.getString("quality"))
+                .put("created", decoded.getString("created")).put("result", decoded.getJsonObject("result"))
+                .put("error", decoded.getJsonObject("error"));
+        bh.consume(legacyGetError(copy));
+        bh.consume(legacyGetError(copy));
+        bh.consume(copy.hashCode() == expected.toJson().hashCode());
+    }
+
+    private static Optional<Error> legacyGetError(JsonObject data) {
+        final JsonObject error = data.getJsonObject("error");
+        final Error newError = new Error(error.getString("_name"));
+        error.mergeIn(newError);
+        return Optional.of(newError);
+    }
+}
@@ -0,0 +1,86 @@
+package info.pascalkrause.vertx.datacollector.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codahale.metrics.MetricRegistry;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Measures the metrics work of the service: {@code registerTotalMetrics} runs for every completed job,
+ * {@code getMetricsSnapshot} for every metrics request. The number of distinct qualities and errors is the size of the
+ * maps which are sorted for every snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricSnapshotFactoryBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    public int distinct;
+
+    private MetricSnapshotFactory factory;
+    private Map<String, AtomicLong> unsorted;
+    private AsyncResult<CollectorJobResult> succeeded;
+    private AsyncResult<CollectorJobResult> failed;
+
+    @Setup
+    public void setup() {
+        factory = new MetricSnapshotFactory(new MetricRegistry());
+        factory.registerQueueMetrics(new AtomicInteger(5), 30);
+        unsorted = new HashMap<>();
+        for (int i = 0; i < distinct; i++) {
+            unsorted.put("key-" + i, new AtomicLong(i * 7919 % distinct));
+            factory.registerTotalMetrics(Future.succeededFuture(new CollectorJobResult("request", "benchmark",
+                    "quality-" + i, "2018-03-01T12:00:00Z", null, new CollectorJobResult.Error("error-" + i))));
+            factory.registerTotalMetrics(Future.succeededFuture(new CollectorJobResult("request", "benchmark",
+                    "quality-" + i, "2018-03-01T12:00:00Z", null, null)));
+        }
+        succeeded = Future.succeededFuture(
+                new CollectorJobResult("request", "benchmark", "quality-0", "2018-03-01T12:00:00Z", null, null));
+        failed = Future.succeededFuture(new CollectorJobResult("request", "benchmark", "quality-0",
+                "2018-03-01T12:00:00Z", null, new CollectorJobResult.Error("error-0")));
+    }
+
+    @Benchmark
+    public void registerSucceeded() {
+        factory.registerTotalMetrics(succeeded);
+    }
+
+    @Benchmark
+    public void registerFailed() {
+        factory.registerTotalMetrics(failed);
+    }
+
+    @Benchmark
+    public JsonObject getMetricsSnapshot() {
+        return factory.getMetricsSnapshot();
+    }
+
+    @Benchmark
+    public Map<String, Object> sortDescendingAndSlice() {
+        return MetricSnapshotFactory.sortDescendingAndSlice(unsorted, 10);
+    }
+}
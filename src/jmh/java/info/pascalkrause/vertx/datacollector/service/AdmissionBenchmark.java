@@ -0,0 +1,95 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJob;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Measures the admission of requests by {@link DataCollectorServiceImpl} while several threads call the service at the
+ * same time, like a local proxy does. {@code rejected} measures the admission alone, because the queue of the service
+ * is always full. {@code completed} measures the whole round trip through both worker pools with a job that does no
+ * work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class AdmissionBenchmark {
+
+    private static class NoopJob implements CollectorJob {
+        private final CollectorJobResult result = new CollectorJobResult("request", "benchmark", "complete",
+                "2018-03-01T12:00:00Z", new JsonObject(), null);
+
+        @Override
+        public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature) {
+            return fut -> fut.complete(result);
+        }
+
+        @Override
+        public Handler<Future<CollectorJobResult>> postCollectAction(AsyncResult<CollectorJobResult> result) {
+            return fut -> fut.handle(result);
+        }
+    }
+
+    private final JsonObject feature = new JsonObject();
+    private Vertx vertx;
+    private DataCollectorServiceImpl full;
+    private DataCollectorServiceImpl open;
+
+    @Setup
+    public void setup() {
+        vertx = Vertx.vertx();
+        full = new DataCollectorServiceImpl(vertx, new NoopJob(), 4, 0, true, 60000, "full");
+        open = new DataCollectorServiceImpl(vertx, new NoopJob(), 4, 1000, true, 60000, "open");
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Benchmark
+    public AsyncResult<CollectorJobResult> rejected() {
+        final AsyncResult<?>[] outcome = new AsyncResult<?>[1];
+        full.collectAndReceive("request", feature, res -> outcome[0] = res);
+        @SuppressWarnings("unchecked")
+        final AsyncResult<CollectorJobResult> result = (AsyncResult<CollectorJobResult>) outcome[0];
+        return result;
+    }
+
+    @Benchmark
+    public CollectorJobResult completed() throws Exception {
+        final CompletableFuture<CollectorJobResult> outcome = new CompletableFuture<>();
+        open.collectAndReceive("request", feature, res -> {
+            if (res.succeeded()) {
+                outcome.complete(res.result());
+            } else {
+                outcome.completeExceptionally(res.cause());
+            }
+        });
+        return outcome.get(1, TimeUnit.SECONDS);
+    }
+}
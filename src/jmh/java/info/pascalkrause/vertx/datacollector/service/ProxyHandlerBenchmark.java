@@ -0,0 +1,89 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJob;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Measures the dispatch of a request by the generated {@link DataCollectorServiceVertxProxyHandler}, behind the
+ * {@link DataCollectorServiceMessageHandler}. The service call itself is cheap, so the difference between
+ * {@code viaProxy} and {@code direct} is the cost of the event bus and the JSON dispatch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyHandlerBenchmark {
+
+    private static final String ADDRESS = "benchmark";
+
+    private Vertx vertx;
+    private DataCollectorServiceImpl service;
+    private DataCollectorService proxy;
+
+    @Setup
+    public void setup() {
+        vertx = Vertx.vertx();
+        service = new DataCollectorServiceImpl(vertx, new CollectorJob() {
+            @Override
+            public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature) {
+                return fut -> fut.fail("unused");
+            }
+
+            @Override
+            public Handler<Future<CollectorJobResult>> postCollectAction(AsyncResult<CollectorJobResult> result) {
+                return fut -> fut.handle(result);
+            }
+        }, 1, 1, true, 60000, ADDRESS);
+        new DataCollectorServiceMessageHandler(vertx, service).register(ADDRESS);
+        proxy = new DataCollectorServiceVertxEBProxy(vertx, ADDRESS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close();
+    }
+
+    private JsonObject await(Handler<Handler<AsyncResult<JsonObject>>> call) throws Exception {
+        final CompletableFuture<JsonObject> outcome = new CompletableFuture<>();
+        call.handle(res -> {
+            if (res.succeeded()) {
+                outcome.complete(res.result());
+            } else {
+                outcome.completeExceptionally(res.cause());
+            }
+        });
+        return outcome.get(1, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public JsonObject viaProxy() throws Exception {
+        return await(proxy::getMetricsSnapshot);
+    }
+
+    @Benchmark
+    public JsonObject direct() throws Exception {
+        return await(service::getMetricsSnapshot);
+    }
+}
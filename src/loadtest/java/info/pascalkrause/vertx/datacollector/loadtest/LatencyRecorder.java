@@ -0,0 +1,45 @@
+package info.pascalkrause.vertx.datacollector.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Records latencies and calculates their percentiles. All values are kept, which is fine for the number of requests of
+ * a load test run and gives exact percentiles.
+ */
+public class LatencyRecorder {
+
+    private long[] values = new long[1024];
+    private int size;
+    private boolean sorted;
+
+    /**
+     * @param latency The latency in nanoseconds
+     */
+    public synchronized void record(long latency) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = latency;
+        sorted = false;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @param percentile The percentile, between 0 and 100
+     * @return The latency in nanoseconds at the percentile, or 0 if nothing was recorded.
+     */
+    public synchronized long percentile(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            Arrays.sort(values, 0, size);
+            sorted = true;
+        }
+        final int index = (int) Math.ceil((percentile / 100d) * size) - 1;
+        return values[Math.max(0, Math.min(size - 1, index))];
+    }
+}
@@ -0,0 +1,229 @@
+package info.pascalkrause.vertx.datacollector.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import info.pascalkrause.vertx.datacollector.DataCollectorServiceVerticle;
+import info.pascalkrause.vertx.datacollector.client.DataCollectorServiceClient;
+import info.pascalkrause.vertx.datacollector.client.DataCollectorServiceFactory;
+import info.pascalkrause.vertx.datacollector.client.error.QueueLimitReached;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorService;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorServiceOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Drives a DataCollectorService with a {@link SyntheticJob} at fixed target rates and prints a table with the
+ * throughput, the rejection rate and the latency percentiles for every combination of worker pool size, queue size and
+ * rate.
+ * <p>
+ * The load is open-loop: the requests are sent on a fixed schedule, no matter how long earlier requests take. The
+ * latency of a request is measured from the time it was scheduled, not from the time it was actually sent, so a
+ * stalled sender doesn't hide the latency of the requests it should have sent in the meantime (coordinated omission).
+ * <p>
+ * All options are passed as {@code key=value} arguments, lists are separated by commas:
+ * <ul>
+ * <li>pools: The worker pool sizes (default 2,4,8)</li>
+ * <li>queues: The queue sizes (default 10,30,100)</li>
+ * <li>rates: The target rates in requests per second (default 100,200)</li>
+ * <li>duration: The duration of every run in seconds (default 10)</li>
+ * <li>serviceTime: The mean service time of the job in milliseconds (default 20)</li>
+ * <li>jitter: The maximum deviation of the service time in milliseconds (default 10)</li>
+ * <li>errorRate: The share of results with error, which count as failed (default 0.01)</li>
+ * <li>exceptionRate: The share of failed collects (default 0)</li>
+ * <li>proxy: local, binary or json (default local)</li>
+ * <li>csv: A file to which the table is written as CSV</li>
+ * </ul>
+ */
+public class LoadTest {
+
+    private static final String[] COLUMNS = { "pool", "queue", "rate", "sent", "throughput", "rejected%", "failed%",
+            "p50ms", "p90ms", "p99ms", "p999ms", "maxms" };
+
+    private static class Result {
+        private final long sent;
+        private final long rejected;
+        private final long failed;
+        private final long elapsed;
+        private final LatencyRecorder latencies;
+
+        private Result(long sent, long rejected, long failed, long elapsed, LatencyRecorder latencies) {
+            this.sent = sent;
+            this.rejected = rejected;
+            this.failed = failed;
+            this.elapsed = elapsed;
+            this.latencies = latencies;
+        }
+    }
+
+    private final Vertx vertx;
+    private final Map<String, String> options;
+    private int runs;
+
+    public LoadTest(Vertx vertx, Map<String, String> options) {
+        this.vertx = vertx;
+        this.options = options;
+    }
+
+    private String option(String key, String defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+
+    private int[] intsOption(String key, String defaultValue) {
+        return Arrays.stream(option(key, defaultValue).split(",")).mapToInt(v -> Integer.parseInt(v.trim())).toArray();
+    }
+
+    private DataCollectorService createProxy(String address) {
+        final DataCollectorServiceFactory factory = new DataCollectorServiceFactory(vertx, address);
+        // The latency is measured by the harness, the event bus must not time out before the service answers
+        final DeliveryOptions deliveryOptions = new DeliveryOptions().setSendTimeout(TimeUnit.MINUTES.toMillis(10));
+        switch (option("proxy", "local")) {
+        case "binary":
+            return factory.createBinary(deliveryOptions);
+        case "json":
+            return factory.create(deliveryOptions);
+        default:
+            return factory.createLocal(deliveryOptions);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        return future.get(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Runs the load with one configuration.
+     */
+    private Result run(int pool, int queue, int rate) throws Exception {
+        final String address = "loadtest-" + runs++;
+        final SyntheticJob job = new SyntheticJob(Long.parseLong(option("serviceTime", "20")),
+                Long.parseLong(option("jitter", "10")), Double.parseDouble(option("errorRate", "0.01")),
+                Double.parseDouble(option("exceptionRate", "0")));
+        final DataCollectorServiceVerticle verticle = new DataCollectorServiceVerticle(address, job,
+                new DataCollectorServiceOptions().setWorkerPoolSize(pool).setQueueSize(queue));
+        final CompletableFuture<String> deployed = new CompletableFuture<>();
+        vertx.deployVerticle(verticle, res -> {
+            if (res.succeeded()) {
+                deployed.complete(res.result());
+            } else {
+                deployed.completeExceptionally(res.cause());
+            }
+        });
+        final String deploymentId = await(deployed);
+        final DataCollectorServiceClient client = new DataCollectorServiceClient(vertx, createProxy(address));
+
+        final long total = (long) rate * Long.parseLong(option("duration", "10"));
+        final double interval = TimeUnit.SECONDS.toNanos(1) / (double) rate;
+        final CountDownLatch completed = new CountDownLatch((int) total);
+        final LatencyRecorder latencies = new LatencyRecorder();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final JsonObject feature = new JsonObject();
+        final long[] sent = { 0 };
+        final long start = System.nanoTime();
+        vertx.setPeriodic(1, timerId -> {
+            final long due = Math.min(total, (long) ((System.nanoTime() - start) / interval) + 1);
+            for (; sent[0] < due; sent[0]++) {
+                final long intended = start + (long) (sent[0] * interval);
+                client.collectAndReceive(Long.toString(sent[0]), feature, res -> {
+                    if (res.succeeded()) {
+                        latencies.record(System.nanoTime() - intended);
+                        if (res.result().getError().isPresent()) {
+                            failed.incrementAndGet();
+                        }
+                    } else if (res.cause() instanceof QueueLimitReached) {
+                        rejected.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                    completed.countDown();
+                });
+            }
+            if (sent[0] == total) {
+                vertx.cancelTimer(timerId);
+            }
+        });
+        completed.await();
+        final long elapsed = System.nanoTime() - start;
+
+        final CompletableFuture<Void> undeployed = new CompletableFuture<>();
+        vertx.undeploy(deploymentId, res -> undeployed.complete(null));
+        await(undeployed);
+        return new Result(total, rejected.get(), failed.get(), elapsed, latencies);
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1e6);
+    }
+
+    /**
+     * Runs all configurations and prints a row for each of them.
+     *
+     * @param out The stream for the table
+     * @return The rows of the table
+     */
+    public List<String[]> sweep(PrintStream out) throws Exception {
+        final List<String[]> rows = new ArrayList<>();
+        final String format = "%6s %6s %6s %8s %11s %10s %8s %8s %8s %8s %8s %8s%n";
+        out.printf(format, (Object[]) COLUMNS);
+        for (final int pool : intsOption("pools", "2,4,8")) {
+            for (final int queue : intsOption("queues", "10,30,100")) {
+                for (final int rate : intsOption("rates", "100,200")) {
+                    final Result r = run(pool, queue, rate);
+                    final LatencyRecorder l = r.latencies;
+                    final String[] row = { Integer.toString(pool), Integer.toString(queue), Integer.toString(rate),
+                            Long.toString(r.sent),
+                            String.format("%.1f", l.size() / (r.elapsed / (double) TimeUnit.SECONDS.toNanos(1))),
+                            String.format("%.2f", (100d * r.rejected) / r.sent),
+                            String.format("%.2f", (100d * r.failed) / r.sent), millis(l.percentile(50)),
+                            millis(l.percentile(90)), millis(l.percentile(99)), millis(l.percentile(99.9)),
+                            millis(l.percentile(100)) };
+                    out.printf(format, (Object[]) row);
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void writeCsv(String file, List<String[]> rows) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        lines.add(String.join(",", COLUMNS));
+        rows.forEach(row -> lines.add(String.join(",", row)));
+        Files.write(Paths.get(file), lines, StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws Exception {
+        final Map<String, String> options = new HashMap<>();
+        for (final String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        final Vertx vertx = Vertx.vertx();
+        try {
+            final List<String[]> rows = new LoadTest(vertx, options).sweep(System.out);
+            if (Objects.nonNull(options.get("csv"))) {
+                writeCsv(options.get("csv"), rows);
+            }
+        } finally {
+            vertx.close();
+        }
+    }
+}
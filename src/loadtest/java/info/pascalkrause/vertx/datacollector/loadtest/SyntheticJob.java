@@ -0,0 +1,66 @@
+package info.pascalkrause.vertx.datacollector.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJob;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A CollectorJob without real work, which blocks its worker for a configurable service time and injects errors and
+ * exceptions with configurable rates.
+ */
+public class SyntheticJob implements CollectorJob {
+
+    private final long serviceTime;
+    private final long jitter;
+    private final double errorRate;
+    private final double exceptionRate;
+
+    /**
+     * @param serviceTime The mean time in milliseconds a collect blocks its worker
+     * @param jitter The maximum deviation in milliseconds from the mean service time, uniformly distributed
+     * @param errorRate The share of results with a {@link CollectorJobResult.Error}, between 0 and 1
+     * @param exceptionRate The share of collects which fail with an exception, between 0 and 1
+     */
+    public SyntheticJob(long serviceTime, long jitter, double errorRate, double exceptionRate) {
+        this.serviceTime = serviceTime;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.exceptionRate = exceptionRate;
+    }
+
+    @Override
+    public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature) {
+        return fut -> {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            final long sleep = jitter > 0 ? serviceTime + random.nextLong(-jitter, jitter + 1) : serviceTime;
+            if (sleep > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(sleep);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            final double roll = random.nextDouble();
+            if (roll < exceptionRate) {
+                fut.fail("synthetic exception");
+            } else {
+                final CollectorJobResult.Error error = roll < (exceptionRate + errorRate)
+                        ? new CollectorJobResult.Error("synthetic error")
+                        : null;
+                fut.complete(new CollectorJobResult(requestId, "synthetic", "complete",
+                        Long.toString(System.currentTimeMillis()), new JsonObject(), error));
+            }
+        };
+    }
+
+    @Override
+    public Handler<Future<CollectorJobResult>> postCollectAction(AsyncResult<CollectorJobResult> result) {
+        return fut -> fut.handle(result);
+    }
+}
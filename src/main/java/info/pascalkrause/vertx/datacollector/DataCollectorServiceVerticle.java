@@ -1,30 +1,32 @@
 package info.pascalkrause.vertx.datacollector;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import info.pascalkrause.vertx.datacollector.job.CollectorJob;
-import info.pascalkrause.vertx.datacollector.service.DataCollectorService;
+import info.pascalkrause.vertx.datacollector.service.BulkheadOptions;
 import info.pascalkrause.vertx.datacollector.service.DataCollectorServiceImpl;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorServiceMessageHandler;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorServiceOptions;
+import info.pascalkrause.vertx.datacollector.service.LocalServiceRegistry;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.MessageConsumer;
-import io.vertx.core.json.JsonObject;
-import io.vertx.serviceproxy.ServiceBinder;
 
 public class DataCollectorServiceVerticle extends AbstractVerticle {
 
     private final String address;
     private final CollectorJob job;
-    private final int workerPoolSize;
-    private final int queueSize;
-    private final boolean enableMetrics;
-    private final long maxExecuteTimeout;
+    private final DataCollectorServiceOptions options;
+    private final Map<String, CollectorJob> namedJobs = new LinkedHashMap<>();
+    private final Map<String, BulkheadOptions> bulkheads = new LinkedHashMap<>();
 
-    private DataCollectorService dcs;
-    private ServiceBinder binder;
-    private MessageConsumer<JsonObject> consumer;
+    private DataCollectorServiceImpl dcs;
+    private DataCollectorServiceMessageHandler handler;
+    private MessageConsumer<Object> consumer;
 
     /**
      * @param address The eventbus address
@@ -48,32 +50,78 @@ public class DataCollectorServiceVerticle extends AbstractVerticle {
      */
     public DataCollectorServiceVerticle(String address, CollectorJob job, int workerPoolSize, int queueSize,
             boolean enableMetrics, long maxExecuteTimeout) {
+        this(address, job, new DataCollectorServiceOptions().setWorkerPoolSize(workerPoolSize).setQueueSize(queueSize)
+                .setMetricsEnabled(enableMetrics).setMaxExecuteTimeout(maxExecuteTimeout));
+    }
+
+    /**
+     * @param address The eventbus address
+     * @param job The job which will be processed in the CollectorJobExecutor
+     * @param options The options of the DataCollectorService
+     */
+    public DataCollectorServiceVerticle(String address, CollectorJob job, DataCollectorServiceOptions options) {
         this.address = address;
         this.job = job;
-        this.workerPoolSize = workerPoolSize;
-        this.queueSize = queueSize;
-        this.enableMetrics = enableMetrics;
-        this.maxExecuteTimeout = maxExecuteTimeout;
+        this.options = options;
+    }
+
+    /**
+     * Creates a verticle without default job, jobs must be registered with
+     * {@link #registerJob(String, CollectorJob, BulkheadOptions)}.
+     *
+     * @param address The eventbus address
+     * @param options The options of the DataCollectorService
+     */
+    public DataCollectorServiceVerticle(String address, DataCollectorServiceOptions options) {
+        this(address, null, options);
+    }
+
+    /**
+     * Registers a named job, which shares the CollectorJobExecutor with the other jobs of this verticle. Must be called
+     * before the verticle is deployed.
+     *
+     * @param name The name of the job, requests are routed by the job name key of their feature
+     * @param job The job
+     * @param bulkheadOptions The limits of the job
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceVerticle registerJob(String name, CollectorJob job, BulkheadOptions bulkheadOptions) {
+        namedJobs.put(name, job);
+        bulkheads.put(name, bulkheadOptions);
+        return this;
     }
 
     @Override
     public void init(Vertx vertx, Context context) {
         super.init(vertx, context);
-        dcs = new DataCollectorServiceImpl(vertx, job, workerPoolSize, queueSize, enableMetrics, maxExecuteTimeout,
-                address);
-        binder = new ServiceBinder(vertx);
+        dcs = new DataCollectorServiceImpl(vertx, job, options, address);
+        namedJobs.forEach((name, namedJob) -> dcs.registerJob(name, namedJob, bulkheads.get(name)));
+        handler = new DataCollectorServiceMessageHandler(vertx, dcs, options.getCompressionThreshold(),
+                dcs.getMetricFactory());
     }
 
     @Override
     public void start(Future<Void> startFuture) throws Exception {
-        consumer = binder.setAddress(address).register(DataCollectorService.class, dcs);
-        startFuture.complete();
+        // Replayed requests must be dispatched before new requests are accepted
+        dcs.replayJournal(replayed -> {
+            if (replayed.failed()) {
+                startFuture.fail(replayed.cause());
+                return;
+            }
+            consumer = handler.register(address);
+            LocalServiceRegistry.bind(vertx, address, dcs);
+            startFuture.complete();
+        });
     }
 
     @Override
     public void stop(Future<Void> stopFuture) throws Exception {
-        binder.unregister(consumer);
-        stopFuture.complete();
+        LocalServiceRegistry.unbind(vertx, address);
+        consumer.unregister();
+        vertx.<Void>executeBlocking(fut -> {
+            dcs.stop();
+            fut.complete();
+        }, stopFuture);
     }
 
     /**
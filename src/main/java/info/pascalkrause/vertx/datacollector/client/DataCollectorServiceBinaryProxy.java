@@ -0,0 +1,150 @@
+package info.pascalkrause.vertx.datacollector.client;
+
+import java.util.Objects;
+
+import info.pascalkrause.vertx.datacollector.codec.DataCollectorCodecs;
+import info.pascalkrause.vertx.datacollector.codec.ResultCompression;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobRequest;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorService;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorServiceMessageHandler;
+import info.pascalkrause.vertx.datacollector.service.LocalServiceRegistry;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A DataCollectorService proxy which sends {@link CollectorJobRequest} objects and receives {@link CollectorJobResult}
+ * objects, instead of converting them into JsonObjects. Within the same JVM the request is passed by reference and the
+ * result is copied, in a cluster they are transferred in a compact binary format. If compression is accepted and the
+ * service is not deployed in the same Vert.x instance, large results are compressed by the service and decompressed
+ * transparently by this proxy. All other calls are delegated to the generated proxy.
+ */
+public class DataCollectorServiceBinaryProxy implements DataCollectorService {
+
+    private final Vertx vertx;
+    private final String address;
+    private final DeliveryOptions options;
+    private final DataCollectorService delegate;
+    private final boolean acceptCompression;
+
+    public DataCollectorServiceBinaryProxy(Vertx vertx, String address, DeliveryOptions options,
+            DataCollectorService delegate) {
+        this(vertx, address, options, delegate, false);
+    }
+
+    /**
+     * @param vertx The Vert.x instance
+     * @param address The eventbus address of the service
+     * @param options The DeliveryOptions which are used for every request, can be null.
+     * @param delegate The generated proxy, which handles all calls that are not sent in binary format.
+     * @param acceptCompression If true, the service is allowed to compress the results.
+     */
+    public DataCollectorServiceBinaryProxy(Vertx vertx, String address, DeliveryOptions options,
+            DataCollectorService delegate, boolean acceptCompression) {
+        this.vertx = vertx;
+        this.address = address;
+        this.options = options;
+        this.delegate = delegate;
+        this.acceptCompression = acceptCompression;
+        DataCollectorCodecs.registerDefaultCodecs(vertx.eventBus());
+    }
+
+    private DeliveryOptions getDeliveryOptions(String action) {
+        final DeliveryOptions deliveryOptions = Objects.nonNull(options) ? new DeliveryOptions(options)
+                : new DeliveryOptions();
+        // The service drops the request, when this proxy doesn't wait for the reply anymore
+        return deliveryOptions.addHeader(DataCollectorServiceMessageHandler.HEADER_ACTION, action).addHeader(
+                DataCollectorServiceMessageHandler.HEADER_DEADLINE, Long.toString(deliveryOptions.getSendTimeout()));
+    }
+
+    private <T> void send(String action, String requestId, JsonObject feature, Handler<AsyncResult<T>> resultHandler) {
+        vertx.eventBus().<T>send(address, new CollectorJobRequest(requestId, feature), getDeliveryOptions(action),
+                res -> {
+                    if (res.failed()) {
+                        resultHandler.handle(Future.failedFuture(res.cause()));
+                    } else {
+                        resultHandler.handle(Future.succeededFuture(res.result().body()));
+                    }
+                });
+    }
+
+    @Override
+    public void collectAndReceive(String requestId, JsonObject feature,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        // Compression only pays off if the result is really sent over the wire
+        if (!acceptCompression || Objects.nonNull(LocalServiceRegistry.lookup(vertx, address))) {
+            send("collectAndReceive", requestId, feature, resultHandler);
+            return;
+        }
+        final DeliveryOptions deliveryOptions = getDeliveryOptions("collectAndReceive")
+                .addHeader(ResultCompression.HEADER_ACCEPT_ENCODING, ResultCompression.ENCODING_DEFLATE);
+        vertx.eventBus().<Object>send(address, new CollectorJobRequest(requestId, feature), deliveryOptions, res -> {
+            if (res.failed()) {
+                resultHandler.handle(Future.failedFuture(res.cause()));
+                return;
+            }
+            final Object body = res.result().body();
+            final String encoding = res.result().headers().get(ResultCompression.HEADER_CONTENT_ENCODING);
+            if ((body instanceof Buffer) && Objects.nonNull(encoding)) {
+                // Inflating large results takes too long for the event loop, a decoding error fails the future
+                vertx.executeBlocking(fut -> fut.complete(ResultCompression.decode(encoding, (Buffer) body)), false,
+                        resultHandler);
+            } else {
+                resultHandler.handle(Future.succeededFuture((CollectorJobResult) body));
+            }
+        });
+    }
+
+    @Override
+    public void collect(String requestId, JsonObject feature, Handler<AsyncResult<Void>> resultHandler) {
+        send("collect", requestId, feature, resultHandler);
+    }
+
+    @Override
+    public void collectAndStream(String requestId, JsonObject feature, String streamAddress,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        delegate.collectAndStream(requestId, feature, streamAddress, resultHandler);
+    }
+
+    @Override
+    public void submit(String requestId, JsonObject feature, String completionAddress,
+            Handler<AsyncResult<String>> resultHandler) {
+        delegate.submit(requestId, feature, completionAddress, resultHandler);
+    }
+
+    @Override
+    public void status(String jobId, Handler<AsyncResult<String>> resultHandler) {
+        delegate.status(jobId, resultHandler);
+    }
+
+    @Override
+    public void fetch(String jobId, Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        delegate.fetch(jobId, resultHandler);
+    }
+
+    @Override
+    public void cancel(String requestId, Handler<AsyncResult<Integer>> resultHandler) {
+        delegate.cancel(requestId, resultHandler);
+    }
+
+    @Override
+    public void getSlowJobs(Handler<AsyncResult<JsonArray>> resultHandler) {
+        delegate.getSlowJobs(resultHandler);
+    }
+
+    @Override
+    public void getMetricsSnapshot(Handler<AsyncResult<JsonObject>> resultHandler) {
+        delegate.getMetricsSnapshot(resultHandler);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -1,18 +1,51 @@
 package info.pascalkrause.vertx.datacollector.client;
 
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import info.pascalkrause.vertx.datacollector.client.error.Cancelled;
+import info.pascalkrause.vertx.datacollector.client.error.Expired;
+import info.pascalkrause.vertx.datacollector.client.error.JobNotFound;
+import info.pascalkrause.vertx.datacollector.client.error.JobPending;
 import info.pascalkrause.vertx.datacollector.client.error.QueueLimitReached;
+import info.pascalkrause.vertx.datacollector.client.error.Timeout;
+import info.pascalkrause.vertx.datacollector.client.error.UnknownJob;
 import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
 import info.pascalkrause.vertx.datacollector.service.DataCollectorService;
+import info.pascalkrause.vertx.datacollector.stream.ChunkReadStream;
+import info.pascalkrause.vertx.datacollector.stream.IngestStream;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
 
 public class DataCollectorServiceClient implements DataCollectorService {
 
+    /**
+     * The time in milliseconds {@link #submitAndFetch(String, JsonObject, Handler)} waits for the completion of a job.
+     */
+    public static final long DEFAULT_SUBMIT_TIMEOUT = TimeUnit.HOURS.toMillis(1);
+
+    private final Vertx vertx;
     private final DataCollectorService dcs;
 
     public DataCollectorServiceClient(DataCollectorService dcs) {
+        this(null, dcs);
+    }
+
+    /**
+     * @param vertx The Vert.x instance, which is needed for streaming results.
+     * @param dcs The DataCollectorService to wrap.
+     */
+    public DataCollectorServiceClient(Vertx vertx, DataCollectorService dcs) {
+        this.vertx = vertx;
         this.dcs = dcs;
     }
 
@@ -21,6 +54,24 @@ public class DataCollectorServiceClient implements DataCollectorService {
         if (res.failed() && ERROR_QUEUE_LIMIT_REACHED.equals(res.cause().getMessage())) {
             return Future.failedFuture(new QueueLimitReached());
         }
+        if (res.failed() && ERROR_JOB_NOT_FOUND.equals(res.cause().getMessage())) {
+            return Future.failedFuture(new JobNotFound());
+        }
+        if (res.failed() && ERROR_JOB_PENDING.equals(res.cause().getMessage())) {
+            return Future.failedFuture(new JobPending());
+        }
+        if (res.failed() && ERROR_CANCELLED.equals(res.cause().getMessage())) {
+            return Future.failedFuture(new Cancelled());
+        }
+        if (res.failed() && ERROR_UNKNOWN_JOB.equals(res.cause().getMessage())) {
+            return Future.failedFuture(new UnknownJob());
+        }
+        if (res.failed() && ERROR_TIMEOUT.equals(res.cause().getMessage())) {
+            return Future.failedFuture(new Timeout());
+        }
+        if (res.failed() && ERROR_EXPIRED.equals(res.cause().getMessage())) {
+            return Future.failedFuture(new Expired());
+        }
         return (AsyncResult<E>) res;
     }
 
@@ -35,6 +86,148 @@ public class DataCollectorServiceClient implements DataCollectorService {
         dcs.collect(requestId, feature, res -> resultHandler.handle(checkForError(res)));
     }
 
+    @Override
+    public void collectAndStream(String requestId, JsonObject feature, String streamAddress,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        dcs.collectAndStream(requestId, feature, streamAddress, res -> resultHandler.handle(checkForError(res)));
+    }
+
+    /**
+     * Triggers a {@link info.pascalkrause.vertx.datacollector.job.CollectorJob} and returns a ReadStream which
+     * receives the collected data in chunks. If the job fails, the cause is passed to the exception handler of the
+     * stream and to the result handler.
+     *
+     * @param requestId A request id to identify the collection request.
+     * @param feature A JSON object to pass attributes and properties which are needed for the collection process.
+     * @param resultHandler A handler to process the result, which does not contain the streamed data.
+     * @return A ReadStream which receives the collected data.
+     */
+    public ReadStream<Buffer> collectAndStream(String requestId, JsonObject feature,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        if (Objects.isNull(vertx)) {
+            throw new IllegalStateException("Streaming requires a client which was created with a Vertx instance");
+        }
+        final ChunkReadStream stream = new ChunkReadStream(vertx);
+        stream.completionHandler(ready -> {
+            if (ready.failed()) {
+                stream.fail(ready.cause());
+                resultHandler.handle(Future.failedFuture(ready.cause()));
+                return;
+            }
+            collectAndStream(requestId, feature, stream.address(), res -> {
+                if (res.failed()) {
+                    stream.fail(res.cause());
+                }
+                resultHandler.handle(res);
+            });
+        });
+        return stream;
+    }
+
+    /**
+     * Collects every feature of the passed stream and returns a ReadStream of the results, see {@link IngestStream}.
+     * At most maxInFlight requests are in flight, the source is paused while this limit is reached or while the
+     * result stream is paused. Requests which are rejected because the queue of the service is full are retried, so
+     * the caller needs no retry logic. Failed requests are emitted as results with an error.
+     *
+     * @param features The features to collect
+     * @param requestIdKey The key in the feature whose value is the request id. Features without it get a random one
+     * @param maxInFlight The maximum number of requests in flight, e.g. the queue size of the service
+     * @return A ReadStream which receives the results in the order in which they complete.
+     */
+    public IngestStream ingest(ReadStream<JsonObject> features, String requestIdKey, int maxInFlight) {
+        if (Objects.isNull(vertx)) {
+            throw new IllegalStateException("Ingestion requires a client which was created with a Vertx instance");
+        }
+        return new IngestStream(vertx, dcs, features, IngestStream.requestIdFromKey(requestIdKey), maxInFlight);
+    }
+
+    @Override
+    public void submit(String requestId, JsonObject feature, String completionAddress,
+            Handler<AsyncResult<String>> resultHandler) {
+        dcs.submit(requestId, feature, completionAddress, res -> resultHandler.handle(checkForError(res)));
+    }
+
+    /**
+     * Like {@link #submitAndFetch(String, JsonObject, long, Handler)}, with the {@link #DEFAULT_SUBMIT_TIMEOUT}.
+     *
+     * @param requestId A request id to identify the collection request.
+     * @param feature A JSON object to pass attributes and properties which are needed for the collection process.
+     * @param resultHandler A handler to process the result.
+     */
+    public void submitAndFetch(String requestId, JsonObject feature,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        submitAndFetch(requestId, feature, DEFAULT_SUBMIT_TIMEOUT, resultHandler);
+    }
+
+    /**
+     * Submits a {@link info.pascalkrause.vertx.datacollector.job.CollectorJob} and fetches its result as soon as the
+     * job is completed, without keeping a request open while the job is running. If the completion is not notified
+     * within the timeout, e.g. because the service was restarted, the handler fails with a {@link Timeout}.
+     *
+     * @param requestId A request id to identify the collection request.
+     * @param feature A JSON object to pass attributes and properties which are needed for the collection process.
+     * @param timeout The time in milliseconds to wait for the completion of the job.
+     * @param resultHandler A handler to process the result.
+     */
+    public void submitAndFetch(String requestId, JsonObject feature, long timeout,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        if (Objects.isNull(vertx)) {
+            throw new IllegalStateException("Notifications require a client which was created with a Vertx instance");
+        }
+        final String completionAddress = UUID.randomUUID().toString();
+        final MessageConsumer<JsonObject> consumer = vertx.eventBus().consumer(completionAddress);
+        final AtomicBoolean done = new AtomicBoolean();
+        final Handler<AsyncResult<CollectorJobResult>> finish = res -> {
+            if (done.compareAndSet(false, true)) {
+                consumer.unregister();
+                resultHandler.handle(res);
+            }
+        };
+        final long timerId = vertx.setTimer(Math.max(1, timeout),
+                id -> finish.handle(Future.failedFuture(new Timeout())));
+        consumer.handler(msg -> {
+            if (done.compareAndSet(false, true)) {
+                vertx.cancelTimer(timerId);
+                consumer.unregister();
+                fetch(msg.body().getString("jobId"), resultHandler);
+            }
+        });
+        consumer.completionHandler(ready -> {
+            if (ready.failed()) {
+                vertx.cancelTimer(timerId);
+                finish.handle(Future.failedFuture(ready.cause()));
+                return;
+            }
+            submit(requestId, feature, completionAddress, res -> {
+                if (res.failed()) {
+                    vertx.cancelTimer(timerId);
+                    finish.handle(Future.failedFuture(res.cause()));
+                }
+            });
+        });
+    }
+
+    @Override
+    public void status(String jobId, Handler<AsyncResult<String>> resultHandler) {
+        dcs.status(jobId, res -> resultHandler.handle(checkForError(res)));
+    }
+
+    @Override
+    public void fetch(String jobId, Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        dcs.fetch(jobId, res -> resultHandler.handle(checkForError(res)));
+    }
+
+    @Override
+    public void cancel(String requestId, Handler<AsyncResult<Integer>> resultHandler) {
+        dcs.cancel(requestId, resultHandler);
+    }
+
+    @Override
+    public void getSlowJobs(Handler<AsyncResult<JsonArray>> resultHandler) {
+        dcs.getSlowJobs(resultHandler);
+    }
+
     @Override
     public void getMetricsSnapshot(Handler<AsyncResult<JsonObject>> resultHandler) {
         dcs.getMetricsSnapshot(resultHandler);
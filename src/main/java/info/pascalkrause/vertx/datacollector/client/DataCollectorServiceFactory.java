@@ -7,9 +7,13 @@ import io.vertx.serviceproxy.ServiceProxyBuilder;
 
 public class DataCollectorServiceFactory {
 
+    private final Vertx vertx;
+    private final String serviceAddress;
     private final ServiceProxyBuilder builder;
 
     public DataCollectorServiceFactory(Vertx vertx, String serviceAddress) {
+        this.vertx = vertx;
+        this.serviceAddress = serviceAddress;
         builder = new ServiceProxyBuilder(vertx).setAddress(serviceAddress);
     }
 
@@ -20,4 +24,51 @@ public class DataCollectorServiceFactory {
     public DataCollectorService create(DeliveryOptions options) {
         return builder.setOptions(options).build(DataCollectorService.class);
     }
+
+    /**
+     * @return A {@link DataCollectorServiceBinaryProxy} which transfers requests and results with the binary codecs.
+     */
+    public DataCollectorService createBinary() {
+        return new DataCollectorServiceBinaryProxy(vertx, serviceAddress, null, create());
+    }
+
+    /**
+     * @param options The DeliveryOptions which are used for every request.
+     * @return A {@link DataCollectorServiceBinaryProxy} which transfers requests and results with the binary codecs.
+     */
+    public DataCollectorService createBinary(DeliveryOptions options) {
+        return new DataCollectorServiceBinaryProxy(vertx, serviceAddress, options, create(options));
+    }
+
+    /**
+     * @param options The DeliveryOptions which are used for every request.
+     * @param acceptCompression If true, the service is allowed to compress results which are sent over the wire.
+     * @return A {@link DataCollectorServiceBinaryProxy} which transfers requests and results with the binary codecs.
+     */
+    public DataCollectorService createBinary(DeliveryOptions options, boolean acceptCompression) {
+        return new DataCollectorServiceBinaryProxy(vertx, serviceAddress, options, create(options),
+                acceptCompression);
+    }
+
+    /**
+     * Returns a {@link DataCollectorServiceLocalProxy}, which calls the service directly while it is deployed in the
+     * same Vert.x instance. Otherwise the calls are sent through the generated event bus proxy.
+     *
+     * @return A DataCollectorService which bypasses the event bus if possible.
+     */
+    public DataCollectorService createLocal() {
+        return new DataCollectorServiceLocalProxy(vertx, serviceAddress, create());
+    }
+
+    /**
+     * Returns a {@link DataCollectorServiceLocalProxy}, which calls the service directly while it is deployed in the
+     * same Vert.x instance. Otherwise the calls are sent through the generated event bus proxy, which uses the passed
+     * DeliveryOptions.
+     *
+     * @param options The DeliveryOptions which are used if the service is not deployed in the same Vert.x instance.
+     * @return A DataCollectorService which bypasses the event bus if possible.
+     */
+    public DataCollectorService createLocal(DeliveryOptions options) {
+        return new DataCollectorServiceLocalProxy(vertx, serviceAddress, create(options));
+    }
 }
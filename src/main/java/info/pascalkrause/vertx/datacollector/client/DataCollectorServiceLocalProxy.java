@@ -0,0 +1,126 @@
+package info.pascalkrause.vertx.datacollector.client;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorService;
+import info.pascalkrause.vertx.datacollector.service.LocalServiceRegistry;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A DataCollectorService proxy which calls a service deployed in the same JVM directly, without sending messages over
+ * the event bus. The service is looked up in the {@link LocalServiceRegistry} on every call, so a redeployed service
+ * is picked up. While no service is deployed at the address, the calls are sent through the passed event bus proxy.
+ * The results are delivered on the context of the caller. Be aware that the passed features are not copied, so they
+ * must not be modified after they were passed to the service.
+ */
+public class DataCollectorServiceLocalProxy implements DataCollectorService {
+
+    private final Vertx vertx;
+    private final String address;
+    private final DataCollectorService fallback;
+    private boolean closed;
+
+    /**
+     * @param vertx The Vert.x instance in which the service is deployed
+     * @param address The event bus address of the service
+     * @param fallback The proxy which is used while no service is deployed at the address in this Vert.x instance
+     */
+    public DataCollectorServiceLocalProxy(Vertx vertx, String address, DataCollectorService fallback) {
+        this.vertx = vertx;
+        this.address = address;
+        this.fallback = fallback;
+    }
+
+    private <T> Handler<AsyncResult<T>> onCallerContext(Handler<AsyncResult<T>> resultHandler) {
+        final Context callerContext = vertx.getOrCreateContext();
+        return res -> {
+            if (Vertx.currentContext() == callerContext) {
+                resultHandler.handle(res);
+            } else {
+                callerContext.runOnContext(v -> resultHandler.handle(res));
+            }
+        };
+    }
+
+    /**
+     * Passes the call to the local service, or to the fallback if the service is not deployed.
+     */
+    private <T> void call(Handler<AsyncResult<T>> resultHandler,
+            BiConsumer<DataCollectorService, Handler<AsyncResult<T>>> call) {
+        if (closed) {
+            resultHandler.handle(Future.failedFuture(new IllegalStateException("Proxy is closed")));
+            return;
+        }
+        final DataCollectorService service = LocalServiceRegistry.lookup(vertx, address);
+        if (Objects.isNull(service)) {
+            call.accept(fallback, resultHandler);
+        } else {
+            call.accept(service, onCallerContext(resultHandler));
+        }
+    }
+
+    @Override
+    public void collectAndReceive(String requestId, JsonObject feature,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        call(resultHandler, (service, handler) -> service.collectAndReceive(requestId, feature, handler));
+    }
+
+    @Override
+    public void collect(String requestId, JsonObject feature, Handler<AsyncResult<Void>> resultHandler) {
+        call(resultHandler, (service, handler) -> service.collect(requestId, feature, handler));
+    }
+
+    @Override
+    public void collectAndStream(String requestId, JsonObject feature, String streamAddress,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        call(resultHandler,
+                (service, handler) -> service.collectAndStream(requestId, feature, streamAddress, handler));
+    }
+
+    @Override
+    public void submit(String requestId, JsonObject feature, String completionAddress,
+            Handler<AsyncResult<String>> resultHandler) {
+        call(resultHandler, (service, handler) -> service.submit(requestId, feature, completionAddress, handler));
+    }
+
+    @Override
+    public void status(String jobId, Handler<AsyncResult<String>> resultHandler) {
+        call(resultHandler, (service, handler) -> service.status(jobId, handler));
+    }
+
+    @Override
+    public void fetch(String jobId, Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        call(resultHandler, (service, handler) -> service.fetch(jobId, handler));
+    }
+
+    @Override
+    public void cancel(String requestId, Handler<AsyncResult<Integer>> resultHandler) {
+        call(resultHandler, (service, handler) -> service.cancel(requestId, handler));
+    }
+
+    @Override
+    public void getSlowJobs(Handler<AsyncResult<JsonArray>> resultHandler) {
+        call(resultHandler, DataCollectorService::getSlowJobs);
+    }
+
+    @Override
+    public void getMetricsSnapshot(Handler<AsyncResult<JsonObject>> resultHandler) {
+        call(resultHandler, DataCollectorService::getMetricsSnapshot);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            throw new IllegalStateException("Proxy is closed");
+        }
+        closed = true;
+    }
+}
@@ -0,0 +1,5 @@
+package info.pascalkrause.vertx.datacollector.client.error;
+
+public class Cancelled extends DataCollectorError {
+    private static final long serialVersionUID = 1L;
+}
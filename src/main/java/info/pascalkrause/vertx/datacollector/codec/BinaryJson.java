@@ -0,0 +1,267 @@
+package info.pascalkrause.vertx.datacollector.codec;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A compact, type-tagged binary encoding for {@link JsonObject} and {@link JsonArray}. Compared to the textual JSON
+ * encoding which is used by the event bus for JsonObjects, numbers and booleans are written in their binary form and
+ * strings are prefixed with a variable length integer instead of being quoted and escaped. Instants are written as
+ * ISO-8601 strings like in the textual encoding, BigIntegers and BigDecimals are written as their decimal strings and
+ * are read back without losing precision.
+ */
+public final class BinaryJson {
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_FLOAT = 5;
+    private static final byte TYPE_TRUE = 6;
+    private static final byte TYPE_FALSE = 7;
+    private static final byte TYPE_OBJECT = 8;
+    private static final byte TYPE_ARRAY = 9;
+    private static final byte TYPE_BINARY = 10;
+    private static final byte TYPE_BIG_INTEGER = 11;
+    private static final byte TYPE_BIG_DECIMAL = 12;
+
+    /**
+     * A cursor to read values from a Buffer, starting at a given position.
+     */
+    public static class Reader {
+        private final Buffer buffer;
+        private int pos;
+
+        public Reader(Buffer buffer, int pos) {
+            this.buffer = buffer;
+            this.pos = pos;
+        }
+
+        public int position() {
+            return pos;
+        }
+
+        public byte readByte() {
+            return buffer.getByte(pos++);
+        }
+
+        public int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.getByte(pos++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        public long readLong() {
+            final long value = buffer.getLong(pos);
+            pos += 8;
+            return value;
+        }
+
+        public byte[] readBytes() {
+            final int length = readVarInt();
+            final byte[] bytes = buffer.getBytes(pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+
+        public String readString() {
+            final int length = readVarInt();
+            final String value = buffer.getString(pos, pos + length, UTF_8.name());
+            pos += length;
+            return value;
+        }
+
+        /**
+         * @return A String that was written with {@link BinaryJson#writeNullableString(Buffer, String)}.
+         */
+        public String readNullableString() {
+            return readByte() == TYPE_NULL ? null : readString();
+        }
+
+        public JsonObject readJsonObject() {
+            final byte type = readByte();
+            if (type == TYPE_NULL) {
+                return null;
+            }
+            return new JsonObject(readMap());
+        }
+
+        private Map<String, Object> readMap() {
+            final int size = readVarInt();
+            final Map<String, Object> map = new LinkedHashMap<>(Math.max(16, (size * 4) / 3 + 1));
+            for (int i = 0; i < size; i++) {
+                final String key = readString();
+                map.put(key, readValue());
+            }
+            return map;
+        }
+
+        private List<Object> readList() {
+            final int size = readVarInt();
+            final List<Object> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(readValue());
+            }
+            return list;
+        }
+
+        private Object readValue() {
+            final byte type = readByte();
+            switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return readString();
+            case TYPE_INT:
+                final int i = buffer.getInt(pos);
+                pos += 4;
+                return i;
+            case TYPE_LONG:
+                return readLong();
+            case TYPE_DOUBLE:
+                return Double.longBitsToDouble(readLong());
+            case TYPE_FLOAT:
+                final float f = buffer.getFloat(pos);
+                pos += 4;
+                return f;
+            case TYPE_TRUE:
+                return Boolean.TRUE;
+            case TYPE_FALSE:
+                return Boolean.FALSE;
+            case TYPE_OBJECT:
+                return new JsonObject(readMap());
+            case TYPE_ARRAY:
+                return new JsonArray(readList());
+            case TYPE_BINARY:
+                return readBytes();
+            case TYPE_BIG_INTEGER:
+                return new BigInteger(readString());
+            case TYPE_BIG_DECIMAL:
+                return new BigDecimal(readString());
+            default:
+                throw new IllegalStateException("Unknown type: " + type);
+            }
+        }
+    }
+
+    private BinaryJson() {
+    }
+
+    public static void writeVarInt(Buffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.appendByte((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.appendByte((byte) value);
+    }
+
+    public static void writeBytes(Buffer buffer, byte[] bytes) {
+        writeVarInt(buffer, bytes.length);
+        buffer.appendBytes(bytes);
+    }
+
+    public static void writeString(Buffer buffer, String value) {
+        writeBytes(buffer, value.getBytes(UTF_8));
+    }
+
+    public static void writeNullableString(Buffer buffer, String value) {
+        if (Objects.isNull(value)) {
+            buffer.appendByte(TYPE_NULL);
+        } else {
+            buffer.appendByte(TYPE_STRING);
+            writeString(buffer, value);
+        }
+    }
+
+    /**
+     * Writes the passed JsonObject, which can be null, into the passed Buffer.
+     *
+     * @param buffer The target Buffer.
+     * @param json The JsonObject to write.
+     */
+    public static void writeJsonObject(Buffer buffer, JsonObject json) {
+        writeValue(buffer, json);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeValue(Buffer buffer, Object value) {
+        if (Objects.isNull(value)) {
+            buffer.appendByte(TYPE_NULL);
+        } else if (value instanceof String) {
+            buffer.appendByte(TYPE_STRING);
+            writeString(buffer, (String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            buffer.appendByte(TYPE_INT).appendInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            buffer.appendByte(TYPE_LONG).appendLong((Long) value);
+        } else if (value instanceof Double) {
+            buffer.appendByte(TYPE_DOUBLE).appendLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Float) {
+            buffer.appendByte(TYPE_FLOAT).appendFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            buffer.appendByte((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+        } else if (value instanceof JsonObject) {
+            writeMap(buffer, ((JsonObject) value).getMap());
+        } else if (value instanceof Map) {
+            writeMap(buffer, (Map<String, Object>) value);
+        } else if (value instanceof JsonArray) {
+            writeList(buffer, ((JsonArray) value).getList());
+        } else if (value instanceof List) {
+            writeList(buffer, (List<Object>) value);
+        } else if (value instanceof byte[]) {
+            buffer.appendByte(TYPE_BINARY);
+            writeBytes(buffer, (byte[]) value);
+        } else if (value instanceof CharSequence || value instanceof Character || value instanceof Enum) {
+            buffer.appendByte(TYPE_STRING);
+            writeString(buffer, value.toString());
+        } else if (value instanceof Instant) {
+            buffer.appendByte(TYPE_STRING);
+            writeString(buffer, DateTimeFormatter.ISO_INSTANT.format((Instant) value));
+        } else if (value instanceof BigInteger) {
+            buffer.appendByte(TYPE_BIG_INTEGER);
+            writeString(buffer, value.toString());
+        } else if (value instanceof BigDecimal) {
+            buffer.appendByte(TYPE_BIG_DECIMAL);
+            writeString(buffer, value.toString());
+        } else if (value instanceof Number) {
+            buffer.appendByte(TYPE_DOUBLE).appendLong(Double.doubleToRawLongBits(((Number) value).doubleValue()));
+        } else {
+            throw new IllegalStateException("Illegal type in JsonObject: " + value.getClass());
+        }
+    }
+
+    private static void writeMap(Buffer buffer, Map<String, Object> map) {
+        buffer.appendByte(TYPE_OBJECT);
+        writeVarInt(buffer, map.size());
+        map.forEach((key, value) -> {
+            writeString(buffer, key);
+            writeValue(buffer, value);
+        });
+    }
+
+    private static void writeList(Buffer buffer, List<Object> list) {
+        buffer.appendByte(TYPE_ARRAY);
+        writeVarInt(buffer, list.size());
+        list.forEach(value -> writeValue(buffer, value));
+    }
+}
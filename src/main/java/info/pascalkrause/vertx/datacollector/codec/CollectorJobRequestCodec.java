@@ -0,0 +1,44 @@
+package info.pascalkrause.vertx.datacollector.codec;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobRequest;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * A MessageCodec for {@link CollectorJobRequest}. Local deliveries pass the request by reference, clustered deliveries
+ * use the {@link BinaryJson} encoding.
+ */
+public class CollectorJobRequestCodec implements MessageCodec<CollectorJobRequest, CollectorJobRequest> {
+
+    public static final String NAME = "CollectorJobRequestCodec";
+
+    @Override
+    public void encodeToWire(Buffer buffer, CollectorJobRequest request) {
+        final int lengthPos = buffer.length();
+        buffer.appendInt(0);
+        BinaryJson.writeNullableString(buffer, request.getRequestId());
+        BinaryJson.writeJsonObject(buffer, request.getFeature());
+        buffer.setInt(lengthPos, buffer.length() - lengthPos - 4);
+    }
+
+    @Override
+    public CollectorJobRequest decodeFromWire(int pos, Buffer buffer) {
+        final BinaryJson.Reader reader = new BinaryJson.Reader(buffer, pos + 4);
+        return new CollectorJobRequest(reader.readNullableString(), reader.readJsonObject());
+    }
+
+    @Override
+    public CollectorJobRequest transform(CollectorJobRequest request) {
+        return request;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+}
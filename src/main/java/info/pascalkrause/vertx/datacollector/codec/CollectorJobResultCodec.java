@@ -0,0 +1,88 @@
+package info.pascalkrause.vertx.datacollector.codec;
+
+import static info.pascalkrause.vertx.datacollector.job.CollectorJobResult.KEY_CREATED;
+import static info.pascalkrause.vertx.datacollector.job.CollectorJobResult.KEY_ERROR;
+import static info.pascalkrause.vertx.datacollector.job.CollectorJobResult.KEY_QUALITY;
+import static info.pascalkrause.vertx.datacollector.job.CollectorJobResult.KEY_REQUEST_ID;
+import static info.pascalkrause.vertx.datacollector.job.CollectorJobResult.KEY_RESULT;
+import static info.pascalkrause.vertx.datacollector.job.CollectorJobResult.KEY_SOURCE;
+import static info.pascalkrause.vertx.datacollector.job.CollectorJobResult.KEY_TRACE;
+
+import java.util.Objects;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A MessageCodec for {@link CollectorJobResult}. Local deliveries pass a copy of the result, so that receivers don't
+ * share a mutable result tree with the sender or with each other, clustered deliveries use the {@link BinaryJson}
+ * encoding.
+ */
+public class CollectorJobResultCodec implements MessageCodec<CollectorJobResult, CollectorJobResult> {
+
+    public static final String NAME = "CollectorJobResultCodec";
+
+    /**
+     * Appends the binary representation of the passed {@link CollectorJobResult} to the passed Buffer.
+     *
+     * @param buffer The target Buffer.
+     * @param result The {@link CollectorJobResult} to encode.
+     */
+    public static void encode(Buffer buffer, CollectorJobResult result) {
+        BinaryJson.writeNullableString(buffer, result.getRequestId());
+        BinaryJson.writeNullableString(buffer, result.getSource());
+        BinaryJson.writeNullableString(buffer, result.getQuality());
+        BinaryJson.writeNullableString(buffer, result.getCreated());
+        BinaryJson.writeJsonObject(buffer, result.getResult());
+        BinaryJson.writeJsonObject(buffer, result.toJson().getJsonObject(KEY_ERROR));
+        BinaryJson.writeJsonObject(buffer, result.getTrace().orElse(null));
+    }
+
+    /**
+     * Reads a {@link CollectorJobResult} which was written by {@link #encode(Buffer, CollectorJobResult)}.
+     *
+     * @param reader The reader which points to the beginning of the encoded {@link CollectorJobResult}.
+     * @return The decoded {@link CollectorJobResult}.
+     */
+    public static CollectorJobResult decode(BinaryJson.Reader reader) {
+        final JsonObject data = new JsonObject().put(KEY_REQUEST_ID, reader.readNullableString())
+                .put(KEY_SOURCE, reader.readNullableString()).put(KEY_QUALITY, reader.readNullableString())
+                .put(KEY_CREATED, reader.readNullableString()).put(KEY_RESULT, reader.readJsonObject())
+                .put(KEY_ERROR, reader.readJsonObject());
+        final JsonObject trace = reader.readJsonObject();
+        if (Objects.nonNull(trace)) {
+            data.put(KEY_TRACE, trace);
+        }
+        return new CollectorJobResult(data);
+    }
+
+    @Override
+    public void encodeToWire(Buffer buffer, CollectorJobResult result) {
+        final int lengthPos = buffer.length();
+        buffer.appendInt(0);
+        encode(buffer, result);
+        buffer.setInt(lengthPos, buffer.length() - lengthPos - 4);
+    }
+
+    @Override
+    public CollectorJobResult decodeFromWire(int pos, Buffer buffer) {
+        return decode(new BinaryJson.Reader(buffer, pos + 4));
+    }
+
+    @Override
+    public CollectorJobResult transform(CollectorJobResult result) {
+        return new CollectorJobResult(result.toJson().copy());
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+}
@@ -0,0 +1,31 @@
+package info.pascalkrause.vertx.datacollector.codec;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobRequest;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.eventbus.EventBus;
+
+public class DataCollectorCodecs {
+
+    private DataCollectorCodecs() {
+    }
+
+    /**
+     * Registers the {@link CollectorJobRequestCodec} and the {@link CollectorJobResultCodec} as default codecs. The
+     * codecs must be registered on every node which sends or receives a {@link CollectorJobRequest} or a
+     * {@link CollectorJobResult}. Calling this method multiple times has no effect.
+     *
+     * @param eventBus The EventBus to register the codecs on.
+     */
+    public static void registerDefaultCodecs(EventBus eventBus) {
+        try {
+            eventBus.registerDefaultCodec(CollectorJobRequest.class, new CollectorJobRequestCodec());
+        } catch (final IllegalStateException e) {
+            // Already registered
+        }
+        try {
+            eventBus.registerDefaultCodec(CollectorJobResult.class, new CollectorJobResultCodec());
+        } catch (final IllegalStateException e) {
+            // Already registered
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package info.pascalkrause.vertx.datacollector.codec;
+
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Encodes a {@link CollectorJobResult} into a Buffer, which is deflated if the encoded result reaches a threshold.
+ * The encoding that was used is negotiated with the {@link #HEADER_ACCEPT_ENCODING} and
+ * {@link #HEADER_CONTENT_ENCODING} headers.
+ */
+public final class ResultCompression {
+
+    public static final String HEADER_ACCEPT_ENCODING = "accept-encoding";
+    public static final String HEADER_CONTENT_ENCODING = "content-encoding";
+    public static final String ENCODING_DEFLATE = "deflate";
+    public static final String ENCODING_IDENTITY = "identity";
+
+    /**
+     * Deflate can't compress data by more than this ratio, a larger inflated length must be a corrupt stream.
+     */
+    private static final int MAX_DEFLATE_RATIO = 1032;
+
+    /**
+     * Is informed about every compression, e.g. to record the compression ratio and the CPU cost.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void compressed(int uncompressedBytes, int compressedBytes, long nanos);
+    }
+
+    /**
+     * The result of {@link ResultCompression#encode(CollectorJobResult, int, Listener)}.
+     */
+    public static class Encoded {
+        private final String encoding;
+        private final Buffer buffer;
+
+        private Encoded(String encoding, Buffer buffer) {
+            this.encoding = encoding;
+            this.buffer = buffer;
+        }
+
+        public String getEncoding() {
+            return encoding;
+        }
+
+        public Buffer getBuffer() {
+            return buffer;
+        }
+    }
+
+    private ResultCompression() {
+    }
+
+    /**
+     * @param result The {@link CollectorJobResult} to encode.
+     * @param threshold The minimum size of the encoded result in bytes, from which on it will be deflated.
+     * @param listener A listener which is informed if the result was deflated. Can be null.
+     * @return The encoded result and the encoding which was used.
+     */
+    public static Encoded encode(CollectorJobResult result, int threshold, Listener listener) {
+        final Buffer raw = Buffer.buffer();
+        CollectorJobResultCodec.encode(raw, result);
+        if (raw.length() < threshold) {
+            return new Encoded(ENCODING_IDENTITY, raw);
+        }
+        final long start = System.nanoTime();
+        final Buffer deflated = deflate(raw.getBytes());
+        if (Objects.nonNull(listener)) {
+            listener.compressed(raw.length(), deflated.length(), System.nanoTime() - start);
+        }
+        return deflated.length() < raw.length() ? new Encoded(ENCODING_DEFLATE, deflated)
+                : new Encoded(ENCODING_IDENTITY, raw);
+    }
+
+    /**
+     * @param encoding The encoding of the passed Buffer.
+     * @param buffer The Buffer which was created with {@link #encode(CollectorJobResult, int, Listener)}.
+     * @return The decoded {@link CollectorJobResult}.
+     */
+    public static CollectorJobResult decode(String encoding, Buffer buffer) {
+        final Buffer raw = ENCODING_DEFLATE.equals(encoding) ? inflate(buffer) : buffer;
+        return CollectorJobResultCodec.decode(new BinaryJson.Reader(raw, 0));
+    }
+
+    private static Buffer deflate(byte[] input) {
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            final Buffer output = Buffer.buffer(input.length / 4 + 16).appendInt(input.length);
+            final byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                final int length = deflater.deflate(chunk);
+                output.appendBytes(chunk, 0, length);
+            }
+            return output;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static Buffer inflate(Buffer input) {
+        final int length = input.getInt(0);
+        // The length is read from the wire, so it is checked before anything is allocated for it
+        if ((length < 0) || (length > (long) (input.length() - 4) * MAX_DEFLATE_RATIO)) {
+            throw new IllegalStateException("Invalid inflated length " + length);
+        }
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input.getBytes(4, input.length()));
+            final Buffer output = Buffer.buffer(Math.min(length, input.length() * 4));
+            final byte[] chunk = new byte[8192];
+            while (output.length() < length) {
+                final int read = inflater.inflate(chunk, 0, Math.min(chunk.length, length - output.length()));
+                if ((read == 0) && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalStateException("Truncated deflate stream");
+                }
+                output.appendBytes(chunk, 0, read);
+            }
+            return output;
+        } catch (final DataFormatException e) {
+            throw new IllegalStateException("Invalid deflate stream", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
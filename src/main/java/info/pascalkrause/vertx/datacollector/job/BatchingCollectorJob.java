@@ -0,0 +1,51 @@
+package info.pascalkrause.vertx.datacollector.job;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A {@link CollectorJob} whose post-collect stage processes several results at once, e.g. to save them into a
+ * database with a single bulk insert. The DataCollectorService collects the completed results until the configured
+ * batch size or linger time is reached and passes them to {@link #postCollectBatch(List)}.
+ */
+public interface BatchingCollectorJob extends CollectorJob {
+
+    /**
+     * This method will be called with the results of several {@link #collect(String, JsonObject)} calls. The
+     * Future will be executed in the PostCollectExecutor worker pool, which allows blocking operations inside the
+     * Future. It must be completed with one outcome per passed result, in the same order. If it fails, the
+     * post-collect stage of all passed results fails.
+     *
+     * @param results The results of the previous called {@link #collect(String, JsonObject)} methods.
+     * @return A Handler with the Future which contains the post-collection logic.
+     */
+    public Handler<Future<List<AsyncResult<CollectorJobResult>>>> postCollectBatch(
+            List<AsyncResult<CollectorJobResult>> results);
+
+    /**
+     * Runs {@link #postCollectBatch(List)} with a single result.
+     */
+    @Override
+    public default Handler<Future<CollectorJobResult>> postCollectAction(AsyncResult<CollectorJobResult> result) {
+        final Handler<Future<List<AsyncResult<CollectorJobResult>>>> batch = postCollectBatch(
+                Collections.singletonList(result));
+        return fut -> {
+            final Future<List<AsyncResult<CollectorJobResult>>> batchFuture = Future.future();
+            batchFuture.setHandler(res -> {
+                if (res.failed()) {
+                    fut.fail(res.cause());
+                } else if (res.result().size() != 1) {
+                    fut.fail(new IllegalStateException("Expected 1 outcome, got " + res.result().size()));
+                } else {
+                    fut.handle(res.result().get(0));
+                }
+            });
+            batch.handle(batchFuture);
+        };
+    }
+}
@@ -20,6 +20,21 @@ public interface CollectorJob {
      */
     public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature);
 
+    /**
+     * Like {@link #collect(String, JsonObject)}, but with the {@link CollectorJobContext} of the execution. Long
+     * running jobs should override this method and check {@link CollectorJobContext#isCancelled()} or register a
+     * handler with {@link CollectorJobContext#onCancel(Runnable)} to stop early when the request is cancelled.
+     *
+     * @param requestId A request id to identify the collection request.
+     * @param feature A JSON object to pass attributes and properties which are needed for the collection process.
+     * @param context The context of this execution.
+     * @return A Handler with the Future which contains the collection logic.
+     */
+    public default Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature,
+            CollectorJobContext context) {
+        return collect(requestId, feature);
+    }
+
     /**
      * This method will be called after the {@link #collect(String, JsonObject)} method and returns a Future which can
      * be used to do some post-collect stuff like rough parsing or saving the result into a database. The Future will be
@@ -30,4 +45,16 @@ public interface CollectorJob {
      * @return A Handler with the Future which contains the post-collection logic.
      */
     public Handler<Future<CollectorJobResult>> postCollectAction(AsyncResult<CollectorJobResult> result);
+
+    /**
+     * Like {@link #postCollectAction(AsyncResult)}, but with the {@link CollectorJobContext} of the execution.
+     *
+     * @param result The {@link CollectorJobResult} from the previous called collect method.
+     * @param context The context of this execution.
+     * @return A Handler with the Future which contains the post-collection logic.
+     */
+    public default Handler<Future<CollectorJobResult>> postCollectAction(AsyncResult<CollectorJobResult> result,
+            CollectorJobContext context) {
+        return postCollectAction(result);
+    }
 }
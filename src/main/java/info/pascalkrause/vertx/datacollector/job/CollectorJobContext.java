@@ -0,0 +1,106 @@
+package info.pascalkrause.vertx.datacollector.job;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The context of a single execution of a {@link CollectorJob}. It is passed to the job so that long running jobs can
+ * check whether they were cancelled and stop early, or register a handler which is called on cancellation (e.g. to
+ * abort a blocking request). It also carries the deadline of the caller, after which nobody waits for the result.
+ */
+public class CollectorJobContext {
+
+    /**
+     * The deadline of requests whose caller waits without time limit.
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final String requestId;
+    private final long deadline;
+    private final List<Runnable> cancelHandlers = new ArrayList<>();
+    private volatile boolean cancelled;
+
+    public CollectorJobContext(String requestId) {
+        this(requestId, NO_DEADLINE);
+    }
+
+    /**
+     * @param requestId The request id of the job.
+     * @param deadline The time in milliseconds since the epoch after which the caller doesn't wait for the result
+     * anymore, or {@link #NO_DEADLINE}.
+     */
+    public CollectorJobContext(String requestId, long deadline) {
+        this.requestId = requestId;
+        this.deadline = deadline;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * @return The time in milliseconds since the epoch after which the caller doesn't wait for the result anymore, or
+     * {@link #NO_DEADLINE}.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return The remaining time in milliseconds until the deadline, which is negative if the deadline has passed.
+     */
+    public long getRemainingTime() {
+        return deadline == NO_DEADLINE ? Long.MAX_VALUE : deadline - System.currentTimeMillis();
+    }
+
+    /**
+     * @return True if the deadline has passed, the result of the job won't be read anymore.
+     */
+    public boolean isExpired() {
+        return (deadline != NO_DEADLINE) && (System.currentTimeMillis() >= deadline);
+    }
+
+    /**
+     * @return True if the job was cancelled, the job should stop as soon as possible.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Registers a handler which is called once when the job is cancelled. If the job is already cancelled, the handler
+     * is called immediately. The handler is called on the thread which cancels the job, so it must not block.
+     *
+     * @param handler The handler to call on cancellation.
+     * @return A reference to this, so the API can be used fluently
+     */
+    public CollectorJobContext onCancel(Runnable handler) {
+        synchronized (cancelHandlers) {
+            if (!cancelled) {
+                cancelHandlers.add(handler);
+                return this;
+            }
+        }
+        handler.run();
+        return this;
+    }
+
+    /**
+     * Cancels the job and calls all registered cancel handlers.
+     *
+     * @return True if the job was not cancelled before.
+     */
+    public boolean cancel() {
+        final List<Runnable> handlers;
+        synchronized (cancelHandlers) {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+            handlers = new ArrayList<>(cancelHandlers);
+            cancelHandlers.clear();
+        }
+        handlers.forEach(Runnable::run);
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package info.pascalkrause.vertx.datacollector.job;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The envelope of a collection request, which is sent by the binary DataCollectorService proxy. Within the same JVM
+ * the request is passed by reference, so the feature must not be modified after the request was sent.
+ */
+public class CollectorJobRequest {
+
+    private final String requestId;
+    private final JsonObject feature;
+
+    /**
+     * @param requestId A request id to identify the collection request.
+     * @param feature A JSON object to pass attributes and properties which are needed for the collection process.
+     */
+    public CollectorJobRequest(String requestId, JsonObject feature) {
+        this.requestId = requestId;
+        this.feature = feature;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public JsonObject getFeature() {
+        return feature;
+    }
+
+    @Override
+    public String toString() {
+        return new JsonObject().put("requestId", requestId).put("feature", feature).toString();
+    }
+}
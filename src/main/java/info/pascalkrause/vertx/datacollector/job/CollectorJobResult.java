@@ -1,5 +1,7 @@
 package info.pascalkrause.vertx.datacollector.job;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -17,13 +19,18 @@ public class CollectorJobResult {
     public static class Error extends JsonObject {
         private static final String KEY_NAME = "_name";
 
+        /**
+         * Wraps the passed JsonObject without copying it.
+         *
+         * @param error A JsonObject which contains the fields of an Error.
+         * @return An Error that shares its fields with the passed JsonObject, or an empty Optional if the passed
+         * JsonObject has no name.
+         */
         public static Optional<Error> fromJson(JsonObject error) {
-            if (Objects.isNull(error) || Objects.isNull(error.getString(KEY_NAME))) {
-                return Optional.ofNullable(null);
+            if (Objects.isNull(error) || Objects.isNull(error.getValue(KEY_NAME))) {
+                return Optional.empty();
             }
-            final Error newError = new Error(error.getString(KEY_NAME));
-            error.mergeIn(newError);
-            return Optional.of(newError);
+            return Optional.of(error instanceof Error ? (Error) error : new Error(error.getMap()));
         }
 
         public Error(String name) {
@@ -31,29 +38,34 @@ public class CollectorJobResult {
             this.put(KEY_NAME, name);
         }
 
+        private Error(Map<String, Object> fields) {
+            super(fields);
+        }
+
         public String getName() {
             return this.getString(KEY_NAME);
         }
     }
 
-    private static final String KEY_REQUEST_ID = "requestId";
-    private static final String KEY_SOURCE = "source";
-    private static final String KEY_QUALITY = "quality";
-    private static final String KEY_CREATED = "created";
-    private static final String KEY_RESULT = "result";
-    private static final String KEY_ERROR = "error";
+    public static final String KEY_REQUEST_ID = "requestId";
+    public static final String KEY_SOURCE = "source";
+    public static final String KEY_QUALITY = "quality";
+    public static final String KEY_CREATED = "created";
+    public static final String KEY_RESULT = "result";
+    public static final String KEY_ERROR = "error";
+    public static final String KEY_TRACE = "trace";
 
-    private final JsonObject data = new JsonObject();
+    private final JsonObject data;
+    private volatile Optional<Error> error;
 
     /**
-     * Is used by the generated DataCollectorService proxy.
+     * Is used by the generated DataCollectorService proxy. The passed JsonObject is wrapped and not copied, because
+     * the proxy always passes a freshly decoded object. Other callers must not modify it afterwards.
      *
      * @param o A JsonObject which contains all fields to create a {@link CollectorJobResult}.
      */
     public CollectorJobResult(JsonObject o) {
-        data.put(KEY_REQUEST_ID, o.getString(KEY_REQUEST_ID)).put(KEY_SOURCE, o.getString(KEY_SOURCE))
-                .put(KEY_QUALITY, o.getString(KEY_QUALITY)).put(KEY_CREATED, o.getString(KEY_CREATED))
-                .put(KEY_RESULT, o.getJsonObject(KEY_RESULT)).put(KEY_ERROR, o.getJsonObject(KEY_ERROR));
+        data = o;
     }
 
     /**
@@ -70,8 +82,9 @@ public class CollectorJobResult {
             Error error) {
         super();
         result = Objects.nonNull(result) ? result : new JsonObject();
-        data.put(KEY_REQUEST_ID, requestId).put(KEY_SOURCE, source).put(KEY_QUALITY, quality).put(KEY_CREATED, created)
-                .put(KEY_RESULT, result).put(KEY_ERROR, Objects.nonNull(error) ? error : new JsonObject());
+        data = new JsonObject().put(KEY_REQUEST_ID, requestId).put(KEY_SOURCE, source).put(KEY_QUALITY, quality)
+                .put(KEY_CREATED, created).put(KEY_RESULT, result)
+                .put(KEY_ERROR, Objects.nonNull(error) ? error : new JsonObject());
     }
 
     public String getRequestId() {
@@ -94,25 +107,81 @@ public class CollectorJobResult {
         return data.getJsonObject(KEY_RESULT);
     }
 
+    /**
+     * The Error is parsed on the first call and cached afterwards.
+     *
+     * @return The Error of this result, or an empty Optional if no error occurred.
+     */
     public Optional<Error> getError() {
-        return Error.fromJson(data.getJsonObject(KEY_ERROR));
+        Optional<Error> e = error;
+        if (Objects.isNull(e)) {
+            e = Error.fromJson(data.getJsonObject(KEY_ERROR));
+            error = e;
+        }
+        return e;
+    }
+
+    /**
+     * The trace is only present if tracing is enabled in the
+     * {@link info.pascalkrause.vertx.datacollector.service.DataCollectorServiceOptions}. It contains the duration in
+     * milliseconds of the phases of the request, e.g. the time it waited for a worker.
+     *
+     * @return The trace of the request which produced this result, or an empty Optional.
+     */
+    public Optional<JsonObject> getTrace() {
+        return Optional.ofNullable(data.getJsonObject(KEY_TRACE));
+    }
+
+    /**
+     * The result tree is shared and not copied. The trace is not part of {@link #equals(Object)}.
+     *
+     * @param trace The trace of the request.
+     * @return A copy of this result with the passed trace.
+     */
+    public CollectorJobResult withTrace(JsonObject trace) {
+        return new CollectorJobResult(new JsonObject(new LinkedHashMap<>(data.getMap())).put(KEY_TRACE, trace));
     }
 
     public JsonObject toJson() {
         return data;
     }
 
+    /**
+     * Only the meta information is hashed, the result tree is only compared in {@link #equals(Object)}.
+     */
     @Override
     public int hashCode() {
-        return data.hashCode();
+        return Objects.hash(getRequestId(), getSource(), getQuality(), getCreated());
+    }
+
+    /**
+     * Compares JsonObjects by their fields, independent of whether they are an {@link Error} or a plain JsonObject.
+     */
+    private static boolean jsonEquals(JsonObject a, JsonObject b) {
+        if ((a == b) || (Objects.isNull(a) && Objects.nonNull(b) && b.isEmpty())
+                || (Objects.isNull(b) && Objects.nonNull(a) && a.isEmpty())) {
+            return true;
+        }
+        if (Objects.isNull(a) || Objects.isNull(b)) {
+            return false;
+        }
+        return (a.getClass() == b.getClass()) ? a.equals(b)
+                : new JsonObject(a.getMap()).equals(new JsonObject(b.getMap()));
     }
 
     @Override
     public boolean equals(Object obj) {
-        if ((obj instanceof CollectorJobResult) && (hashCode() == obj.hashCode())) {
+        if (this == obj) {
             return true;
         }
-        return false;
+        if (!(obj instanceof CollectorJobResult)) {
+            return false;
+        }
+        final CollectorJobResult other = (CollectorJobResult) obj;
+        return Objects.equals(getRequestId(), other.getRequestId()) && Objects.equals(getSource(), other.getSource())
+                && Objects.equals(getQuality(), other.getQuality()) && Objects.equals(getCreated(), other.getCreated())
+                && jsonEquals(data.getJsonObject(KEY_ERROR), other.data.getJsonObject(KEY_ERROR))
+                && jsonEquals(getResult(), other.getResult());
     }
 
     @Override
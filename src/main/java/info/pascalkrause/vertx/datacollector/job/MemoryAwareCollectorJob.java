@@ -0,0 +1,21 @@
+package info.pascalkrause.vertx.datacollector.job;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A {@link CollectorJob} which estimates how much memory a request holds, mainly the size of its
+ * {@link CollectorJobResult}. The estimate is used by the byte-budget admission of the DataCollectorService, which
+ * admits requests against a heap budget instead of a number of requests.
+ */
+public interface MemoryAwareCollectorJob extends CollectorJob {
+
+    /**
+     * Is called before the request is admitted, so it must be cheap and must not block. When the collect has finished,
+     * the estimate is replaced by the size of the actual result.
+     *
+     * @param requestId A request id to identify the collection request.
+     * @param feature A JSON object to pass attributes and properties which are needed for the collection process.
+     * @return The estimated memory of the request in bytes.
+     */
+    public long estimateBytes(String requestId, JsonObject feature);
+}
@@ -0,0 +1,65 @@
+package info.pascalkrause.vertx.datacollector.job;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A {@link CollectorJob} whose feature splits into independent parts, e.g. pages or shards. The DataCollectorService
+ * collects the parts in parallel on the CollectorJobExecutor worker pool and merges their results into one
+ * {@link CollectorJobResult}. The parts run under the admission of the request, they don't take further queue slots.
+ */
+public interface ScatterGatherCollectorJob extends CollectorJob {
+
+    public static final String QUALITY_COMPLETE = "complete";
+    public static final String QUALITY_PARTIAL = "partial";
+
+    public static final String KEY_PARTS = "parts";
+    public static final String KEY_FAILED_PARTS = "failedParts";
+
+    /**
+     * Is called in a worker thread before the collect. Every returned part is collected with
+     * {@link #collect(String, JsonObject, CollectorJobContext)}, all parts share the context of the request.
+     *
+     * @param requestId A request id to identify the collection request.
+     * @param feature A JSON object to pass attributes and properties which are needed for the collection process.
+     * @return The features of the parts, or an empty list to collect the feature without splitting it.
+     */
+    public List<JsonObject> split(String requestId, JsonObject feature);
+
+    /**
+     * Is called in a worker thread when all parts are collected and at least one part succeeded. If all parts failed,
+     * the collect fails with the cause of the first part. The default implementation puts the results of the parts
+     * into an array in the order of {@link #split(String, JsonObject)}, with null for every failed part. Parts which
+     * failed or whose result has an error are listed in an array of indices, and the quality is
+     * {@link #QUALITY_PARTIAL} if there are any.
+     *
+     * @param requestId A request id to identify the collection request.
+     * @param feature The feature which was split.
+     * @param parts The outcomes of the collects of the parts, in the order of {@link #split(String, JsonObject)}.
+     * @return The merged result.
+     */
+    public default CollectorJobResult merge(String requestId, JsonObject feature,
+            List<AsyncResult<CollectorJobResult>> parts) {
+        final JsonArray results = new JsonArray();
+        final JsonArray failed = new JsonArray();
+        String source = null;
+        for (int i = 0; i < parts.size(); i++) {
+            final AsyncResult<CollectorJobResult> part = parts.get(i);
+            if (part.failed() || Objects.isNull(part.result()) || part.result().getError().isPresent()) {
+                results.addNull();
+                failed.add(i);
+            } else {
+                results.add(part.result().getResult());
+                source = Objects.isNull(source) ? part.result().getSource() : source;
+            }
+        }
+        return new CollectorJobResult(requestId, source, failed.isEmpty() ? QUALITY_COMPLETE : QUALITY_PARTIAL,
+                Instant.now().toString(), new JsonObject().put(KEY_PARTS, results).put(KEY_FAILED_PARTS, failed),
+                null);
+    }
+}
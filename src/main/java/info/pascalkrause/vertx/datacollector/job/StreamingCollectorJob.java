@@ -0,0 +1,31 @@
+package info.pascalkrause.vertx.datacollector.job;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.WriteStream;
+
+/**
+ * A {@link CollectorJob} which is able to emit its result in chunks, instead of returning the whole result inside the
+ * {@link CollectorJobResult}. This is used by DataCollectorService#collectAndStream, to keep the memory bounded even
+ * for very large results.
+ */
+public interface StreamingCollectorJob extends CollectorJob {
+
+    /**
+     * Like {@link #collect(String, JsonObject)}, but the collected data should be written into the passed WriteStream
+     * instead of the result of the {@link CollectorJobResult}. The returned {@link CollectorJobResult} should only
+     * contain meta information. The stream must not be ended by the job, it is ended by the service after the Future
+     * was completed.
+     * <p>
+     * Writes from the worker thread block while the write queue of the stream is full, so the job does not need to
+     * check {@link WriteStream#writeQueueFull()} itself.
+     *
+     * @param requestId A request id to identify the collection request.
+     * @param feature A JSON object to pass attributes and properties which are needed for the collection process.
+     * @param chunks The stream to write the result chunks into.
+     * @return A Handler with the Future which contains the collection logic.
+     */
+    public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature, WriteStream<Buffer> chunks);
+}
@@ -0,0 +1,406 @@
+package info.pascalkrause.vertx.datacollector.journal;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+import info.pascalkrause.vertx.datacollector.codec.BinaryJson;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * An append-only write-ahead log for admitted collection requests. The log consists of memory-mapped segment files.
+ * Appended requests are forced to disk by a single flusher thread, which commits all appends that arrived within the
+ * commit interval at once (group commit). Acknowledged requests are written as acknowledgement records, and the
+ * oldest segments are deleted as soon as all of their requests were acknowledged.
+ * <p>
+ * Acknowledgements are forced lazily, so a request can be replayed more than once after a crash (at-least-once). If a
+ * commit fails, its requests are acknowledged right away, because their appenders are told that they failed.
+ */
+public class JobJournal {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    public static final long DEFAULT_COMMIT_INTERVAL = 2;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final byte TYPE_ADMIT = 1;
+    private static final byte TYPE_ACK = 2;
+    // length + crc
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static class Segment {
+        private final long index;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int live;
+
+        private Segment(long index, Path path, MappedByteBuffer buffer) {
+            this.index = index;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long commitInterval;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Map<Long, Segment> unacknowledged = new HashMap<>();
+    private List<Handler<AsyncResult<Void>>> uncommitted = new ArrayList<>();
+    // Rolled segments whose mapping is released by the flusher, which is the only other user of a rolled buffer
+    private List<Segment> rolled = new ArrayList<>();
+    private Segment active;
+    private long nextSequence;
+    private boolean dirty;
+    private boolean closed;
+    private Thread flusher;
+
+    /**
+     * @param directory The directory of the segment files.
+     * @param segmentSize The size of a segment file in bytes.
+     * @param commitInterval The time in milliseconds the flusher waits to collect appends before forcing them to disk.
+     */
+    public JobJournal(Path directory, int segmentSize, long commitInterval) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.commitInterval = commitInterval;
+    }
+
+    private static Path segmentPath(Path directory, long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentIndex(Path path) {
+        final String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Opens the journal and returns all requests which were admitted but never acknowledged. The returned requests
+     * are moved into a new segment before the old segments are deleted, so they are still protected against a crash
+     * during the replay. They must be acknowledged like any other appended request.
+     *
+     * @return The unacknowledged requests in the order in which they were admitted.
+     * @throws IOException If the journal can't be read or written.
+     */
+    public synchronized List<JournalEntry> recover() throws IOException {
+        if (Objects.nonNull(active)) {
+            throw new IllegalStateException("Journal is already open");
+        }
+        Files.createDirectories(directory);
+        final List<Path> oldSegments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(oldSegments::add);
+        }
+        oldSegments.sort((a, b) -> Long.compare(segmentIndex(a), segmentIndex(b)));
+
+        final Map<Long, JournalEntry> pending = new LinkedHashMap<>();
+        long lastIndex = -1;
+        for (final Path path : oldSegments) {
+            readSegment(path, pending);
+            lastIndex = segmentIndex(path);
+        }
+
+        active = createSegment(lastIndex + 1, segmentSize);
+        final List<JournalEntry> recovered = new ArrayList<>(pending.size());
+        for (final JournalEntry entry : pending.values()) {
+            final long sequence = writeAdmit(entry.getRequestId(), entry.getFeature());
+            active.live++;
+            unacknowledged.put(sequence, active);
+            recovered.add(new JournalEntry(sequence, entry.getRequestId(), entry.getFeature()));
+        }
+        force(active.buffer);
+        for (final Path path : oldSegments) {
+            Files.deleteIfExists(path);
+        }
+
+        flusher = new Thread(this::flushLoop, "JobJournal-Flusher-" + directory.getFileName());
+        flusher.setDaemon(true);
+        flusher.start();
+        return recovered;
+    }
+
+    private void readSegment(Path path, Map<Long, JournalEntry> pending) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+            final CRC32 crc = new CRC32();
+            while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+                final int length = buffer.getInt();
+                final int checksum = buffer.getInt();
+                if ((length <= 0) || (length > buffer.remaining())) {
+                    break;
+                }
+                final byte[] record = new byte[length];
+                buffer.get(record);
+                crc.reset();
+                crc.update(record);
+                if ((int) crc.getValue() != checksum) {
+                    // Torn write, the rest of the segment was never committed
+                    break;
+                }
+                final Buffer data = Buffer.buffer(record);
+                final long sequence = data.getLong(1);
+                nextSequence = Math.max(nextSequence, sequence + 1);
+                if (data.getByte(0) == TYPE_ADMIT) {
+                    final BinaryJson.Reader reader = new BinaryJson.Reader(data, 9);
+                    pending.put(sequence, new JournalEntry(sequence, reader.readNullableString(),
+                            reader.readJsonObject()));
+                } else {
+                    pending.remove(sequence);
+                }
+            }
+            unmap(buffer);
+        }
+    }
+
+    private Segment createSegment(long index, int size) throws IOException {
+        final Path path = segmentPath(directory, index);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            final Segment segment = new Segment(index, path, channel.map(MapMode.READ_WRITE, 0, size));
+            segments.addLast(segment);
+            return segment;
+        }
+    }
+
+    private void write(byte type, long sequence, byte[] payload) throws IOException {
+        final int length = 1 + 8 + payload.length;
+        if (active.buffer.remaining() < (RECORD_HEADER_SIZE + length)) {
+            force(active.buffer);
+            rolled.add(active);
+            active = createSegment(active.index + 1, Math.max(segmentSize, RECORD_HEADER_SIZE + length));
+        }
+        final byte[] record = Buffer.buffer(length).appendByte(type).appendLong(sequence).appendBytes(payload)
+                .getBytes();
+        final CRC32 crc = new CRC32();
+        crc.update(record);
+        active.buffer.putInt(length).putInt((int) crc.getValue()).put(record);
+        dirty = true;
+    }
+
+    private long writeAdmit(String requestId, JsonObject feature) throws IOException {
+        final Buffer payload = Buffer.buffer();
+        BinaryJson.writeNullableString(payload, requestId);
+        BinaryJson.writeJsonObject(payload, feature);
+        final long sequence = nextSequence;
+        write(TYPE_ADMIT, sequence, payload.getBytes());
+        nextSequence++;
+        return sequence;
+    }
+
+    /**
+     * Appends an admitted request to the journal. The passed handler is called from the flusher thread, after the
+     * request was forced to disk.
+     *
+     * @param requestId The id of the request.
+     * @param feature The feature of the request.
+     * @param committedHandler A handler which receives the sequence number of the request, after it was committed.
+     */
+    public synchronized void append(String requestId, JsonObject feature,
+            Handler<AsyncResult<Long>> committedHandler) {
+        if (Objects.isNull(active) || closed) {
+            committedHandler.handle(Future.failedFuture(new IllegalStateException("Journal is not open")));
+            return;
+        }
+        try {
+            final long sequence = writeAdmit(requestId, feature);
+            active.live++;
+            unacknowledged.put(sequence, active);
+            uncommitted.add(res -> {
+                if (res.failed()) {
+                    // The appender is told that the request failed, so it must never be replayed
+                    acknowledge(sequence);
+                    committedHandler.handle(Future.failedFuture(res.cause()));
+                } else {
+                    committedHandler.handle(Future.succeededFuture(sequence));
+                }
+            });
+            notifyAll();
+        } catch (final IOException | RuntimeException e) {
+            committedHandler.handle(Future.failedFuture(e));
+        }
+    }
+
+    /**
+     * Marks a request as completed, so that it will not be replayed anymore. Segments which only contain completed
+     * requests are deleted.
+     *
+     * @param sequence The sequence number of the completed request.
+     */
+    public synchronized void acknowledge(long sequence) {
+        final Segment segment = unacknowledged.remove(sequence);
+        if (Objects.isNull(segment) || closed) {
+            return;
+        }
+        try {
+            write(TYPE_ACK, sequence, new byte[0]);
+        } catch (final IOException e) {
+            // The request will be replayed after a restart
+        }
+        segment.live--;
+        compact();
+    }
+
+    /**
+     * Deletes the oldest segments as long as all of their requests are acknowledged. Acknowledgements are always
+     * written into the same or a newer segment than the request, so only deleting from the head keeps them valid.
+     */
+    private void compact() {
+        while ((segments.size() > 1) && (segments.peekFirst().live == 0)) {
+            final Segment segment = segments.pollFirst();
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (final IOException e) {
+                // Will be deleted during the next recovery
+            }
+        }
+    }
+
+    /**
+     * @return The number of requests which are not acknowledged yet.
+     */
+    public synchronized int size() {
+        return unacknowledged.size();
+    }
+
+    private void flushLoop() {
+        while (true) {
+            synchronized (this) {
+                while (uncommitted.isEmpty() && !closed) {
+                    try {
+                        wait();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (closed && uncommitted.isEmpty()) {
+                    return;
+                }
+            }
+            if (commitInterval > 0) {
+                try {
+                    Thread.sleep(commitInterval);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            final List<Handler<AsyncResult<Void>>> batch;
+            final Segment segment;
+            synchronized (this) {
+                batch = uncommitted;
+                uncommitted = new ArrayList<>();
+                segment = active;
+                dirty = false;
+            }
+            AsyncResult<Void> result;
+            try {
+                // Rolled segments were already forced when they were rolled
+                force(segment.buffer);
+                result = Future.succeededFuture();
+            } catch (final RuntimeException e) {
+                result = Future.failedFuture(e);
+            }
+            for (final Handler<AsyncResult<Void>> handler : batch) {
+                handler.handle(result);
+            }
+            releaseRolled();
+        }
+    }
+
+    private void releaseRolled() {
+        final List<Segment> released;
+        synchronized (this) {
+            released = rolled;
+            rolled = new ArrayList<>();
+        }
+        released.forEach(segment -> unmap(segment.buffer));
+    }
+
+    /**
+     * Forces the changes of the passed buffer to disk.
+     *
+     * @param buffer The buffer of a segment.
+     */
+    void force(MappedByteBuffer buffer) {
+        buffer.force();
+    }
+
+    /**
+     * Releases the mapping of the passed buffer, instead of waiting for the garbage collector. Otherwise the segment
+     * files stay mapped, and can't be deleted on some platforms. The buffer must not be used anymore.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            try {
+                // Java 9 and later
+                final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            } catch (final NoSuchMethodException e) {
+                final Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                final Object cleaner = cleanerMethod.invoke(buffer);
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            // The mapping is released by the garbage collector
+        }
+    }
+
+    /**
+     * Commits all pending appends and acknowledgements and stops the flusher thread.
+     */
+    public void close() {
+        final Thread t;
+        synchronized (this) {
+            if (closed || Objects.isNull(active)) {
+                closed = true;
+                return;
+            }
+            closed = true;
+            t = flusher;
+            notifyAll();
+        }
+        try {
+            t.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            try {
+                if (dirty) {
+                    force(active.buffer);
+                }
+            } finally {
+                rolled.add(active);
+            }
+        }
+        releaseRolled();
+    }
+}
@@ -0,0 +1,34 @@
+package info.pascalkrause.vertx.datacollector.journal;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A collection request which was admitted and written into the {@link JobJournal}, but not acknowledged yet.
+ */
+public class JournalEntry {
+
+    private final long sequence;
+    private final String requestId;
+    private final JsonObject feature;
+
+    public JournalEntry(long sequence, String requestId, JsonObject feature) {
+        this.sequence = sequence;
+        this.requestId = requestId;
+        this.feature = feature;
+    }
+
+    /**
+     * @return The sequence number, which must be passed to {@link JobJournal#acknowledge(long)}.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public JsonObject getFeature() {
+        return feature;
+    }
+}
@@ -3,10 +3,12 @@ package info.pascalkrause.vertx.datacollector.metrics;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import com.codahale.metrics.Counter;
@@ -24,6 +26,8 @@ public class MetricSnapshotFactory {
     public static final String METRIC_QUEUE_MAX_SIZE = "QueueMaxSize";
     public static final String METRIC_QUEUE_FREE = "QueueFree";
     public static final String METRIC_QUEUE_OCCUPIED = "QueueOccupied";
+    public static final String METRIC_QUEUE_BYTES_IN_FLIGHT = "QueueBytesInFlight";
+    public static final String METRIC_QUEUE_BYTES_BUDGET = "QueueBytesBudget";
 
     public static final String METRIC_TOTAL_JOBS_COUNT = "totalJobsCount";
     private final Counter totalJobsCounter;
@@ -33,6 +37,25 @@ public class MetricSnapshotFactory {
     private final Counter totalJobsSucceeded;
     public static final String METRIC_TOTAL_JOBS_EXCEPTION = "totalJobsException";
     private final Counter totalJobsException;
+    public static final String METRIC_TOTAL_JOBS_CANCELLED = "totalJobsCancelled";
+    private final Counter totalJobsCancelled;
+    public static final String METRIC_TOTAL_JOBS_EXPIRED = "totalJobsExpired";
+    private final Counter totalJobsExpired;
+
+    public static final String METRIC_COMPRESSION_COUNT = "compressionCount";
+    public static final String METRIC_COMPRESSION_UNCOMPRESSED_BYTES = "compressionUncompressedBytes";
+    public static final String METRIC_COMPRESSION_COMPRESSED_BYTES = "compressionCompressedBytes";
+    public static final String METRIC_COMPRESSION_NANOS = "compressionNanos";
+
+    public static final String METRIC_DEDUP_ATTACHED = "dedupAttached";
+    public static final String METRIC_DEDUP_CACHED = "dedupCached";
+
+    public static final String METRIC_TENANTS = "tenants";
+    public static final String METRIC_BULKHEADS = "bulkheads";
+    public static final String METRIC_HEDGING = "hedging";
+    public static final String METRIC_EXECUTOR = "executor";
+    public static final String METRIC_CHANGE_DETECTION = "changeDetection";
+    public static final String METRIC_PUBLICATION = "publication";
 
     private final MetricRegistry metricRegistry;
 
@@ -65,6 +88,96 @@ public class MetricSnapshotFactory {
                 (Gauge<Integer>) () -> currentQueueSize.get());
     }
 
+    /**
+     * Adds the bytes in flight and the byte budget to the queue metrics.
+     *
+     * @param bytesInFlight Supplies the estimated bytes of all admitted requests
+     * @param budget The maximum bytes in flight
+     */
+    public void registerByteBudgetMetrics(Supplier<Long> bytesInFlight, long budget) {
+        metricRegistry.register(MetricRegistry.name(METRIC_QUEUE_BYTES_IN_FLIGHT), (Gauge<Long>) bytesInFlight::get);
+        metricRegistry.register(MetricRegistry.name(METRIC_QUEUE_BYTES_BUDGET), (Gauge<Long>) () -> budget);
+    }
+
+    public void registerCompressionMetrics() {
+        metricRegistry.counter(METRIC_COMPRESSION_COUNT);
+        metricRegistry.counter(METRIC_COMPRESSION_UNCOMPRESSED_BYTES);
+        metricRegistry.counter(METRIC_COMPRESSION_COMPRESSED_BYTES);
+        metricRegistry.counter(METRIC_COMPRESSION_NANOS);
+    }
+
+    /**
+     * Records a compressed CollectorJobResult. Can be used as
+     * {@link info.pascalkrause.vertx.datacollector.codec.ResultCompression.Listener}.
+     *
+     * @param uncompressedBytes The size before the compression
+     * @param compressedBytes The size after the compression
+     * @param nanos The time which was spent for the compression
+     */
+    public void registerCompression(int uncompressedBytes, int compressedBytes, long nanos) {
+        metricRegistry.counter(METRIC_COMPRESSION_COUNT).inc();
+        metricRegistry.counter(METRIC_COMPRESSION_UNCOMPRESSED_BYTES).inc(uncompressedBytes);
+        metricRegistry.counter(METRIC_COMPRESSION_COMPRESSED_BYTES).inc(compressedBytes);
+        metricRegistry.counter(METRIC_COMPRESSION_NANOS).inc(nanos);
+    }
+
+    public void registerDeduplicationMetrics() {
+        metricRegistry.counter(METRIC_DEDUP_ATTACHED);
+        metricRegistry.counter(METRIC_DEDUP_CACHED);
+    }
+
+    /**
+     * Records a repeated request.
+     *
+     * @param attached True if the request was attached to a running request, false if a cached outcome was used.
+     */
+    public void registerDeduplicationHit(boolean attached) {
+        metricRegistry.counter(attached ? METRIC_DEDUP_ATTACHED : METRIC_DEDUP_CACHED).inc();
+    }
+
+    /**
+     * @param tenants Supplies the current metrics of every tenant.
+     */
+    public void registerTenantMetrics(Supplier<JsonObject> tenants) {
+        metricRegistry.register(MetricRegistry.name(METRIC_TENANTS), (Gauge<JsonObject>) tenants::get);
+    }
+
+    /**
+     * @param bulkheads Supplies the current metrics of the bulkhead of every named job.
+     */
+    public void registerBulkheadMetrics(Supplier<JsonObject> bulkheads) {
+        metricRegistry.register(MetricRegistry.name(METRIC_BULKHEADS), (Gauge<JsonObject>) bulkheads::get);
+    }
+
+    /**
+     * @param hedging Supplies the current number of hedges and wins and the hedge delay.
+     */
+    public void registerHedgeMetrics(Supplier<JsonObject> hedging) {
+        metricRegistry.register(MetricRegistry.name(METRIC_HEDGING), (Gauge<JsonObject>) hedging::get);
+    }
+
+    /**
+     * @param executor Supplies the current utilisation and steal count of the executor.
+     */
+    public void registerExecutorMetrics(Supplier<JsonObject> executor) {
+        metricRegistry.register(MetricRegistry.name(METRIC_EXECUTOR), (Gauge<JsonObject>) executor::get);
+    }
+
+    /**
+     * @param changeDetection Supplies the number of stored fingerprints, checked results and unchanged results.
+     */
+    public void registerChangeDetectionMetrics(Supplier<JsonObject> changeDetection) {
+        metricRegistry.register(MetricRegistry.name(METRIC_CHANGE_DETECTION),
+                (Gauge<JsonObject>) changeDetection::get);
+    }
+
+    /**
+     * @param publication Supplies the number of published, dropped and buffered results.
+     */
+    public void registerPublicationMetrics(Supplier<JsonObject> publication) {
+        metricRegistry.register(MetricRegistry.name(METRIC_PUBLICATION), (Gauge<JsonObject>) publication::get);
+    }
+
     public void registerTotalMetrics(AsyncResult<CollectorJobResult> postResult) {
         totalJobsCounter.inc();
         if (postResult.succeeded()) {
@@ -81,12 +194,31 @@ public class MetricSnapshotFactory {
         }
     }
 
+    /**
+     * Records a cancelled job. A cancelled job is counted in the total count, but not as exception.
+     */
+    public void registerCancelled() {
+        totalJobsCounter.inc();
+        totalJobsCancelled.inc();
+    }
+
+    /**
+     * Records a job which was dropped, because the deadline of its caller has passed. An expired job is counted in the
+     * total count, but not as exception.
+     */
+    public void registerExpired() {
+        totalJobsCounter.inc();
+        totalJobsExpired.inc();
+    }
+
     public MetricSnapshotFactory(MetricRegistry metricRegistry) {
         this.metricRegistry = metricRegistry;
         totalJobsCounter = metricRegistry.counter(METRIC_TOTAL_JOBS_COUNT);
         totalJobsFailed = metricRegistry.counter(METRIC_TOTAL_JOBS_FAILED);
         totalJobsSucceeded = metricRegistry.counter(METRIC_TOTAL_JOBS_SUCCEEDED);
         totalJobsException = metricRegistry.counter(METRIC_TOTAL_JOBS_EXCEPTION);
+        totalJobsCancelled = metricRegistry.counter(METRIC_TOTAL_JOBS_CANCELLED);
+        totalJobsExpired = metricRegistry.counter(METRIC_TOTAL_JOBS_EXPIRED);
     }
 
     private JsonObject getQueueMetrics() {
@@ -102,6 +234,12 @@ public class MetricSnapshotFactory {
             case METRIC_QUEUE_OCCUPIED:
                 queue.put("occupied", metric.getValue());
                 break;
+            case METRIC_QUEUE_BYTES_IN_FLIGHT:
+                queue.put("bytesInFlight", metric.getValue());
+                break;
+            case METRIC_QUEUE_BYTES_BUDGET:
+                queue.put("bytesBudget", metric.getValue());
+                break;
 
             default:
                 throw new IllegalStateException("Unknown metric: " + name);
@@ -126,6 +264,12 @@ public class MetricSnapshotFactory {
             case METRIC_TOTAL_JOBS_EXCEPTION:
                 jobs.put("exception", metric.getCount());
                 break;
+            case METRIC_TOTAL_JOBS_CANCELLED:
+                jobs.put("cancelled", metric.getCount());
+                break;
+            case METRIC_TOTAL_JOBS_EXPIRED:
+                jobs.put("expired", metric.getCount());
+                break;
 
             default:
                 throw new IllegalStateException("Unknown metric: " + name);
@@ -134,6 +278,31 @@ public class MetricSnapshotFactory {
         return jobs;
     }
 
+    private JsonObject getCompressionMetrics() {
+        final Map<String, Counter> counters = metricRegistry.getCounters(MetricFilter.startsWith("compression"));
+        if (counters.isEmpty()) {
+            return null;
+        }
+        final long count = counters.get(METRIC_COMPRESSION_COUNT).getCount();
+        final long uncompressed = counters.get(METRIC_COMPRESSION_UNCOMPRESSED_BYTES).getCount();
+        final long compressed = counters.get(METRIC_COMPRESSION_COMPRESSED_BYTES).getCount();
+        final long nanos = counters.get(METRIC_COMPRESSION_NANOS).getCount();
+        final double ratio = compressed == 0 ? 0d : (double) uncompressed / compressed;
+        return new JsonObject().put("count", count).put("uncompressedBytes", uncompressed)
+                .put("compressedBytes", compressed).put("ratio", ratio)
+                .put("nanosPerCompression", count == 0 ? 0 : nanos / count);
+    }
+
+    private JsonObject getDeduplicationMetrics() {
+        final Map<String, Counter> counters = metricRegistry.getCounters(MetricFilter.startsWith("dedup"));
+        if (counters.isEmpty()) {
+            return null;
+        }
+        final long attached = counters.get(METRIC_DEDUP_ATTACHED).getCount();
+        final long cached = counters.get(METRIC_DEDUP_CACHED).getCount();
+        return new JsonObject().put("hits", attached + cached).put("attached", attached).put("cached", cached);
+    }
+
     public JsonObject getMetricsSnapshot() {
         final JsonObject total = new JsonObject();
         total.put("jobs", getTotalJobsMetrics());
@@ -143,6 +312,38 @@ public class MetricSnapshotFactory {
         final JsonObject metrics = new JsonObject();
         metrics.put("total", total);
         metrics.put("queue", getQueueMetrics());
+        final JsonObject compression = getCompressionMetrics();
+        if (Objects.nonNull(compression)) {
+            metrics.put("compression", compression);
+        }
+        final JsonObject deduplication = getDeduplicationMetrics();
+        if (Objects.nonNull(deduplication)) {
+            metrics.put("deduplication", deduplication);
+        }
+        final Gauge<?> bulkheads = metricRegistry.getGauges().get(METRIC_BULKHEADS);
+        if (Objects.nonNull(bulkheads)) {
+            metrics.put("bulkheads", bulkheads.getValue());
+        }
+        final Gauge<?> tenants = metricRegistry.getGauges().get(METRIC_TENANTS);
+        if (Objects.nonNull(tenants)) {
+            metrics.put("tenants", tenants.getValue());
+        }
+        final Gauge<?> hedging = metricRegistry.getGauges().get(METRIC_HEDGING);
+        if (Objects.nonNull(hedging)) {
+            metrics.put("hedging", hedging.getValue());
+        }
+        final Gauge<?> executor = metricRegistry.getGauges().get(METRIC_EXECUTOR);
+        if (Objects.nonNull(executor)) {
+            metrics.put("executor", executor.getValue());
+        }
+        final Gauge<?> changeDetection = metricRegistry.getGauges().get(METRIC_CHANGE_DETECTION);
+        if (Objects.nonNull(changeDetection)) {
+            metrics.put("changeDetection", changeDetection.getValue());
+        }
+        final Gauge<?> publication = metricRegistry.getGauges().get(METRIC_PUBLICATION);
+        if (Objects.nonNull(publication)) {
+            metrics.put("publication", publication.getValue());
+        }
         return metrics;
     }
 }
@@ -0,0 +1,172 @@
+package info.pascalkrause.vertx.datacollector.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+import info.pascalkrause.vertx.datacollector.service.DataCollectorService;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Triggers recurring collections. The next run of every registered collection is kept in a {@link TimingWheel}, which
+ * is advanced by a periodic timer. The first run of a collection is placed randomly within its interval and every run
+ * is shifted by a random jitter, so that collections with the same interval don't fire at the same time.
+ * <p>
+ * The collections should be passed to a local DataCollectorService (see
+ * {@link info.pascalkrause.vertx.datacollector.client.DataCollectorServiceFactory#createLocal()}), so they don't pass
+ * the event bus. If the queue of the service is full, the run is retried after a short random delay, instead of being
+ * dropped. The next run is planned when the current run was accepted and completed, so a collection never runs twice
+ * at the same time.
+ */
+public class CollectionScheduler {
+
+    public static final long DEFAULT_TICK = 10;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * A registered recurring collection.
+     */
+    public final class ScheduledCollection {
+        private final String requestId;
+        private final JsonObject feature;
+        private final long interval;
+        private final long jitter;
+        private TimingWheel.Timeout<ScheduledCollection> next;
+        private boolean cancelled;
+
+        private ScheduledCollection(String requestId, JsonObject feature, long interval, long jitter) {
+            this.requestId = requestId;
+            this.feature = feature;
+            this.interval = interval;
+            this.jitter = jitter;
+        }
+
+        public String getRequestId() {
+            return requestId;
+        }
+
+        public long getInterval() {
+            return interval;
+        }
+
+        /**
+         * Stops the collection. A run which is already in progress is not interrupted.
+         */
+        public void cancel() {
+            synchronized (CollectionScheduler.this) {
+                cancelled = true;
+                if (Objects.nonNull(next)) {
+                    wheel.cancel(next);
+                    next = null;
+                }
+            }
+        }
+    }
+
+    private final Vertx vertx;
+    private final DataCollectorService service;
+    private final long tick;
+    private final TimingWheel<ScheduledCollection> wheel;
+    private long timerId = -1;
+
+    public CollectionScheduler(Vertx vertx, DataCollectorService service) {
+        this(vertx, service, DEFAULT_TICK, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @param vertx The Vert.x instance
+     * @param service The service which processes the collections
+     * @param tick The precision of the scheduler in milliseconds
+     * @param wheelSize The number of buckets per level of the timing wheel
+     */
+    public CollectionScheduler(Vertx vertx, DataCollectorService service, long tick, int wheelSize) {
+        this.vertx = vertx;
+        this.service = service;
+        this.tick = tick;
+        wheel = new TimingWheel<>(tick, wheelSize, System.currentTimeMillis());
+    }
+
+    private static long random(long bound) {
+        return bound > 0 ? ThreadLocalRandom.current().nextLong(bound) : 0;
+    }
+
+    /**
+     * Registers a recurring collection. The first run starts at a random time within the first interval.
+     *
+     * @param requestId The request id which is passed to every run.
+     * @param feature The feature which is passed to every run.
+     * @param interval The interval between two runs in milliseconds.
+     * @param jitter The maximum random shift of a run in milliseconds, in both directions.
+     * @return The registered collection, which can be used to cancel it.
+     */
+    public synchronized ScheduledCollection schedule(String requestId, JsonObject feature, long interval,
+            long jitter) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        final ScheduledCollection collection = new ScheduledCollection(requestId, feature, interval, jitter);
+        collection.next = wheel.add(collection, wheel.getCurrentTime() + random(interval));
+        startTimer();
+        return collection;
+    }
+
+    private void startTimer() {
+        if (timerId < 0) {
+            timerId = vertx.setPeriodic(tick, id -> advance());
+        }
+    }
+
+    /**
+     * @return The number of registered collections which wait for their next run.
+     */
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    /**
+     * Stops the timer of the scheduler. The registered collections are kept and continue when
+     * {@link #start()} is called.
+     */
+    public synchronized void stop() {
+        if (timerId >= 0) {
+            vertx.cancelTimer(timerId);
+            timerId = -1;
+        }
+    }
+
+    /**
+     * Starts the timer of the scheduler again, after it was stopped.
+     */
+    public synchronized void start() {
+        startTimer();
+    }
+
+    private void advance() {
+        final List<ScheduledCollection> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(System.currentTimeMillis(), due::add);
+            due.forEach(c -> c.next = null);
+        }
+        due.forEach(this::run);
+    }
+
+    private void run(ScheduledCollection collection) {
+        final long started = System.currentTimeMillis();
+        service.collect(collection.requestId, collection.feature, res -> {
+            if (res.failed() && DataCollectorService.ERROR_QUEUE_LIMIT_REACHED.equals(res.cause().getMessage())) {
+                reschedule(collection, System.currentTimeMillis() + tick + random(Math.max(tick, collection.jitter)));
+            } else {
+                final long shift = random((2 * collection.jitter) + 1) - collection.jitter;
+                reschedule(collection, Math.max(started + collection.interval + shift, System.currentTimeMillis()));
+            }
+        });
+    }
+
+    private synchronized void reschedule(ScheduledCollection collection, long deadline) {
+        if (!collection.cancelled) {
+            collection.next = wheel.add(collection, deadline);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package info.pascalkrause.vertx.datacollector.schedule;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel. Every level has the same number of buckets, the buckets of a level span the whole
+ * wheel of the level below. Adding and cancelling a timeout takes constant time, and advancing the wheel only touches
+ * the buckets that expire, so it stays efficient with millions of timeouts. Timeouts which are further away than the
+ * highest level are kept in an additional level, which is created on demand.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <T> The type of the values which are stored in the timeouts.
+ */
+public class TimingWheel<T> {
+
+    /**
+     * A value which expires at a deadline.
+     *
+     * @param <T> The type of the value.
+     */
+    public static final class Timeout<T> {
+        private final T value;
+        private final long deadline;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * @return True if the timeout neither expired nor was cancelled yet.
+         */
+        public boolean isPending() {
+            return Objects.nonNull(bucket);
+        }
+    }
+
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+
+        private void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (Objects.nonNull(head)) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        private void remove(Timeout<T> timeout) {
+            if (Objects.nonNull(timeout.prev)) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (Objects.nonNull(timeout.next)) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        private Timeout<T> drain() {
+            final Timeout<T> first = head;
+            head = null;
+            return first;
+        }
+    }
+
+    private final class Level {
+        private final long tick;
+        private final long interval;
+        private final Bucket<T>[] buckets;
+        private long currentTime;
+        private Level overflow;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private Level(long tick, long startTime) {
+            this.tick = tick;
+            interval = tick * wheelSize;
+            currentTime = startTime - (startTime % tick);
+            buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket<>();
+            }
+        }
+
+        private Bucket<T> bucket(long time) {
+            return buckets[(int) ((time / tick) % wheelSize)];
+        }
+
+        private void add(Timeout<T> timeout) {
+            if (timeout.deadline < (currentTime + interval)) {
+                bucket(timeout.deadline).add(timeout);
+            } else {
+                if (Objects.isNull(overflow)) {
+                    overflow = new Level(interval, currentTime);
+                }
+                overflow.add(timeout);
+            }
+        }
+    }
+
+    private final long tick;
+    private final int wheelSize;
+    private final Level root;
+    private int size;
+
+    /**
+     * @param tick The duration of a bucket in the lowest level, e.g. in milliseconds.
+     * @param wheelSize The number of buckets per level.
+     * @param startTime The current time, in the same unit as the tick.
+     */
+    public TimingWheel(long tick, int wheelSize, long startTime) {
+        this.tick = tick;
+        this.wheelSize = wheelSize;
+        root = new Level(tick, startTime);
+    }
+
+    /**
+     * @return The time up to which the wheel has advanced.
+     */
+    public long getCurrentTime() {
+        return root.currentTime;
+    }
+
+    /**
+     * @return The number of pending timeouts.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a timeout. A deadline which is already reached expires with the next call of
+     * {@link #advance(long, Consumer)}.
+     *
+     * @param value The value of the timeout.
+     * @param deadline The deadline of the timeout.
+     * @return The timeout, which can be used to cancel it.
+     */
+    public Timeout<T> add(T value, long deadline) {
+        final Timeout<T> timeout = new Timeout<>(value, Math.max(deadline, root.currentTime));
+        root.add(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * @param timeout The timeout to cancel.
+     * @return True if the timeout was pending.
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (!timeout.isPending()) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the passed time and passes the values of all expired timeouts to the consumer.
+     *
+     * @param now The current time.
+     * @param expired Receives the values of the expired timeouts.
+     */
+    public void advance(long now, Consumer<T> expired) {
+        while ((root.currentTime + tick) <= now) {
+            // The expired bucket is reused for the last tick of the next round
+            expire(root.bucket(root.currentTime).drain(), expired);
+            root.currentTime += tick;
+            // Move the timeouts of the higher levels down, when their current bucket is reached
+            for (Level level = root.overflow; Objects.nonNull(level)
+                    && ((root.currentTime % level.tick) == 0); level = level.overflow) {
+                level.currentTime = root.currentTime;
+                reinsert(level.bucket(level.currentTime).drain(), expired);
+            }
+        }
+    }
+
+    private void reinsert(Timeout<T> timeout, Consumer<T> expired) {
+        while (Objects.nonNull(timeout)) {
+            final Timeout<T> next = timeout.next;
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+            if (timeout.deadline < root.currentTime) {
+                size--;
+                expired.accept(timeout.value);
+            } else {
+                root.add(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    private void expire(Timeout<T> timeout, Consumer<T> expired) {
+        while (Objects.nonNull(timeout)) {
+            final Timeout<T> next = timeout.next;
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+            size--;
+            expired.accept(timeout.value);
+            timeout = next;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Isolates a named job from the other jobs of the service. The bulkhead limits the number of admitted requests of the
+ * job and the number of workers of the shared CollectorJobExecutor which it may use at the same time, so a slow or
+ * misbehaving job can only exhaust its own share.
+ */
+class Bulkhead {
+
+    private static final String SINGLE_QUEUE = "";
+
+    private final int queueSize;
+    private final int maxConcurrency;
+    private final long timeout;
+    private final FairDispatcher dispatcher;
+    private final AtomicInteger admitted = new AtomicInteger(0);
+    private final AtomicInteger running = new AtomicInteger(0);
+    private final AtomicLong rejected = new AtomicLong(0);
+    private final AtomicLong timeouts = new AtomicLong(0);
+
+    /**
+     * @param options The options of the bulkhead
+     * @param workerPoolSize The size of the shared CollectorJobExecutor
+     * @param serviceQueueSize The queue size of the service
+     */
+    Bulkhead(BulkheadOptions options, int workerPoolSize, int serviceQueueSize) {
+        maxConcurrency = options.getMaxConcurrency() < 0 ? workerPoolSize
+                : Math.min(options.getMaxConcurrency(), workerPoolSize);
+        queueSize = options.getQueueSize() < 0 ? serviceQueueSize : options.getQueueSize();
+        timeout = options.getTimeout();
+        dispatcher = new FairDispatcher(maxConcurrency, 1);
+    }
+
+    int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return True if the request was admitted, false if the queue of the bulkhead is full.
+     */
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = admitted.get();
+            if (current >= queueSize) {
+                rejected.incrementAndGet();
+                return false;
+            }
+        } while (!admitted.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Admits a request regardless of the queue size, e.g. a replayed request.
+     */
+    void acquire() {
+        admitted.incrementAndGet();
+    }
+
+    void release() {
+        admitted.decrementAndGet();
+    }
+
+    /**
+     * Runs the job as soon as one of the workers of the bulkhead is free.
+     *
+     * @param job The job, which must call {@link #done()} when it frees its worker
+     */
+    void submit(Runnable job) {
+        dispatcher.submit(SINGLE_QUEUE, () -> {
+            running.incrementAndGet();
+            job.run();
+        });
+    }
+
+    void done() {
+        running.decrementAndGet();
+        dispatcher.done();
+    }
+
+    void registerTimeout() {
+        timeouts.incrementAndGet();
+    }
+
+    JsonObject getMetrics() {
+        return new JsonObject().put("maxConcurrency", maxConcurrency).put("queueSize", queueSize)
+                .put("admitted", admitted.get()).put("running", running.get()).put("rejected", rejected.get())
+                .put("timeouts", timeouts.get());
+    }
+}
@@ -0,0 +1,59 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+/**
+ * Options of the bulkhead of a named job, see
+ * {@link DataCollectorServiceImpl#registerJob(String, info.pascalkrause.vertx.datacollector.job.CollectorJob,
+ * BulkheadOptions)}.
+ */
+public class BulkheadOptions {
+
+    public static final int DEFAULT_MAX_CONCURRENCY = -1;
+    public static final int DEFAULT_QUEUE_SIZE = -1;
+    public static final long DEFAULT_TIMEOUT = -1;
+
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+    private long timeout = DEFAULT_TIMEOUT;
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @param maxConcurrency The maximum number of workers of the shared CollectorJobExecutor which run this job at the
+     * same time. A negative value (default) allows the job to use the whole pool.
+     * @return A reference to this, so the API can be used fluently
+     */
+    public BulkheadOptions setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * @param queueSize The maximum number of queued and running requests of this job. A negative value (default) limits
+     * the job only by the queue size of the service.
+     * @return A reference to this, so the API can be used fluently
+     */
+    public BulkheadOptions setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+        return this;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @param timeout The time in milliseconds after which a request of this job is cancelled and fails with
+     * {@link DataCollectorService#ERROR_TIMEOUT}. A negative value (default) disables the timeout.
+     * @return A reference to this, so the API can be used fluently
+     */
+    public BulkheadOptions setTimeout(long timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+}
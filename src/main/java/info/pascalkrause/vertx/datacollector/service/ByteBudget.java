@@ -0,0 +1,105 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Admits requests against a budget of bytes in flight. Every admitted request holds its estimated bytes until it is
+ * completed, the estimate is replaced by the size of the actual result when the collect has finished. A single request
+ * which is larger than the whole budget is admitted if nothing else is in flight, otherwise it would never run.
+ */
+class ByteBudget {
+
+    private static final long OBJECT_BYTES = 48;
+    private static final long ENTRY_BYTES = 32;
+    private static final long STRING_BYTES = 40;
+    private static final long VALUE_BYTES = 16;
+    private static final long REFERENCE_BYTES = 8;
+
+    private final long budget;
+    private final AtomicLong inFlight = new AtomicLong();
+
+    /**
+     * @param budget The maximum number of bytes in flight
+     */
+    ByteBudget(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @return True if the bytes fit into the budget, they are held then.
+     */
+    boolean tryAcquire(long bytes) {
+        long current;
+        do {
+            current = inFlight.get();
+            if ((current > 0) && ((current + bytes) > budget)) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    /**
+     * Holds the bytes, even if they exceed the budget.
+     */
+    void acquire(long bytes) {
+        inFlight.addAndGet(bytes);
+    }
+
+    void release(long bytes) {
+        inFlight.addAndGet(-bytes);
+    }
+
+    long getInFlight() {
+        return inFlight.get();
+    }
+
+    long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Estimates the heap size of a JSON tree without encoding it. The estimate assumes a 64 bit JVM with compressed
+     * references and UTF-16 strings, it is meant to compare requests and not to be exact.
+     *
+     * @param json The JsonObject to measure, can be null
+     * @return The estimated size in bytes
+     */
+    static long sizeOf(JsonObject json) {
+        return Objects.isNull(json) ? 0 : sizeOfValue(json.getMap());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long sizeOfValue(Object value) {
+        if (Objects.isNull(value)) {
+            return 0;
+        } else if (value instanceof CharSequence) {
+            return STRING_BYTES + (2L * ((CharSequence) value).length());
+        } else if (value instanceof byte[]) {
+            return VALUE_BYTES + ((byte[]) value).length;
+        } else if (value instanceof JsonObject) {
+            return sizeOfValue(((JsonObject) value).getMap());
+        } else if (value instanceof JsonArray) {
+            return sizeOfValue(((JsonArray) value).getList());
+        } else if (value instanceof Map) {
+            long size = OBJECT_BYTES;
+            for (final Map.Entry<String, Object> e : ((Map<String, Object>) value).entrySet()) {
+                size += ENTRY_BYTES + sizeOfValue(e.getKey()) + sizeOfValue(e.getValue());
+            }
+            return size;
+        } else if (value instanceof List) {
+            long size = OBJECT_BYTES;
+            for (final Object o : (List<Object>) value) {
+                size += REFERENCE_BYTES + sizeOfValue(o);
+            }
+            return size;
+        }
+        return VALUE_BYTES;
+    }
+}
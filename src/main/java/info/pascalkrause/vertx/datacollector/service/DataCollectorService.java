@@ -6,12 +6,29 @@ import io.vertx.codegen.annotations.ProxyClose;
 import io.vertx.codegen.annotations.ProxyGen;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
 @ProxyGen
 public interface DataCollectorService {
 
     public static final String ERROR_QUEUE_LIMIT_REACHED = "queueLimitReached";
+    public static final String ERROR_JOB_NOT_FOUND = "jobNotFound";
+    public static final String ERROR_JOB_PENDING = "jobPending";
+    public static final String ERROR_CANCELLED = "cancelled";
+    public static final String ERROR_UNKNOWN_JOB = "unknownJob";
+    public static final String ERROR_TIMEOUT = "timeout";
+    public static final String ERROR_EXPIRED = "expired";
+
+    /**
+     * The quality of a result which equals the previous result with the same key, if change detection is enabled. Its
+     * post-collect stage was skipped.
+     */
+    public static final String QUALITY_UNCHANGED = "unchanged";
+
+    public static final String JOB_STATUS_PENDING = "pending";
+    public static final String JOB_STATUS_SUCCEEDED = "succeeded";
+    public static final String JOB_STATUS_FAILED = "failed";
 
     /**
      * This method triggers a {@link CollectorJob} and receives the {@link CollectorJobResult} in the passed result
@@ -35,6 +52,82 @@ public interface DataCollectorService {
      */
     public void collect(String requestId, JsonObject feature, Handler<AsyncResult<Void>> resultHandler);
 
+    /**
+     * This method triggers a {@link CollectorJob} and sends the collected data in chunks to the passed stream address,
+     * on which a {@link info.pascalkrause.vertx.datacollector.stream.ChunkReadStream} must listen. The chunks are sent
+     * with flow control, so the memory stays bounded whatever the result size is. If the job is a
+     * {@link info.pascalkrause.vertx.datacollector.job.StreamingCollectorJob}, the chunks are written by the job.
+     * Otherwise the JSON encoded result of the {@link CollectorJobResult} is split into chunks.
+     * <p>
+     * The {@link CollectorJobResult} which is passed to the result handler never contains the streamed data. It is
+     * passed after the last chunk was written.
+     *
+     * @param requestId A request id to identify the collection request.
+     * @param feature A JSON object to pass attributes and properties which are needed for the collection process.
+     * @param streamAddress The address of the ChunkReadStream which receives the chunks.
+     * @param resultHandler A handler to process the result.
+     */
+    public void collectAndStream(String requestId, JsonObject feature, String streamAddress,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler);
+
+    /**
+     * This method triggers a {@link CollectorJob} and returns immediately with the id of the job, which can be used to
+     * poll the status with {@link #status(String, Handler)} and to fetch the result with {@link #fetch(String, Handler)}.
+     * The results are kept for a limited time only. If a completion address is passed, a JsonObject with the fields
+     * <i>jobId</i>, <i>requestId</i> and <i>status</i> is sent to this address when the job is completed. If the queue
+     * is already full, the response will be a failed AsyncResult with the message which is specified in
+     * {@link DataCollectorService#ERROR_QUEUE_LIMIT_REACHED}.
+     *
+     * @param requestId A request id to identify the collection request.
+     * @param feature A JSON object to pass attributes and properties which are needed for the collection process.
+     * @param completionAddress An eventbus address which is notified when the job is completed, can be null.
+     * @param resultHandler A handler which receives the id of the job.
+     */
+    public void submit(String requestId, JsonObject feature, String completionAddress,
+            Handler<AsyncResult<String>> resultHandler);
+
+    /**
+     * Returns the status of a submitted job, which is {@link #JOB_STATUS_PENDING}, {@link #JOB_STATUS_SUCCEEDED} or
+     * {@link #JOB_STATUS_FAILED}. If the job is unknown or was already evicted, the response will be a failed
+     * AsyncResult with the message which is specified in {@link DataCollectorService#ERROR_JOB_NOT_FOUND}.
+     *
+     * @param jobId The id of the job, which was returned by {@link #submit(String, JsonObject, String, Handler)}.
+     * @param resultHandler A handler which receives the status of the job.
+     */
+    public void status(String jobId, Handler<AsyncResult<String>> resultHandler);
+
+    /**
+     * Returns the {@link CollectorJobResult} of a submitted job. If the job failed, the response will be a failed
+     * AsyncResult with the cause of the failure. If the job is not completed yet, the message is
+     * {@link DataCollectorService#ERROR_JOB_PENDING}, if the job is unknown or was already evicted, the message is
+     * {@link DataCollectorService#ERROR_JOB_NOT_FOUND}.
+     *
+     * @param jobId The id of the job, which was returned by {@link #submit(String, JsonObject, String, Handler)}.
+     * @param resultHandler A handler to process the result.
+     */
+    public void fetch(String jobId, Handler<AsyncResult<CollectorJobResult>> resultHandler);
+
+    /**
+     * Cancels all queued and running jobs with the passed requestId. Queued jobs are not executed anymore, running jobs
+     * are signaled through their {@link info.pascalkrause.vertx.datacollector.job.CollectorJobContext}. The slots in
+     * the queue are released immediately and the callers of the cancelled jobs receive a failed AsyncResult with the
+     * message which is specified in {@link DataCollectorService#ERROR_CANCELLED}.
+     *
+     * @param requestId The request id of the jobs which should be cancelled.
+     * @param resultHandler A handler which receives the number of cancelled jobs.
+     */
+    public void cancel(String requestId, Handler<AsyncResult<Integer>> resultHandler);
+
+    /**
+     * Returns the latest requests which took longer than the slow job threshold of the service, the oldest first. Every
+     * entry contains the requestId, the completion time, the outcome, a summary of the feature and the duration in
+     * milliseconds of the phases admission, queue, collect, postCollect and sink. The array is empty if the slow job
+     * log is disabled.
+     *
+     * @param resultHandler A handler which receives the slow requests.
+     */
+    public void getSlowJobs(Handler<AsyncResult<JsonArray>> resultHandler);
+
     /**
      * Returns a JsonObject which contains a current snapshot of the metrics. The JsonObject has more or less the
      * following structure:
@@ -45,8 +138,10 @@ public interface DataCollectorService {
      *     jobs: {
      *       count: 123,
      *       failed: 12,
-     *       succeeded: 108,
-     *       exception: 3
+     *       succeeded: 106,
+     *       exception: 3,
+     *       cancelled: 2,
+     *       expired: 0
      *     },
      *     quality: {
      *       complete: 90,
@@ -62,11 +157,75 @@ public interface DataCollectorService {
      *   queue: {
      *     maxSize: 30,
      *     free: 12,
-     *     occupied: 18
+     *     occupied: 18,
+     *     bytesInFlight: 52428800,
+     *     bytesBudget: 268435456
+     *   },
+     *   compression: {
+     *     count: 20,
+     *     uncompressedBytes: 2000000,
+     *     compressedBytes: 200000,
+     *     ratio: 10.0,
+     *     nanosPerCompression: 150000
+     *   },
+     *   deduplication: {
+     *     hits: 15,
+     *     attached: 5,
+     *     cached: 10
+     *   },
+     *   bulkheads: {
+     *     jobA: {
+     *       maxConcurrency: 4,
+     *       queueSize: 10,
+     *       admitted: 6,
+     *       running: 4,
+     *       rejected: 2,
+     *       timeouts: 1
+     *     },
+     *     ....
+     *   },
+     *   tenants: {
+     *     teamA: {
+     *       weight: 2,
+     *       queued: 4,
+     *       dispatched: 80,
+     *       waitMillis: 120
+     *     },
+     *     ....
+     *   },
+     *   hedging: {
+     *     hedged: 12,
+     *     won: 9,
+     *     delayMillis: 850
+     *   },
+     *   executor: {
+     *     backend: "forkJoin",
+     *     poolSize: 8,
+     *     active: 6,
+     *     utilisation: 0.75,
+     *     queuedSubmissions: 3,
+     *     queuedTasks: 40,
+     *     steals: 1200
+     *   },
+     *   changeDetection: {
+     *     entries: 500,
+     *     checked: 4000,
+     *     unchanged: 3600
+     *   },
+     *   publication: {
+     *     published: 3900,
+     *     batches: 40,
+     *     dropped: 100,
+     *     failedBatches: 1,
+     *     failedProjections: 0,
+     *     buffered: 20
      *   }
      * }
      * </pre>
      * <p>
+     * The compression, deduplication, bulkheads, tenants, hedging, changeDetection and publication sections are only
+     * available if the feature is enabled, the executor section only with the {@link ExecutorBackend#FORK_JOIN}
+     * backend. The bytes in the queue section are only available if the byte-budget admission is enabled.
      *
      * @param resultHandler A handler to process the metrics result.
      */
@@ -1,74 +1,1102 @@
 package info.pascalkrause.vertx.datacollector.service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import com.codahale.metrics.MetricRegistry;
 
+import info.pascalkrause.vertx.datacollector.job.BatchingCollectorJob;
 import info.pascalkrause.vertx.datacollector.job.CollectorJob;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobContext;
 import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import info.pascalkrause.vertx.datacollector.job.MemoryAwareCollectorJob;
+import info.pascalkrause.vertx.datacollector.job.ScatterGatherCollectorJob;
+import info.pascalkrause.vertx.datacollector.job.StreamingCollectorJob;
+import info.pascalkrause.vertx.datacollector.journal.JobJournal;
+import info.pascalkrause.vertx.datacollector.journal.JournalEntry;
 import info.pascalkrause.vertx.datacollector.metrics.MetricSnapshotFactory;
+import info.pascalkrause.vertx.datacollector.sink.ResultSink;
+import info.pascalkrause.vertx.datacollector.stream.ChunkWriteStream;
+import info.pascalkrause.vertx.datacollector.stream.IngestStream;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
-import io.vertx.core.WorkerExecutor;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
 
 public class DataCollectorServiceImpl implements DataCollectorService {
 
-    private final WorkerExecutor collectorJobExecutor;
-    private final WorkerExecutor postCollectExecutor;
-    private final CollectorJob collectorJob;
+    /**
+     * The size of the chunks in which the result of a non-streaming job is sent by
+     * {@link #collectAndStream(String, JsonObject, String, Handler)}.
+     */
+    public static final int STREAM_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The tenant of requests without tenant, if fair queueing is enabled.
+     */
+    public static final String DEFAULT_TENANT = "default";
+
+    private final Vertx vertx;
+    private final JobExecutor collectorJobExecutor;
+    private final JobExecutor postCollectExecutor;
+    private final int workerPoolSize;
     private final int queueSize;
     private final AtomicInteger currentQueueSize = new AtomicInteger(0);
     private final MetricSnapshotFactory metricFactory;
+    private final JobJournal journal;
+    private final ResultSink resultSink;
+    private final RequestDeduplicator deduplicator;
+    private final JobStore jobStore;
+    private final FairDispatcher dispatcher;
+    private final String tenantKey;
+    private final String jobNameKey;
+    private final DataCollectorServiceOptions options;
+    private final RegisteredJob defaultJob;
+    private final Map<String, RegisteredJob> namedJobs = new ConcurrentHashMap<>();
+    private final Map<String, List<RunningJob>> runningJobs = new ConcurrentHashMap<>();
+    private final boolean traceEnabled;
+    private final SlowJobLog slowJobLog;
+    private final HedgePolicy hedgePolicy;
+    private final ByteBudget byteBudget;
+    private final long defaultJobBytes;
+    private final ScatterGather scatterGather;
+    private final FingerprintStore fingerprintStore;
+    private final String changeDetectionKey;
+    private final ResultPublisher resultPublisher;
+
+    /**
+     * A job of this service with its post-collect batcher and its bulkhead, if any.
+     */
+    private static class RegisteredJob {
+        private final CollectorJob job;
+        private final PostCollectBatcher batcher;
+        private final Bulkhead bulkhead;
+
+        private RegisteredJob(CollectorJob job, PostCollectBatcher batcher, Bulkhead bulkhead) {
+            this.job = job;
+            this.batcher = batcher;
+            this.bulkhead = bulkhead;
+        }
+    }
+
+    /**
+     * The first attempt of a hedged collect and its hedge. The first attempt which finishes wins, the other one is
+     * cancelled.
+     */
+    private static class HedgedCollect {
+        private final AtomicBoolean decided = new AtomicBoolean(false);
+        private final CollectorJobContext primary;
+        private volatile CollectorJobContext hedge;
+        private volatile long started;
+
+        private HedgedCollect(CollectorJobContext primary) {
+            this.primary = primary;
+        }
+    }
+
+    /**
+     * A queued or running job, which can be cancelled. The result handler is called exactly once, either with the
+     * outcome of the job or with the cancellation.
+     */
+    private static class RunningJob {
+        private final RegisteredJob registered;
+        private final CollectorJobContext jobContext;
+        private final JsonObject feature;
+        private final StageTrace trace;
+        private final Context callerContext;
+        private final Handler<AsyncResult<CollectorJobResult>> resultHandler;
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+        // Guarded by this, the estimate is replaced by the actual size when the collect has finished
+        private long bytes;
+        // The size of the result of the attempt which finished first, or -1 if it wasn't measured
+        private volatile long resultBytes = -1;
+        // The id of the timer which enforces the timeout of the bulkhead, or -1 if there is none
+        private volatile long timeoutTimer = -1;
+
+        private RunningJob(RegisteredJob registered, CollectorJobContext jobContext, JsonObject feature, long bytes,
+                StageTrace trace, Context callerContext, Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+            this.registered = registered;
+            this.jobContext = jobContext;
+            this.feature = feature;
+            this.bytes = bytes;
+            this.trace = trace;
+            this.callerContext = callerContext;
+            this.resultHandler = resultHandler;
+        }
+    }
 
     public DataCollectorServiceImpl(Vertx vertx, CollectorJob job, int workerPoolSize, int queueSize,
             boolean enableMetrics, long maxExecuteTimeout, String address) {
+        this(vertx, job, new DataCollectorServiceOptions().setWorkerPoolSize(workerPoolSize).setQueueSize(queueSize)
+                .setMetricsEnabled(enableMetrics).setMaxExecuteTimeout(maxExecuteTimeout), address);
+    }
+
+    public DataCollectorServiceImpl(Vertx vertx, CollectorJob job, DataCollectorServiceOptions options,
+            String address) {
+        this.vertx = vertx;
         address = address.replaceAll(" ", "");
-        collectorJobExecutor = vertx.createSharedWorkerExecutor("CollectorJobExecutor-Pool-" + address, workerPoolSize,
-                TimeUnit.MILLISECONDS.toNanos(maxExecuteTimeout));
-        postCollectExecutor = vertx.createSharedWorkerExecutor("PostCollectExecutor-Pool-" + address, workerPoolSize,
-                TimeUnit.MILLISECONDS.toNanos(maxExecuteTimeout));
-        collectorJob = job;
-        this.queueSize = queueSize;
-        if (enableMetrics) {
+        this.options = options;
+        workerPoolSize = options.getWorkerPoolSize();
+        final long maxExecuteTimeout = options.getMaxExecuteTimeout();
+        if (options.getExecutorBackend() == ExecutorBackend.FORK_JOIN) {
+            collectorJobExecutor = new ForkJoinJobExecutor(vertx, "CollectorJobExecutor-ForkJoin-" + address,
+                    workerPoolSize);
+            postCollectExecutor = collectorJobExecutor;
+        } else {
+            collectorJobExecutor = new WorkerPoolJobExecutor(vertx, "CollectorJobExecutor-Pool-" + address,
+                    workerPoolSize, maxExecuteTimeout);
+            postCollectExecutor = new WorkerPoolJobExecutor(vertx, "PostCollectExecutor-Pool-" + address,
+                    workerPoolSize, maxExecuteTimeout);
+        }
+        queueSize = options.getQueueSize();
+        byteBudget = options.getMemoryBudget() < 0 ? null : new ByteBudget(options.getMemoryBudget());
+        defaultJobBytes = options.getDefaultJobBytes();
+        scatterGather = new ScatterGather(collectorJobExecutor, options.getScatterParallelism(), workerPoolSize);
+        if (options.isMetricsEnabled()) {
             metricFactory = new MetricSnapshotFactory(new MetricRegistry());
             metricFactory.registerQueueMetrics(currentQueueSize, queueSize);
+            if (Objects.nonNull(byteBudget)) {
+                metricFactory.registerByteBudgetMetrics(byteBudget::getInFlight, byteBudget.getBudget());
+            }
+            if (options.getExecutorBackend() == ExecutorBackend.FORK_JOIN) {
+                metricFactory.registerExecutorMetrics(collectorJobExecutor::getMetrics);
+            }
+            if (options.getCompressionThreshold() >= 0) {
+                metricFactory.registerCompressionMetrics();
+            }
+            if (options.getDeduplicationWindow() >= 0) {
+                metricFactory.registerDeduplicationMetrics();
+            }
         } else {
             metricFactory = null;
         }
+        tenantKey = options.getTenantKey();
+        if (Objects.isNull(tenantKey)) {
+            dispatcher = null;
+        } else {
+            dispatcher = new FairDispatcher(workerPoolSize, options.getDefaultTenantWeight());
+            options.getTenantWeights().forEach(dispatcher::setWeight);
+            if (Objects.nonNull(metricFactory)) {
+                metricFactory.registerTenantMetrics(dispatcher::getMetrics);
+            }
+        }
+        journal = Objects.isNull(options.getJournalDirectory()) ? null
+                : new JobJournal(Paths.get(options.getJournalDirectory()), options.getJournalSegmentSize(),
+                        options.getJournalCommitInterval());
+        jobNameKey = options.getJobNameKey();
+        defaultJob = Objects.isNull(job) ? null : new RegisteredJob(job, createBatcher(job), null);
+        jobStore = new JobStore(options.getJobStoreMaxSize(), options.getJobStoreTtl());
+        traceEnabled = options.isTraceEnabled();
+        slowJobLog = options.getSlowJobThreshold() < 0 ? null
+                : new SlowJobLog(options.getSlowJobThreshold(), options.getSlowJobLogSize());
+        if (options.getHedgePercentile() < 0) {
+            hedgePolicy = null;
+        } else {
+            hedgePolicy = new HedgePolicy(options.getHedgePercentile(), options.getHedgeBudget());
+            if (Objects.nonNull(metricFactory)) {
+                metricFactory.registerHedgeMetrics(hedgePolicy::getMetrics);
+            }
+        }
+        deduplicator = options.getDeduplicationWindow() < 0 ? null
+                : new RequestDeduplicator(vertx, options.getDeduplicationWindow(),
+                        options.getDeduplicationMaxEntries());
+        changeDetectionKey = options.getChangeDetectionKey();
+        if (options.getChangeDetectionSize() < 0) {
+            fingerprintStore = null;
+        } else {
+            try {
+                fingerprintStore = new FingerprintStore(options.getChangeDetectionSize(),
+                        Objects.isNull(options.getChangeDetectionFile()) ? null
+                                : Paths.get(options.getChangeDetectionFile()));
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (Objects.nonNull(metricFactory)) {
+                metricFactory.registerChangeDetectionMetrics(fingerprintStore::getMetrics);
+            }
+        }
+        if (Objects.isNull(options.getPublishAddress())) {
+            resultPublisher = null;
+        } else {
+            resultPublisher = new ResultPublisher(vertx, options.getPublishAddress(),
+                    Objects.isNull(options.getPublishProjection()) ? CollectorJobResult::toJson
+                            : options.getPublishProjection(),
+                    options.getPublishBatchSize(), options.getPublishBatchLinger(), options.getPublishBufferSize(),
+                    options.getPublishOverflowPolicy(), options.getPublishAckTimeout());
+            if (Objects.nonNull(metricFactory)) {
+                metricFactory.registerPublicationMetrics(resultPublisher::getMetrics);
+            }
+        }
+        if (Objects.isNull(options.getResultSinkDirectory())) {
+            resultSink = null;
+        } else {
+            try {
+                resultSink = new ResultSink(Paths.get(options.getResultSinkDirectory()),
+                        options.getResultSinkSegmentSize(), options.getResultSinkFsyncPolicy(),
+                        options.getResultSinkCompressionThreshold());
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private PostCollectBatcher createBatcher(CollectorJob job) {
+        return (job instanceof BatchingCollectorJob)
+                ? new PostCollectBatcher(vertx, postCollectExecutor, (BatchingCollectorJob) job,
+                        options.getPostCollectBatchSize(), options.getPostCollectBatchLinger())
+                : null;
+    }
+
+    /**
+     * Registers a named job, requests are routed to it when the value of the job name key of their feature is the name
+     * of the job. Requests without job name are processed by the job which was passed to the constructor. Every named
+     * job gets its own bulkhead, which is carved out of the shared CollectorJobExecutor. Must be called before the
+     * service accepts requests.
+     *
+     * @param name The name of the job
+     * @param job The job
+     * @param bulkheadOptions The limits of the job
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceImpl registerJob(String name, CollectorJob job, BulkheadOptions bulkheadOptions) {
+        final Bulkhead bulkhead = new Bulkhead(bulkheadOptions, workerPoolSize, queueSize);
+        if (Objects.nonNull(namedJobs.putIfAbsent(name, new RegisteredJob(job, createBatcher(job), bulkhead)))) {
+            throw new IllegalStateException("A job with the name " + name + " is already registered");
+        }
+        if (Objects.nonNull(metricFactory) && (namedJobs.size() == 1)) {
+            metricFactory.registerBulkheadMetrics(() -> {
+                final JsonObject bulkheads = new JsonObject();
+                namedJobs.forEach((n, j) -> bulkheads.put(n, j.bulkhead.getMetrics()));
+                return bulkheads;
+            });
+        }
+        return this;
+    }
+
+    /**
+     * @return The job which processes the passed feature, or null if there is none.
+     */
+    private RegisteredJob resolve(JsonObject feature) {
+        if (namedJobs.isEmpty()) {
+            return defaultJob;
+        }
+        final Object name = Objects.isNull(feature) ? null : feature.getValue(jobNameKey);
+        return Objects.isNull(name) ? defaultJob : namedJobs.get(name.toString());
+    }
+
+    /**
+     * @return The MetricSnapshotFactory of this service, or null if metrics are disabled.
+     */
+    public MetricSnapshotFactory getMetricFactory() {
+        return metricFactory;
+    }
+
+    /**
+     * @return The ResultSink of this service, or null if the result sink is disabled.
+     */
+    public ResultSink getResultSink() {
+        return resultSink;
+    }
+
+    /**
+     * Changes the weight of a tenant at runtime. A tenant with weight 2 gets twice the workers of a tenant with weight
+     * 1, as long as both have queued requests.
+     *
+     * @param tenant The name of the tenant
+     * @param weight The weight of the tenant, must be at least 1
+     */
+    public void setTenantWeight(String tenant, int weight) {
+        if (Objects.isNull(dispatcher)) {
+            throw new IllegalStateException("Fair queueing is not enabled, set a tenantKey in the options");
+        }
+        dispatcher.setWeight(tenant, weight);
+    }
+
+    /**
+     * The service can be called from several contexts at the same time when it is used by a local proxy, so the
+     * slot must be acquired atomically.
+     */
+    private boolean tryAcquireSlot() {
+        int current;
+        do {
+            current = currentQueueSize.get();
+            if (current >= queueSize) {
+                return false;
+            }
+        } while (!currentQueueSize.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * @return The estimated memory of the request in bytes, or 0 if the byte budget is disabled.
+     */
+    private long estimateBytes(RegisteredJob registered, String requestId, JsonObject feature) {
+        if (Objects.isNull(byteBudget)) {
+            return 0;
+        }
+        return (registered.job instanceof MemoryAwareCollectorJob)
+                ? Math.max(0, ((MemoryAwareCollectorJob) registered.job).estimateBytes(requestId, feature))
+                : defaultJobBytes;
+    }
+
+    /**
+     * Acquires a slot in the bulkhead of the job and in the queue of the service, and the bytes in the byte budget.
+     */
+    private boolean tryAdmit(RegisteredJob registered, long bytes) {
+        if (Objects.nonNull(registered.bulkhead) && !registered.bulkhead.tryAcquire()) {
+            return false;
+        }
+        if (!tryAcquireSlot()) {
+            if (Objects.nonNull(registered.bulkhead)) {
+                registered.bulkhead.release();
+            }
+            return false;
+        }
+        if (Objects.nonNull(byteBudget) && !byteBudget.tryAcquire(bytes)) {
+            currentQueueSize.decrementAndGet();
+            if (Objects.nonNull(registered.bulkhead)) {
+                registered.bulkhead.release();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private void releaseAdmission(RegisteredJob registered, long bytes) {
+        currentQueueSize.decrementAndGet();
+        if (Objects.nonNull(registered.bulkhead)) {
+            registered.bulkhead.release();
+        }
+        if (Objects.nonNull(byteBudget)) {
+            byteBudget.release(bytes);
+        }
+    }
+
+    /**
+     * Must only be called by the caller which completed the job.
+     */
+    private void releaseAdmission(RunningJob job) {
+        synchronized (job) {
+            releaseAdmission(job.registered, job.bytes);
+        }
+    }
+
+    /**
+     * Replaces the estimated bytes of the job with the measured size of its actual result, unless the job is already
+     * completed and its bytes were released.
+     */
+    private void reconcileBytes(RunningJob job) {
+        final long actual = job.resultBytes;
+        if (Objects.isNull(byteBudget) || (actual < 0)) {
+            return;
+        }
+        synchronized (job) {
+            if (!job.completed.get()) {
+                byteBudget.acquire(actual - job.bytes);
+                job.bytes = actual;
+            }
+        }
+    }
+
+    private void track(RunningJob job) {
+        if (Objects.nonNull(job.jobContext.getRequestId())) {
+            runningJobs.compute(job.jobContext.getRequestId(), (id, jobs) -> {
+                final List<RunningJob> list = Objects.isNull(jobs) ? new ArrayList<>() : jobs;
+                list.add(job);
+                return list;
+            });
+        }
+    }
+
+    private void untrack(RunningJob job) {
+        if (Objects.nonNull(job.jobContext.getRequestId())) {
+            runningJobs.computeIfPresent(job.jobContext.getRequestId(), (id, jobs) -> {
+                jobs.remove(job);
+                return jobs.isEmpty() ? null : jobs;
+            });
+        }
+    }
+
+    /**
+     * @return A trace which starts now, or null if neither tracing nor the slow job log is enabled.
+     */
+    private StageTrace startTrace() {
+        return (traceEnabled || Objects.nonNull(slowJobLog)) ? new StageTrace(System.nanoTime()) : null;
+    }
+
+    /**
+     * Measures the size of the result in the thread which completes the collect, which is usually a worker, because
+     * serializing a large result would block the event loop.
+     *
+     * @param resultBytes Is set to the size of the result, if the byte budget is enabled
+     */
+    private Handler<Future<CollectorJobResult>> measure(Handler<Future<CollectorJobResult>> collectHandler,
+            AtomicLong resultBytes) {
+        if (Objects.isNull(byteBudget)) {
+            return collectHandler;
+        }
+        return fut -> {
+            final Future<CollectorJobResult> collected = Future.future();
+            collected.setHandler(collectResult -> {
+                if (collectResult.succeeded() && Objects.nonNull(collectResult.result())) {
+                    resultBytes.set(ByteBudget.sizeOf(collectResult.result().toJson()));
+                }
+                fut.handle(collectResult);
+            });
+            collectHandler.handle(collected);
+        };
+    }
+
+    /**
+     * @return The collect of the request, which fans out into parts if the job is a {@link ScatterGatherCollectorJob}.
+     */
+    private Handler<Future<CollectorJobResult>> collectHandler(RegisteredJob registered, String requestId,
+            JsonObject feature, CollectorJobContext ctx) {
+        return (registered.job instanceof ScatterGatherCollectorJob)
+                ? scatterGather.collect((ScatterGatherCollectorJob) registered.job, requestId, feature, ctx,
+                        registered.bulkhead)
+                : registered.job.collect(requestId, feature, ctx);
+    }
+
+    /**
+     * @param hedgeable False if the collect must not run twice, e.g. because it streams its result
+     */
+    private void execute(RegisteredJob registered, String requestId, JsonObject feature, long bytes, long deadline,
+            StageTrace trace, boolean hedgeable,
+            Function<CollectorJobContext, Handler<Future<CollectorJobResult>>> collector,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        final CollectorJobContext jobContext = new CollectorJobContext(requestId, deadline);
+        final RunningJob job = new RunningJob(registered, jobContext, feature, bytes, trace,
+                vertx.getOrCreateContext(), resultHandler);
+        final Bulkhead bulkhead = registered.bulkhead;
+        if (Objects.nonNull(trace)) {
+            trace.admitted();
+        }
+        // The timer is armed before the job becomes visible to cancel(), which cancels the timer
+        if (Objects.nonNull(bulkhead) && (bulkhead.getTimeout() >= 0)) {
+            job.timeoutTimer = vertx.setTimer(Math.max(1, bulkhead.getTimeout()), id -> timeout(job));
+        }
+        track(job);
+        final HedgedCollect hedged;
+        final Handler<Future<CollectorJobResult>> collectHandler;
+        final AtomicLong resultBytes = new AtomicLong(-1);
+        // A hedge of a scatter-gather job would collect all its parts again
+        if (Objects.nonNull(hedgePolicy) && hedgeable && !(registered.job instanceof ScatterGatherCollectorJob)) {
+            // The attempts get their own contexts, so that the loser can be cancelled without cancelling the job
+            hedged = new HedgedCollect(new CollectorJobContext(requestId, deadline));
+            jobContext.onCancel(hedged.primary::cancel);
+            collectHandler = measure(collector.apply(hedged.primary), resultBytes);
+        } else {
+            hedged = null;
+            collectHandler = measure(collector.apply(jobContext), resultBytes);
+        }
+        final Handler<AsyncResult<CollectorJobResult>> collectedHandler = collectResult -> {
+            if (Objects.nonNull(trace)) {
+                trace.collected();
+            }
+            reconcileBytes(job);
+            if (jobContext.isCancelled()) {
+                complete(job, Future.failedFuture(ERROR_CANCELLED));
+                return;
+            }
+            if (jobContext.isExpired()) {
+                complete(job, Future.failedFuture(ERROR_EXPIRED));
+                return;
+            }
+            if (Objects.isNull(fingerprintStore) || collectResult.failed() || Objects.isNull(collectResult.result())
+                    || collectResult.result().getError().isPresent()) {
+                postCollectAndComplete(job, collectResult, null);
+            } else {
+                detectChange(job, collectResult);
+            }
+        };
+        final Handler<Future<CollectorJobResult>> blockingHandler = fut -> {
+            // Skip jobs which were cancelled or expired while they were queued
+            if (jobContext.isCancelled()) {
+                fut.fail(ERROR_CANCELLED);
+            } else if (jobContext.isExpired()) {
+                fut.fail(ERROR_EXPIRED);
+            } else {
+                if (Objects.nonNull(trace)) {
+                    trace.started();
+                }
+                if (Objects.nonNull(hedged)) {
+                    hedged.started = System.nanoTime();
+                    job.callerContext.runOnContext(v -> scheduleHedge(job, hedged, collector, collectedHandler));
+                }
+                collectHandler.handle(fut);
+            }
+        };
+        final Handler<AsyncResult<CollectorJobResult>> collectResultHandler = collectResult -> {
+            if (Objects.isNull(hedged)) {
+                job.resultBytes = resultBytes.get();
+                collectedHandler.handle(collectResult);
+            } else if (hedged.decided.compareAndSet(false, true)) {
+                if (hedged.started > 0) {
+                    hedgePolicy.recordLatency(System.nanoTime() - hedged.started);
+                }
+                if (Objects.nonNull(hedged.hedge)) {
+                    hedged.hedge.cancel();
+                }
+                job.resultBytes = resultBytes.get();
+                collectedHandler.handle(collectResult);
+            }
+        };
+        dispatch(job, blockingHandler, collectResultHandler);
+    }
+
+    /**
+     * Runs a blocking handler of the job in the CollectorJobExecutor as soon as the bulkhead of the job and the fair
+     * dispatcher grant it a worker. The worker is freed before the result handler is called.
+     */
+    private void dispatch(RunningJob job, Handler<Future<CollectorJobResult>> blockingHandler,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        final Bulkhead bulkhead = job.registered.bulkhead;
+        final Handler<AsyncResult<CollectorJobResult>> doneHandler = collectResult -> {
+            if (Objects.nonNull(bulkhead)) {
+                bulkhead.done();
+            }
+            resultHandler.handle(collectResult);
+        };
+        final Runnable dispatch = () -> {
+            if (Objects.isNull(dispatcher)) {
+                collectorJobExecutor.executeBlocking(blockingHandler, doneHandler);
+            } else {
+                // The job may be dispatched from another context, when a worker of another job becomes free
+                dispatcher.submit(tenantOf(job.feature), () -> job.callerContext.runOnContext(v -> {
+                    collectorJobExecutor.executeBlocking(blockingHandler, collectResult -> {
+                        dispatcher.done();
+                        doneHandler.handle(collectResult);
+                    });
+                }));
+            }
+        };
+        if (Objects.isNull(bulkhead)) {
+            dispatch.run();
+        } else {
+            bulkhead.submit(() -> job.callerContext.runOnContext(v -> dispatch.run()));
+        }
+    }
+
+    /**
+     * Runs the post-collect stage and the result sink and completes the job.
+     *
+     * @param onProcessed Is called if the post-collect stage and the result sink succeeded, or null
+     */
+    private void postCollectAndComplete(RunningJob job, AsyncResult<CollectorJobResult> collectResult,
+            Runnable onProcessed) {
+        postCollect(job.registered, job.jobContext, collectResult, postResult -> {
+            if (Objects.nonNull(job.trace)) {
+                job.trace.postCollected();
+            }
+            if (Objects.nonNull(resultSink) && postResult.succeeded() && !job.jobContext.isCancelled()) {
+                // The sink calls back from its writer thread
+                final Context context = vertx.getOrCreateContext();
+                resultSink.append(postResult.result(), written -> context.runOnContext(v -> {
+                    if (written.succeeded() && Objects.nonNull(onProcessed)) {
+                        onProcessed.run();
+                    }
+                    complete(job, written.failed() ? Future.failedFuture(written.cause()) : postResult);
+                }));
+            } else {
+                if (postResult.succeeded() && Objects.nonNull(onProcessed)) {
+                    onProcessed.run();
+                }
+                complete(job, postResult);
+            }
+        });
+    }
+
+    /**
+     * Skips the post-collect stage and the result sink if the fingerprint of the result equals the fingerprint of the
+     * previous result with the same key. The fingerprint is computed in the PostCollectExecutor, because hashing a
+     * large result would block the event loop. It is only stored when the result was processed, so that a failed
+     * post-collect stage is repeated with the next equal result.
+     */
+    private void detectChange(RunningJob job, AsyncResult<CollectorJobResult> collectResult) {
+        final Object keyValue = Objects.isNull(changeDetectionKey) || Objects.isNull(job.feature) ? null
+                : job.feature.getValue(changeDetectionKey);
+        final String key = Objects.isNull(keyValue) ? job.jobContext.getRequestId() : keyValue.toString();
+        if (Objects.isNull(key)) {
+            postCollectAndComplete(job, collectResult, null);
+            return;
+        }
+        final CollectorJobResult result = collectResult.result();
+        postCollectExecutor.<Long>executeBlocking(fut -> fut.complete(FingerprintStore.fingerprint(result)),
+                fingerprint -> {
+                    if (fingerprint.failed()) {
+                        postCollectAndComplete(job, collectResult, null);
+                    } else if (fingerprintStore.isUnchanged(key, fingerprint.result())) {
+                        if (Objects.nonNull(job.trace)) {
+                            job.trace.postCollected();
+                        }
+                        complete(job, Future.succeededFuture(new CollectorJobResult(result.getRequestId(),
+                                result.getSource(), QUALITY_UNCHANGED, result.getCreated(), result.getResult(),
+                                null)));
+                    } else {
+                        postCollectAndComplete(job, collectResult,
+                                () -> fingerprintStore.update(key, fingerprint.result()));
+                    }
+                });
+    }
+
+    /**
+     * Starts a second attempt of the collect, if the first attempt is still running after the hedge delay and the
+     * budget allows it. The hedge is dispatched like the first attempt, so it counts against the bulkhead of the job
+     * and the share of its tenant, and it is skipped if the first attempt finished while the hedge was queued. A
+     * failed hedge doesn't win, the first attempt may still succeed.
+     */
+    private void scheduleHedge(RunningJob job, HedgedCollect hedged,
+            Function<CollectorJobContext, Handler<Future<CollectorJobResult>>> collector,
+            Handler<AsyncResult<CollectorJobResult>> collectedHandler) {
+        final long delay = hedgePolicy.onCollect();
+        if (delay < 0) {
+            return;
+        }
+        vertx.setTimer(delay, id -> {
+            final CollectorJobContext jobContext = job.jobContext;
+            if (hedged.decided.get() || jobContext.isCancelled() || jobContext.isExpired()
+                    || !hedgePolicy.tryHedge()) {
+                return;
+            }
+            final CollectorJobContext hedge = new CollectorJobContext(jobContext.getRequestId(),
+                    jobContext.getDeadline());
+            hedged.hedge = hedge;
+            jobContext.onCancel(hedge::cancel);
+            final AtomicLong resultBytes = new AtomicLong(-1);
+            final Handler<Future<CollectorJobResult>> collectHandler = measure(collector.apply(hedge), resultBytes);
+            dispatch(job, fut -> {
+                if (hedged.decided.get() || hedge.isCancelled()) {
+                    fut.fail(ERROR_CANCELLED);
+                } else if (hedge.isExpired()) {
+                    fut.fail(ERROR_EXPIRED);
+                } else {
+                    collectHandler.handle(fut);
+                }
+            }, collectResult -> {
+                if (collectResult.succeeded() && hedged.decided.compareAndSet(false, true)) {
+                    hedgePolicy.registerWin();
+                    hedgePolicy.recordLatency(System.nanoTime() - hedged.started);
+                    hedged.primary.cancel();
+                    job.resultBytes = resultBytes.get();
+                    collectedHandler.handle(collectResult);
+                }
+            });
+        });
+    }
+
+    /**
+     * Cancels a job which exceeded the timeout of its bulkhead.
+     */
+    private void timeout(RunningJob job) {
+        if (job.completed.get()) {
+            return;
+        }
+        untrack(job);
+        job.jobContext.cancel();
+        if (job.completed.compareAndSet(false, true)) {
+            releaseAdmission(job);
+            job.registered.bulkhead.registerTimeout();
+            final AsyncResult<CollectorJobResult> timeout = Future.failedFuture(ERROR_TIMEOUT);
+            if (Objects.nonNull(metricFactory)) {
+                metricFactory.registerTotalMetrics(timeout);
+            }
+            job.resultHandler.handle(finishTrace(job, timeout));
+        }
+    }
+
+    /**
+     * Cancels the timer which enforces the timeout of the bulkhead of the job, if there is one.
+     */
+    private void cancelTimeout(RunningJob job) {
+        if (job.timeoutTimer >= 0) {
+            vertx.cancelTimer(job.timeoutTimer);
+        }
+    }
+
+    private String tenantOf(JsonObject feature) {
+        final Object tenant = Objects.isNull(feature) ? null : feature.getValue(tenantKey);
+        return Objects.isNull(tenant) ? DEFAULT_TENANT : tenant.toString();
+    }
+
+    /**
+     * Completes the trace of the job and adds the job to the slow job log if it was too slow.
+     *
+     * @return The passed outcome, with the trace if tracing is enabled.
+     */
+    private AsyncResult<CollectorJobResult> finishTrace(RunningJob job, AsyncResult<CollectorJobResult> outcome) {
+        if (Objects.isNull(job.trace)) {
+            return outcome;
+        }
+        job.trace.completed();
+        if (Objects.nonNull(slowJobLog)) {
+            slowJobLog.record(job.jobContext.getRequestId(), job.feature, job.trace, outcome);
+        }
+        return (traceEnabled && outcome.succeeded() && Objects.nonNull(outcome.result()))
+                ? Future.succeededFuture(outcome.result().withTrace(job.trace.toJson()))
+                : outcome;
+    }
+
+    private void complete(RunningJob job, AsyncResult<CollectorJobResult> postResult) {
+        untrack(job);
+        // A cancelled job was already completed by cancel()
+        if (job.completed.compareAndSet(false, true)) {
+            cancelTimeout(job);
+            releaseAdmission(job);
+            if (Objects.nonNull(metricFactory)) {
+                if (postResult.failed() && ERROR_EXPIRED.equals(postResult.cause().getMessage())) {
+                    metricFactory.registerExpired();
+                } else {
+                    metricFactory.registerTotalMetrics(postResult);
+                }
+            }
+            if (Objects.nonNull(resultPublisher) && postResult.succeeded() && Objects.nonNull(postResult.result())) {
+                resultPublisher.publish(postResult.result());
+            }
+            job.resultHandler.handle(finishTrace(job, postResult));
+        }
+    }
+
+    private void postCollect(RegisteredJob registered, CollectorJobContext jobContext,
+            AsyncResult<CollectorJobResult> collectResult, Handler<AsyncResult<CollectorJobResult>> postHandler) {
+        if (Objects.nonNull(registered.batcher)) {
+            registered.batcher.add(collectResult, postHandler);
+        } else {
+            postCollectExecutor.executeBlocking(registered.job.postCollectAction(collectResult, jobContext),
+                    postHandler);
+        }
+    }
+
+    private void executeJournaled(RegisteredJob registered, long sequence, String requestId, JsonObject feature,
+            long bytes, long deadline, StageTrace trace, Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        execute(registered, requestId, feature, bytes, deadline, trace, true,
+                ctx -> collectHandler(registered, requestId, feature, ctx),
+                postResult -> {
+                    journal.acknowledge(sequence);
+                    resultHandler.handle(postResult);
+                });
+    }
+
+    /**
+     * Opens the journal and dispatches all requests which were admitted but not completed before the last shutdown.
+     * Replayed requests are not limited by the queue size, because they were already admitted. Must be called before
+     * the service accepts new requests, if the journal is enabled.
+     *
+     * @param replayHandler Receives the number of replayed requests.
+     */
+    public void replayJournal(Handler<AsyncResult<Integer>> replayHandler) {
+        if (Objects.isNull(journal)) {
+            replayHandler.handle(Future.succeededFuture(0));
+            return;
+        }
+        vertx.<List<JournalEntry>>executeBlocking(fut -> {
+            try {
+                fut.complete(journal.recover());
+            } catch (final IOException e) {
+                fut.fail(e);
+            }
+        }, res -> {
+            if (res.failed()) {
+                replayHandler.handle(Future.failedFuture(res.cause()));
+                return;
+            }
+            for (final JournalEntry entry : res.result()) {
+                final RegisteredJob registered = resolve(entry.getFeature());
+                if (Objects.isNull(registered)) {
+                    // The job is not registered anymore
+                    journal.acknowledge(entry.getSequence());
+                    continue;
+                }
+                currentQueueSize.incrementAndGet();
+                if (Objects.nonNull(registered.bulkhead)) {
+                    registered.bulkhead.acquire();
+                }
+                final long bytes = estimateBytes(registered, entry.getRequestId(), entry.getFeature());
+                if (Objects.nonNull(byteBudget)) {
+                    byteBudget.acquire(bytes);
+                }
+                executeJournaled(registered, entry.getSequence(), entry.getRequestId(), entry.getFeature(), bytes,
+                        CollectorJobContext.NO_DEADLINE, startTrace(), postResult -> {
+                        });
+            }
+            replayHandler.handle(Future.succeededFuture(res.result().size()));
+        });
     }
 
     @Override
     public void collectAndReceive(String requestId, JsonObject feature,
             Handler<AsyncResult<CollectorJobResult>> resultHandler) {
-        if (currentQueueSize.intValue() < queueSize) {
-            currentQueueSize.incrementAndGet();
-            collectorJobExecutor.executeBlocking(collectorJob.collect(requestId, feature), false, collectResult -> {
-                postCollectExecutor.executeBlocking(collectorJob.postCollectAction(collectResult), false,
-                        postResult -> {
-                            currentQueueSize.decrementAndGet();
-                            if (Objects.nonNull(metricFactory)) {
-                                metricFactory.registerTotalMetrics(postResult);
-                            }
-                            resultHandler.handle(postResult);
-                        });
+        collectAndReceive(requestId, feature, CollectorJobContext.NO_DEADLINE, resultHandler);
+    }
+
+    /**
+     * Like {@link #collectAndReceive(String, JsonObject, Handler)}, but the request is dropped with
+     * {@link DataCollectorService#ERROR_EXPIRED} if the deadline of the caller passes before the job is dispatched or
+     * before the post-collect stage.
+     *
+     * @param requestId A request id to identify the collection request.
+     * @param feature A JSON object to pass attributes and properties which are needed for the collection process.
+     * @param deadline The time in milliseconds since the epoch after which the caller doesn't wait anymore, or
+     * {@link CollectorJobContext#NO_DEADLINE}.
+     * @param resultHandler A handler to process the result.
+     */
+    public void collectAndReceive(String requestId, JsonObject feature, long deadline,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        collectAndReceive(requestId, feature, deadline, admitted -> {
+            if (admitted.failed()) {
+                resultHandler.handle(Future.failedFuture(admitted.cause()));
+            }
+        }, resultHandler);
+    }
+
+    /**
+     * Like {@link #collectAndReceive(String, JsonObject, long, Handler)}, but a rejection of the request is passed to
+     * the admission handler instead of the result handler. The admission handler is called exactly once. If the
+     * request was rejected, the result handler is never called. Otherwise the result handler receives the outcome,
+     * which may happen before the admission handler was called, if the outcome was cached by the deduplication.
+     *
+     * @param requestId A request id to identify the collection request.
+     * @param feature A JSON object to pass attributes and properties which are needed for the collection process.
+     * @param deadline The time in milliseconds since the epoch after which the caller doesn't wait anymore, or
+     * {@link CollectorJobContext#NO_DEADLINE}.
+     * @param admissionHandler A handler which is informed whether the request was admitted.
+     * @param resultHandler A handler to process the result of an admitted request.
+     */
+    private void collectAndReceive(String requestId, JsonObject feature, long deadline,
+            Handler<AsyncResult<Void>> admissionHandler, Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        if (Objects.isNull(deduplicator) || Objects.isNull(requestId)) {
+            admit(requestId, feature, deadline, admissionHandler, resultHandler);
+            return;
+        }
+        final RequestDeduplicator.Admission admission = deduplicator.begin(requestId, resultHandler);
+        if (admission == RequestDeduplicator.Admission.EXECUTE) {
+            admit(requestId, feature, deadline, admitted -> {
+                if (admitted.failed()) {
+                    deduplicator.release(requestId, Future.failedFuture(admitted.cause()));
+                }
+                admissionHandler.handle(admitted);
+            }, res -> {
+                // Failures are not cached, so that a redelivery is executed again
+                if (res.succeeded()) {
+                    deduplicator.complete(requestId, res);
+                } else {
+                    deduplicator.release(requestId, res);
+                }
+                resultHandler.handle(res);
             });
+            return;
+        }
+        if (Objects.nonNull(metricFactory)) {
+            metricFactory.registerDeduplicationHit(admission == RequestDeduplicator.Admission.ATTACHED);
+        }
+        admissionHandler.handle(Future.succeededFuture());
+    }
+
+    private void admit(String requestId, JsonObject feature, long deadline, Handler<AsyncResult<Void>> admissionHandler,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        final StageTrace trace = startTrace();
+        final RegisteredJob registered = resolve(feature);
+        if (Objects.isNull(registered)) {
+            admissionHandler.handle(Future.failedFuture(ERROR_UNKNOWN_JOB));
+            return;
+        }
+        if ((deadline != CollectorJobContext.NO_DEADLINE) && (System.currentTimeMillis() >= deadline)) {
+            if (Objects.nonNull(metricFactory)) {
+                metricFactory.registerExpired();
+            }
+            admissionHandler.handle(Future.failedFuture(ERROR_EXPIRED));
+            return;
+        }
+        final long bytes = estimateBytes(registered, requestId, feature);
+        if (!tryAdmit(registered, bytes)) {
+            admissionHandler.handle(Future.failedFuture(ERROR_QUEUE_LIMIT_REACHED));
+        } else if (Objects.isNull(journal)) {
+            admissionHandler.handle(Future.succeededFuture());
+            execute(registered, requestId, feature, bytes, deadline, trace, true,
+                    ctx -> collectHandler(registered, requestId, feature, ctx), resultHandler);
         } else {
+            // The journal completes the append on its flusher thread
+            final Context context = vertx.getOrCreateContext();
+            journal.append(requestId, feature, committed -> context.runOnContext(v -> {
+                if (committed.failed()) {
+                    releaseAdmission(registered, bytes);
+                    admissionHandler.handle(Future.failedFuture(committed.cause()));
+                } else {
+                    admissionHandler.handle(Future.succeededFuture());
+                    executeJournaled(registered, committed.result(), requestId, feature, bytes, deadline, trace,
+                            resultHandler);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Collects every feature of the passed stream and returns a ReadStream of the results, see {@link IngestStream}.
+     * At most queue size requests are in flight, the source is paused while the queue has no free slot or while the
+     * result stream is paused. This method is only available in the same JVM, remote callers use
+     * {@link info.pascalkrause.vertx.datacollector.client.DataCollectorServiceClient#ingest(ReadStream, String, int)}.
+     *
+     * @param features The features to collect
+     * @param requestIdKey The key in the feature whose value is the request id. Features without it get a random one
+     * @return A ReadStream which receives the results in the order in which they complete.
+     */
+    public IngestStream ingest(ReadStream<JsonObject> features, String requestIdKey) {
+        return new IngestStream(vertx, this, features, IngestStream.requestIdFromKey(requestIdKey), queueSize);
+    }
+
+    @Override
+    public void collectAndStream(String requestId, JsonObject feature, String streamAddress,
+            Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        final StageTrace trace = startTrace();
+        final RegisteredJob registered = resolve(feature);
+        if (Objects.isNull(registered)) {
+            resultHandler.handle(Future.failedFuture(ERROR_UNKNOWN_JOB));
+            return;
+        }
+        final long bytes = estimateBytes(registered, requestId, feature);
+        if (!tryAdmit(registered, bytes)) {
             resultHandler.handle(Future.failedFuture(ERROR_QUEUE_LIMIT_REACHED));
+            return;
         }
+        final ChunkWriteStream chunks = new ChunkWriteStream(vertx, streamAddress);
+        chunks.open(ready -> {
+            if (ready.failed()) {
+                releaseAdmission(registered, bytes);
+                resultHandler.handle(Future.failedFuture(ready.cause()));
+                return;
+            }
+            final boolean streaming = registered.job instanceof StreamingCollectorJob;
+            execute(registered, requestId, feature, bytes, CollectorJobContext.NO_DEADLINE, trace, !streaming,
+                    ctx -> streaming ? ((StreamingCollectorJob) registered.job).collect(requestId, feature, chunks)
+                            : collectHandler(registered, requestId, feature, ctx),
+                    postResult -> {
+                        if (postResult.failed()) {
+                            chunks.fail(postResult.cause());
+                            resultHandler.handle(postResult);
+                        } else if (streaming) {
+                            chunks.end();
+                            resultHandler.handle(postResult);
+                        } else {
+                            final CollectorJobResult r = postResult.result();
+                            final Buffer data = Objects.isNull(r.getResult()) ? Buffer.buffer()
+                                    : r.getResult().toBuffer();
+                            chunks.writeAll(data, STREAM_CHUNK_SIZE, written -> {
+                                if (written.failed()) {
+                                    resultHandler.handle(Future.failedFuture(written.cause()));
+                                    return;
+                                }
+                                final CollectorJobResult meta = new CollectorJobResult(r.getRequestId(),
+                                        r.getSource(), r.getQuality(), r.getCreated(), null,
+                                        r.getError().orElse(null));
+                                resultHandler.handle(Future.succeededFuture(
+                                        r.getTrace().isPresent() ? meta.withTrace(r.getTrace().get()) : meta));
+                            });
+                        }
+                    });
+        });
     }
 
     @Override
     public void collect(String requestId, JsonObject feature, Handler<AsyncResult<Void>> resultHandler) {
-        collectAndReceive(requestId, feature, res -> {
+        collect(requestId, feature, CollectorJobContext.NO_DEADLINE, resultHandler);
+    }
+
+    /**
+     * Like {@link #collect(String, JsonObject, Handler)}, but with the deadline of the caller, see
+     * {@link #collectAndReceive(String, JsonObject, long, Handler)}.
+     *
+     * @param requestId A request id to identify the collection request.
+     * @param feature A JSON object to pass attributes and properties which are needed for the collection process.
+     * @param deadline The time in milliseconds since the epoch after which the caller doesn't wait anymore, or
+     * {@link CollectorJobContext#NO_DEADLINE}.
+     * @param resultHandler A handler to process the result.
+     */
+    public void collect(String requestId, JsonObject feature, long deadline,
+            Handler<AsyncResult<Void>> resultHandler) {
+        collectAndReceive(requestId, feature, deadline, res -> {
             resultHandler.handle(res.failed() ? Future.failedFuture(res.cause()) : Future.succeededFuture());
         });
     }
 
+    @Override
+    public void submit(String requestId, JsonObject feature, String completionAddress,
+            Handler<AsyncResult<String>> resultHandler) {
+        final String jobId = UUID.randomUUID().toString();
+        jobStore.add(jobId, requestId);
+        collectAndReceive(requestId, feature, CollectorJobContext.NO_DEADLINE, admitted -> {
+            if (admitted.failed()) {
+                // Rejected before the job was queued
+                jobStore.remove(jobId);
+                resultHandler.handle(Future.failedFuture(admitted.cause()));
+            } else {
+                resultHandler.handle(Future.succeededFuture(jobId));
+            }
+        }, res -> {
+            jobStore.complete(jobId, res);
+            if (Objects.nonNull(completionAddress)) {
+                vertx.eventBus().send(completionAddress, new JsonObject().put("jobId", jobId)
+                        .put("requestId", requestId)
+                        .put("status", res.succeeded() ? JOB_STATUS_SUCCEEDED : JOB_STATUS_FAILED));
+            }
+        });
+    }
+
+    @Override
+    public void status(String jobId, Handler<AsyncResult<String>> resultHandler) {
+        final String status = jobStore.status(jobId);
+        resultHandler.handle(Objects.isNull(status) ? Future.failedFuture(ERROR_JOB_NOT_FOUND)
+                : Future.succeededFuture(status));
+    }
+
+    @Override
+    public void fetch(String jobId, Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        resultHandler.handle(jobStore.fetch(jobId));
+    }
+
+    @Override
+    public void cancel(String requestId, Handler<AsyncResult<Integer>> resultHandler) {
+        final List<RunningJob> jobs = Objects.isNull(requestId) ? null : runningJobs.remove(requestId);
+        int cancelled = 0;
+        if (Objects.nonNull(jobs)) {
+            for (final RunningJob job : jobs) {
+                job.jobContext.cancel();
+                if (job.completed.compareAndSet(false, true)) {
+                    cancelled++;
+                    cancelTimeout(job);
+                    releaseAdmission(job);
+                    if (Objects.nonNull(metricFactory)) {
+                        metricFactory.registerCancelled();
+                    }
+                    job.callerContext
+                            .runOnContext(v -> job.resultHandler.handle(Future.failedFuture(ERROR_CANCELLED)));
+                }
+            }
+        }
+        resultHandler.handle(Future.succeededFuture(cancelled));
+    }
+
+    @Override
+    public void getSlowJobs(Handler<AsyncResult<JsonArray>> resultHandler) {
+        resultHandler.handle(Future.succeededFuture(
+                Objects.isNull(slowJobLog) ? new JsonArray() : slowJobLog.getEntries()));
+    }
+
     /**
      * Visible for Testing
      */
@@ -82,6 +1110,34 @@ public class DataCollectorServiceImpl implements DataCollectorService {
         resultHandler.handle(Future.succeededFuture(getMetricsSnapshot()));
     }
 
+    /**
+     * Closes the journal, the result sink and the executors, all not yet completed requests will be replayed on the
+     * next start. The executors are closed even if the fingerprints can't be saved.
+     */
+    public void stop() {
+        try {
+            if (Objects.nonNull(journal)) {
+                journal.close();
+            }
+            if (Objects.nonNull(resultSink)) {
+                resultSink.close();
+            }
+            if (Objects.nonNull(fingerprintStore)) {
+                try {
+                    fingerprintStore.save();
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        } finally {
+            // The workers must be released even if the state couldn't be persisted
+            collectorJobExecutor.close();
+            if (postCollectExecutor != collectorJobExecutor) {
+                postCollectExecutor.close();
+            }
+        }
+    }
+
     @Override
     public void close() {
         // Needed for generated Client
@@ -0,0 +1,160 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.Objects;
+
+import info.pascalkrause.vertx.datacollector.codec.DataCollectorCodecs;
+import info.pascalkrause.vertx.datacollector.codec.ResultCompression;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobContext;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobRequest;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import info.pascalkrause.vertx.datacollector.metrics.MetricSnapshotFactory;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.serviceproxy.ServiceException;
+
+/**
+ * The event bus entry point of the {@link DataCollectorService}. Messages with a {@link CollectorJobRequest} body,
+ * which are sent by the binary proxy, are dispatched directly to the service and answered with the
+ * {@link CollectorJobResult} object itself, so that the registered codecs are used. If the client accepts compression,
+ * the result is answered as a Buffer which is compressed if it reaches the compression threshold. All other messages
+ * are passed to the generated {@link DataCollectorServiceVertxProxyHandler}.
+ */
+public class DataCollectorServiceMessageHandler implements Handler<Message<Object>> {
+
+    public static final String HEADER_ACTION = "action";
+    /**
+     * The time in milliseconds the caller waits for the reply. It is sent as relative time, so that the clocks of the
+     * cluster nodes don't need to be synchronized.
+     */
+    public static final String HEADER_DEADLINE = "deadline";
+
+    private final Vertx vertx;
+    private final DataCollectorService service;
+    private final DataCollectorServiceVertxProxyHandler proxyHandler;
+    private final int compressionThreshold;
+    private final ResultCompression.Listener compressionListener;
+
+    public DataCollectorServiceMessageHandler(Vertx vertx, DataCollectorService service) {
+        this(vertx, service, -1, null);
+    }
+
+    /**
+     * @param vertx The Vert.x instance
+     * @param service The service which handles the requests
+     * @param compressionThreshold The minimum size in bytes of an encoded result, from which on it is compressed for
+     * clients that accept compression. A negative value disables compression.
+     * @param metricFactory The metrics which record the compressions, can be null.
+     */
+    public DataCollectorServiceMessageHandler(Vertx vertx, DataCollectorService service, int compressionThreshold,
+            MetricSnapshotFactory metricFactory) {
+        this.vertx = vertx;
+        this.service = service;
+        this.compressionThreshold = compressionThreshold;
+        compressionListener = Objects.isNull(metricFactory) ? null : metricFactory::registerCompression;
+        proxyHandler = new DataCollectorServiceVertxProxyHandler(vertx, service);
+        DataCollectorCodecs.registerDefaultCodecs(vertx.eventBus());
+    }
+
+    /**
+     * @param address The eventbus address
+     * @return The registered MessageConsumer
+     */
+    public MessageConsumer<Object> register(String address) {
+        return vertx.eventBus().consumer(address, this);
+    }
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void handle(Message<Object> msg) {
+        if (msg.body() instanceof CollectorJobRequest) {
+            handleRequest(msg, (CollectorJobRequest) msg.body());
+        } else {
+            proxyHandler.handle((Message<JsonObject>) (Message) msg);
+        }
+    }
+
+    /**
+     * @return The deadline of the caller as time since the epoch, or {@link CollectorJobContext#NO_DEADLINE}.
+     */
+    private long getDeadline(Message<Object> msg) {
+        final String timeout = msg.headers().get(HEADER_DEADLINE);
+        if (Objects.isNull(timeout)) {
+            return CollectorJobContext.NO_DEADLINE;
+        }
+        try {
+            return System.currentTimeMillis() + Long.parseLong(timeout);
+        } catch (final NumberFormatException e) {
+            return CollectorJobContext.NO_DEADLINE;
+        }
+    }
+
+    private void handleRequest(Message<Object> msg, CollectorJobRequest request) {
+        final String action = msg.headers().get(HEADER_ACTION);
+        // Only the service implementation knows about deadlines, other services are called without
+        final long deadline = (service instanceof DataCollectorServiceImpl) ? getDeadline(msg)
+                : CollectorJobContext.NO_DEADLINE;
+        if ("collectAndReceive".equals(action)) {
+            final boolean compress = (compressionThreshold >= 0) && ResultCompression.ENCODING_DEFLATE
+                    .equals(msg.headers().get(ResultCompression.HEADER_ACCEPT_ENCODING));
+            final Handler<AsyncResult<CollectorJobResult>> handler = compress ? replyCompressed(msg) : reply(msg);
+            if (deadline == CollectorJobContext.NO_DEADLINE) {
+                service.collectAndReceive(request.getRequestId(), request.getFeature(), handler);
+            } else {
+                ((DataCollectorServiceImpl) service).collectAndReceive(request.getRequestId(), request.getFeature(),
+                        deadline, handler);
+            }
+        } else if ("collect".equals(action)) {
+            if (deadline == CollectorJobContext.NO_DEADLINE) {
+                service.collect(request.getRequestId(), request.getFeature(), reply(msg));
+            } else {
+                ((DataCollectorServiceImpl) service).collect(request.getRequestId(), request.getFeature(), deadline,
+                        reply(msg));
+            }
+        } else {
+            msg.reply(new ServiceException(500, "Invalid action: " + action));
+        }
+    }
+
+    private void replyFailure(Message<Object> msg, Throwable cause) {
+        if (cause instanceof ServiceException) {
+            msg.reply(cause);
+        } else {
+            msg.reply(new ServiceException(-1, cause.getMessage()));
+        }
+    }
+
+    private <T> Handler<AsyncResult<T>> reply(Message<Object> msg) {
+        return res -> {
+            if (res.failed()) {
+                replyFailure(msg, res.cause());
+            } else {
+                msg.reply(res.result());
+            }
+        };
+    }
+
+    private Handler<AsyncResult<CollectorJobResult>> replyCompressed(Message<Object> msg) {
+        return res -> {
+            if (res.failed()) {
+                replyFailure(msg, res.cause());
+            } else {
+                // Deflating large results takes too long for the event loop
+                vertx.<ResultCompression.Encoded>executeBlocking(fut -> fut.complete(
+                        ResultCompression.encode(res.result(), compressionThreshold, compressionListener)), false,
+                        encoded -> {
+                            if (encoded.failed()) {
+                                replyFailure(msg, encoded.cause());
+                            } else {
+                                msg.reply(encoded.result().getBuffer(), new DeliveryOptions().addHeader(
+                                        ResultCompression.HEADER_CONTENT_ENCODING, encoded.result().getEncoding()));
+                            }
+                        });
+            }
+        };
+    }
+}
@@ -0,0 +1,664 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import info.pascalkrause.vertx.datacollector.journal.JobJournal;
+import info.pascalkrause.vertx.datacollector.sink.FsyncPolicy;
+import info.pascalkrause.vertx.datacollector.sink.ResultSink;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Options to configure the {@link DataCollectorServiceImpl} and the
+ * {@link info.pascalkrause.vertx.datacollector.DataCollectorServiceVerticle}.
+ */
+public class DataCollectorServiceOptions {
+
+    public static final int DEFAULT_WORKER_POOL_SIZE = 10;
+    public static final int DEFAULT_QUEUE_SIZE = 30;
+    public static final boolean DEFAULT_METRICS_ENABLED = false;
+    public static final long DEFAULT_MAX_EXECUTE_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = -1;
+    public static final int DEFAULT_JOURNAL_SEGMENT_SIZE = JobJournal.DEFAULT_SEGMENT_SIZE;
+    public static final long DEFAULT_JOURNAL_COMMIT_INTERVAL = JobJournal.DEFAULT_COMMIT_INTERVAL;
+    public static final int DEFAULT_POST_COLLECT_BATCH_SIZE = 100;
+    public static final long DEFAULT_POST_COLLECT_BATCH_LINGER = 10;
+    public static final long DEFAULT_RESULT_SINK_SEGMENT_SIZE = ResultSink.DEFAULT_SEGMENT_SIZE;
+    public static final FsyncPolicy DEFAULT_RESULT_SINK_FSYNC_POLICY = FsyncPolicy.ON_ROTATE;
+    public static final int DEFAULT_RESULT_SINK_COMPRESSION_THRESHOLD = -1;
+    public static final long DEFAULT_DEDUPLICATION_WINDOW = -1;
+    public static final int DEFAULT_DEDUPLICATION_MAX_ENTRIES = 100000;
+    public static final int DEFAULT_JOB_STORE_MAX_SIZE = 1000;
+    public static final long DEFAULT_JOB_STORE_TTL = TimeUnit.MINUTES.toMillis(10);
+    public static final int DEFAULT_TENANT_WEIGHT = 1;
+    public static final String DEFAULT_JOB_NAME_KEY = "job";
+    public static final boolean DEFAULT_TRACE_ENABLED = false;
+    public static final long DEFAULT_SLOW_JOB_THRESHOLD = -1;
+    public static final int DEFAULT_SLOW_JOB_LOG_SIZE = 100;
+    public static final double DEFAULT_HEDGE_PERCENTILE = -1;
+    public static final double DEFAULT_HEDGE_BUDGET = 0.05;
+    public static final ExecutorBackend DEFAULT_EXECUTOR_BACKEND = ExecutorBackend.WORKER_POOL;
+    public static final long DEFAULT_MEMORY_BUDGET = -1;
+    public static final long DEFAULT_DEFAULT_JOB_BYTES = 1024 * 1024;
+    public static final int DEFAULT_SCATTER_PARALLELISM = -1;
+    public static final int DEFAULT_CHANGE_DETECTION_SIZE = -1;
+    public static final int DEFAULT_PUBLISH_BATCH_SIZE = 100;
+    public static final long DEFAULT_PUBLISH_BATCH_LINGER = 50;
+    public static final int DEFAULT_PUBLISH_BUFFER_SIZE = 10000;
+    public static final PublishOverflowPolicy DEFAULT_PUBLISH_OVERFLOW_POLICY = PublishOverflowPolicy.DROP_OLDEST;
+    public static final long DEFAULT_PUBLISH_ACK_TIMEOUT = -1;
+
+    private int workerPoolSize = DEFAULT_WORKER_POOL_SIZE;
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+    private boolean metricsEnabled = DEFAULT_METRICS_ENABLED;
+    private long maxExecuteTimeout = DEFAULT_MAX_EXECUTE_TIMEOUT;
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+    private String journalDirectory;
+    private int journalSegmentSize = DEFAULT_JOURNAL_SEGMENT_SIZE;
+    private long journalCommitInterval = DEFAULT_JOURNAL_COMMIT_INTERVAL;
+    private int postCollectBatchSize = DEFAULT_POST_COLLECT_BATCH_SIZE;
+    private long postCollectBatchLinger = DEFAULT_POST_COLLECT_BATCH_LINGER;
+    private String resultSinkDirectory;
+    private long resultSinkSegmentSize = DEFAULT_RESULT_SINK_SEGMENT_SIZE;
+    private FsyncPolicy resultSinkFsyncPolicy = DEFAULT_RESULT_SINK_FSYNC_POLICY;
+    private int resultSinkCompressionThreshold = DEFAULT_RESULT_SINK_COMPRESSION_THRESHOLD;
+    private long deduplicationWindow = DEFAULT_DEDUPLICATION_WINDOW;
+    private int deduplicationMaxEntries = DEFAULT_DEDUPLICATION_MAX_ENTRIES;
+    private int jobStoreMaxSize = DEFAULT_JOB_STORE_MAX_SIZE;
+    private long jobStoreTtl = DEFAULT_JOB_STORE_TTL;
+    private String tenantKey;
+    private int defaultTenantWeight = DEFAULT_TENANT_WEIGHT;
+    private Map<String, Integer> tenantWeights = new HashMap<>();
+    private String jobNameKey = DEFAULT_JOB_NAME_KEY;
+    private boolean traceEnabled = DEFAULT_TRACE_ENABLED;
+    private long slowJobThreshold = DEFAULT_SLOW_JOB_THRESHOLD;
+    private int slowJobLogSize = DEFAULT_SLOW_JOB_LOG_SIZE;
+    private double hedgePercentile = DEFAULT_HEDGE_PERCENTILE;
+    private double hedgeBudget = DEFAULT_HEDGE_BUDGET;
+    private ExecutorBackend executorBackend = DEFAULT_EXECUTOR_BACKEND;
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private long defaultJobBytes = DEFAULT_DEFAULT_JOB_BYTES;
+    private int scatterParallelism = DEFAULT_SCATTER_PARALLELISM;
+    private int changeDetectionSize = DEFAULT_CHANGE_DETECTION_SIZE;
+    private String changeDetectionFile;
+    private String changeDetectionKey;
+    private String publishAddress;
+    private Function<CollectorJobResult, JsonObject> publishProjection;
+    private int publishBatchSize = DEFAULT_PUBLISH_BATCH_SIZE;
+    private long publishBatchLinger = DEFAULT_PUBLISH_BATCH_LINGER;
+    private int publishBufferSize = DEFAULT_PUBLISH_BUFFER_SIZE;
+    private PublishOverflowPolicy publishOverflowPolicy = DEFAULT_PUBLISH_OVERFLOW_POLICY;
+    private long publishAckTimeout = DEFAULT_PUBLISH_ACK_TIMEOUT;
+
+    public int getWorkerPoolSize() {
+        return workerPoolSize;
+    }
+
+    /**
+     * @param workerPoolSize The pool size of the CollectorJobExecutor
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setWorkerPoolSize(int workerPoolSize) {
+        this.workerPoolSize = workerPoolSize;
+        return this;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * @param queueSize The queue size of CollectorJob requests
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+        return this;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * @param metricsEnabled Enables metrics for the DataCollectorService
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+        return this;
+    }
+
+    public long getMaxExecuteTimeout() {
+        return maxExecuteTimeout;
+    }
+
+    /**
+     * @param maxExecuteTimeout Timeout for a job in the ExecutorPool in milliseconds
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setMaxExecuteTimeout(long maxExecuteTimeout) {
+        this.maxExecuteTimeout = maxExecuteTimeout;
+        return this;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * @param compressionThreshold The minimum size in bytes of an encoded CollectorJobResult, from which on it will be
+     * compressed before it is sent to a remote client that accepts compression. A negative value disables compression.
+     * Only the binary proxy accepts compression, the generated proxy always receives uncompressed JSON.
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+        return this;
+    }
+
+    public String getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    /**
+     * @param journalDirectory The directory of the write-ahead journal, which stores all admitted requests until they
+     * are completed, so that they are replayed after a restart. If null, the journal is disabled.
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setJournalDirectory(String journalDirectory) {
+        this.journalDirectory = journalDirectory;
+        return this;
+    }
+
+    public int getJournalSegmentSize() {
+        return journalSegmentSize;
+    }
+
+    /**
+     * @param journalSegmentSize The size of a journal segment file in bytes
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setJournalSegmentSize(int journalSegmentSize) {
+        this.journalSegmentSize = journalSegmentSize;
+        return this;
+    }
+
+    public long getJournalCommitInterval() {
+        return journalCommitInterval;
+    }
+
+    /**
+     * @param journalCommitInterval The time in milliseconds in which appended requests are collected before they are
+     * forced to disk together
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setJournalCommitInterval(long journalCommitInterval) {
+        this.journalCommitInterval = journalCommitInterval;
+        return this;
+    }
+
+    public int getPostCollectBatchSize() {
+        return postCollectBatchSize;
+    }
+
+    /**
+     * @param postCollectBatchSize The maximum number of results which are passed to the post-collect stage of a
+     * BatchingCollectorJob at once
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setPostCollectBatchSize(int postCollectBatchSize) {
+        this.postCollectBatchSize = postCollectBatchSize;
+        return this;
+    }
+
+    public long getPostCollectBatchLinger() {
+        return postCollectBatchLinger;
+    }
+
+    /**
+     * @param postCollectBatchLinger The maximum time in milliseconds a result of a BatchingCollectorJob waits for
+     * further results, before the post-collect stage is started with a smaller batch
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setPostCollectBatchLinger(long postCollectBatchLinger) {
+        this.postCollectBatchLinger = postCollectBatchLinger;
+        return this;
+    }
+
+    public String getResultSinkDirectory() {
+        return resultSinkDirectory;
+    }
+
+    /**
+     * @param resultSinkDirectory The directory in which all successful results are stored after the post-collect
+     * stage. If null, the result sink is disabled.
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setResultSinkDirectory(String resultSinkDirectory) {
+        this.resultSinkDirectory = resultSinkDirectory;
+        return this;
+    }
+
+    public long getResultSinkSegmentSize() {
+        return resultSinkSegmentSize;
+    }
+
+    /**
+     * @param resultSinkSegmentSize The size in bytes from which on the result sink starts a new segment file
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setResultSinkSegmentSize(long resultSinkSegmentSize) {
+        this.resultSinkSegmentSize = resultSinkSegmentSize;
+        return this;
+    }
+
+    public FsyncPolicy getResultSinkFsyncPolicy() {
+        return resultSinkFsyncPolicy;
+    }
+
+    /**
+     * @param resultSinkFsyncPolicy Defines when the result sink forces the written results to disk
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setResultSinkFsyncPolicy(FsyncPolicy resultSinkFsyncPolicy) {
+        this.resultSinkFsyncPolicy = resultSinkFsyncPolicy;
+        return this;
+    }
+
+    public int getResultSinkCompressionThreshold() {
+        return resultSinkCompressionThreshold;
+    }
+
+    /**
+     * @param resultSinkCompressionThreshold The minimum size in bytes of an encoded result, from which on it is
+     * compressed by the result sink. A negative value disables compression.
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setResultSinkCompressionThreshold(int resultSinkCompressionThreshold) {
+        this.resultSinkCompressionThreshold = resultSinkCompressionThreshold;
+        return this;
+    }
+
+    public long getDeduplicationWindow() {
+        return deduplicationWindow;
+    }
+
+    /**
+     * @param deduplicationWindow The time in milliseconds in which a repeated requestId receives the outcome of the
+     * first request, instead of being executed again. A negative value disables the deduplication.
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setDeduplicationWindow(long deduplicationWindow) {
+        this.deduplicationWindow = deduplicationWindow;
+        return this;
+    }
+
+    public int getDeduplicationMaxEntries() {
+        return deduplicationMaxEntries;
+    }
+
+    /**
+     * @param deduplicationMaxEntries The maximum number of outcomes which are cached for the deduplication
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setDeduplicationMaxEntries(int deduplicationMaxEntries) {
+        this.deduplicationMaxEntries = deduplicationMaxEntries;
+        return this;
+    }
+
+    public int getJobStoreMaxSize() {
+        return jobStoreMaxSize;
+    }
+
+    /**
+     * @param jobStoreMaxSize The maximum number of completed submitted jobs, whose results are kept for fetching
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setJobStoreMaxSize(int jobStoreMaxSize) {
+        this.jobStoreMaxSize = jobStoreMaxSize;
+        return this;
+    }
+
+    public long getJobStoreTtl() {
+        return jobStoreTtl;
+    }
+
+    /**
+     * @param jobStoreTtl The time in milliseconds the result of a completed submitted job is kept for fetching
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setJobStoreTtl(long jobStoreTtl) {
+        this.jobStoreTtl = jobStoreTtl;
+        return this;
+    }
+
+    public String getTenantKey() {
+        return tenantKey;
+    }
+
+    /**
+     * @param tenantKey The key of the feature which contains the tenant of a request. If set, the workers are shared
+     * fairly between the tenants according to their weights, instead of first come, first served. Requests without
+     * tenant belong to the tenant {@link DataCollectorServiceImpl#DEFAULT_TENANT}.
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setTenantKey(String tenantKey) {
+        this.tenantKey = tenantKey;
+        return this;
+    }
+
+    public int getDefaultTenantWeight() {
+        return defaultTenantWeight;
+    }
+
+    /**
+     * @param defaultTenantWeight The weight of tenants which have no configured weight
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setDefaultTenantWeight(int defaultTenantWeight) {
+        this.defaultTenantWeight = defaultTenantWeight;
+        return this;
+    }
+
+    public Map<String, Integer> getTenantWeights() {
+        return tenantWeights;
+    }
+
+    /**
+     * @param tenantWeights The initial weights of the tenants, they can be changed at runtime with
+     * {@link DataCollectorServiceImpl#setTenantWeight(String, int)}
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setTenantWeights(Map<String, Integer> tenantWeights) {
+        this.tenantWeights = tenantWeights;
+        return this;
+    }
+
+    public String getJobNameKey() {
+        return jobNameKey;
+    }
+
+    /**
+     * @param jobNameKey The key of the feature which contains the name of the job that processes a request, if named
+     * jobs are registered
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setJobNameKey(String jobNameKey) {
+        this.jobNameKey = jobNameKey;
+        return this;
+    }
+
+    public boolean isTraceEnabled() {
+        return traceEnabled;
+    }
+
+    /**
+     * @param traceEnabled If true, every successful CollectorJobResult carries the duration of the phases of its
+     * request, see {@link info.pascalkrause.vertx.datacollector.job.CollectorJobResult#getTrace()}
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setTraceEnabled(boolean traceEnabled) {
+        this.traceEnabled = traceEnabled;
+        return this;
+    }
+
+    public long getSlowJobThreshold() {
+        return slowJobThreshold;
+    }
+
+    /**
+     * @param slowJobThreshold The time in milliseconds above which a request is added to the slow job log, -1
+     * disables the log
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setSlowJobThreshold(long slowJobThreshold) {
+        this.slowJobThreshold = slowJobThreshold;
+        return this;
+    }
+
+    public int getSlowJobLogSize() {
+        return slowJobLogSize;
+    }
+
+    /**
+     * @param slowJobLogSize The maximum number of requests in the slow job log, older entries are dropped
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setSlowJobLogSize(int slowJobLogSize) {
+        this.slowJobLogSize = slowJobLogSize;
+        return this;
+    }
+
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    /**
+     * @param hedgePercentile Enables hedging. If a collect is still running after this percentile of the recent
+     * collect latencies (e.g. 95), a second attempt is started and the first one which finishes wins. -1 disables
+     * hedging
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setHedgePercentile(double hedgePercentile) {
+        this.hedgePercentile = hedgePercentile;
+        return this;
+    }
+
+    public double getHedgeBudget() {
+        return hedgeBudget;
+    }
+
+    /**
+     * @param hedgeBudget The maximum number of hedges per request, e.g. 0.05 for at most 5% extra collects
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setHedgeBudget(double hedgeBudget) {
+        this.hedgeBudget = hedgeBudget;
+        return this;
+    }
+
+    public ExecutorBackend getExecutorBackend() {
+        return executorBackend;
+    }
+
+    /**
+     * @param executorBackend The executor on which collect and post-collect run, the workerPoolSize is the size of the
+     * pool
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setExecutorBackend(ExecutorBackend executorBackend) {
+        this.executorBackend = executorBackend;
+        return this;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * @param memoryBudget Enables the byte-budget admission. Requests are only admitted while the estimated bytes of
+     * all requests in flight fit into this budget, in addition to the queue size. -1 disables it
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+
+    public long getDefaultJobBytes() {
+        return defaultJobBytes;
+    }
+
+    /**
+     * @param defaultJobBytes The estimated bytes of requests whose job is no
+     * {@link info.pascalkrause.vertx.datacollector.job.MemoryAwareCollectorJob}
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setDefaultJobBytes(long defaultJobBytes) {
+        this.defaultJobBytes = defaultJobBytes;
+        return this;
+    }
+
+    public int getScatterParallelism() {
+        return scatterParallelism;
+    }
+
+    /**
+     * @param scatterParallelism The maximum number of parts of a single request of a
+     * {@link info.pascalkrause.vertx.datacollector.job.ScatterGatherCollectorJob} which are collected at the same time.
+     * -1 limits them to the maximum concurrency of the bulkhead of the job, or to the worker pool size if the job has
+     * no bulkhead
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setScatterParallelism(int scatterParallelism) {
+        this.scatterParallelism = scatterParallelism;
+        return this;
+    }
+
+    public int getChangeDetectionSize() {
+        return changeDetectionSize;
+    }
+
+    /**
+     * @param changeDetectionSize Enables the change detection. The post-collect stage of a result is skipped if it
+     * equals the previous result with the same key. This is the maximum number of keys whose fingerprint is kept, the
+     * least recently used key is dropped first. -1 disables it
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setChangeDetectionSize(int changeDetectionSize) {
+        this.changeDetectionSize = changeDetectionSize;
+        return this;
+    }
+
+    public String getChangeDetectionFile() {
+        return changeDetectionFile;
+    }
+
+    /**
+     * @param changeDetectionFile The file in which the fingerprints of the change detection are kept across restarts.
+     * They are loaded on start and written on stop. If null, they are only kept in memory
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setChangeDetectionFile(String changeDetectionFile) {
+        this.changeDetectionFile = changeDetectionFile;
+        return this;
+    }
+
+    public String getChangeDetectionKey() {
+        return changeDetectionKey;
+    }
+
+    /**
+     * @param changeDetectionKey The key in the feature whose value identifies the results which are compared. If null
+     * or if the feature doesn't contain it, the request id is used
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setChangeDetectionKey(String changeDetectionKey) {
+        this.changeDetectionKey = changeDetectionKey;
+        return this;
+    }
+
+    public String getPublishAddress() {
+        return publishAddress;
+    }
+
+    /**
+     * @param publishAddress Enables the result publication. Every successful result is published in batches to this
+     * event bus address, as a JsonArray of the views of the results. If null, no results are published
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setPublishAddress(String publishAddress) {
+        this.publishAddress = publishAddress;
+        return this;
+    }
+
+    public Function<CollectorJobResult, JsonObject> getPublishProjection() {
+        return publishProjection;
+    }
+
+    /**
+     * @param publishProjection Returns the published view of a result, or null if the result should not be published.
+     * Is called on the event loop, so it must not block. If null, the JSON of every result is published
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setPublishProjection(
+            Function<CollectorJobResult, JsonObject> publishProjection) {
+        this.publishProjection = publishProjection;
+        return this;
+    }
+
+    public int getPublishBatchSize() {
+        return publishBatchSize;
+    }
+
+    /**
+     * @param publishBatchSize The maximum number of results in a published batch
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setPublishBatchSize(int publishBatchSize) {
+        this.publishBatchSize = publishBatchSize;
+        return this;
+    }
+
+    public long getPublishBatchLinger() {
+        return publishBatchLinger;
+    }
+
+    /**
+     * @param publishBatchLinger The maximum time in milliseconds a result waits for further results before its batch
+     * is published
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setPublishBatchLinger(long publishBatchLinger) {
+        this.publishBatchLinger = publishBatchLinger;
+        return this;
+    }
+
+    public int getPublishBufferSize() {
+        return publishBufferSize;
+    }
+
+    /**
+     * @param publishBufferSize The maximum number of results which wait for publication, or -1 for no limit. Results
+     * only wait for slow subscribers if a publish ack timeout is set
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setPublishBufferSize(int publishBufferSize) {
+        this.publishBufferSize = publishBufferSize;
+        return this;
+    }
+
+    public PublishOverflowPolicy getPublishOverflowPolicy() {
+        return publishOverflowPolicy;
+    }
+
+    /**
+     * @param publishOverflowPolicy Defines which result is dropped when the publish buffer is full, which can only
+     * happen if a publish ack timeout is set
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setPublishOverflowPolicy(PublishOverflowPolicy publishOverflowPolicy) {
+        this.publishOverflowPolicy = publishOverflowPolicy;
+        return this;
+    }
+
+    public long getPublishAckTimeout() {
+        return publishAckTimeout;
+    }
+
+    /**
+     * @param publishAckTimeout The time in milliseconds in which the subscriber must reply to a batch. Every batch is
+     * then sent to a single consumer of the address instead of all, and only a few batches may be unacknowledged, so
+     * the results of a slow subscriber are buffered. -1 publishes the batches without acknowledgement, then slow
+     * subscribers are neither detected nor limited by the publish buffer
+     * @return A reference to this, so the API can be used fluently
+     */
+    public DataCollectorServiceOptions setPublishAckTimeout(long publishAckTimeout) {
+        this.publishAckTimeout = publishAckTimeout;
+        return this;
+    }
+}
@@ -0,0 +1,21 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+/**
+ * Defines the {@link JobExecutor} on which the collect and post-collect stages of the {@link DataCollectorServiceImpl}
+ * run.
+ */
+public enum ExecutorBackend {
+
+    /**
+     * Two Vert.x worker pools of the configured size, one for collect and one for post-collect. Fits jobs which block
+     * on I/O.
+     */
+    WORKER_POOL,
+
+    /**
+     * One work-stealing ForkJoinPool of the configured size, which is shared by collect and post-collect. Fits
+     * CPU-bound jobs, which can split their work with {@link java.util.concurrent.ForkJoinTask#fork()} into subtasks
+     * that run in the same pool. Jobs which block on I/O should not use it, because a blocked worker is not replaced.
+     */
+    FORK_JOIN
+}
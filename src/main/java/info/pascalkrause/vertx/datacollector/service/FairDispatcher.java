@@ -0,0 +1,175 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Dispatches the jobs of several tenants with deficit round robin to a limited number of workers. Every tenant has its
+ * own queue, in each round a tenant may dispatch as many jobs as its weight, so a tenant with weight 2 gets twice the
+ * workers of a tenant with weight 1 as long as both have queued jobs. Idle tenants don't accumulate credit.
+ * <p>
+ * The tenant names come from the requests, so the number of known tenants is limited. When the limit is exceeded, the
+ * least recently used tenants which have no queued jobs and no configured weight are forgotten, together with their
+ * metrics.
+ */
+class FairDispatcher {
+
+    static final int DEFAULT_MAX_TENANTS = 1000;
+
+    private static class Task {
+        private final Runnable runnable;
+        private final long enqueued = System.nanoTime();
+
+        private Task(Runnable runnable) {
+            this.runnable = runnable;
+        }
+    }
+
+    private static class Tenant {
+        private final Deque<Task> queue = new ArrayDeque<>();
+        private int weight;
+        private boolean configured;
+        private int deficit;
+        private long dispatched;
+        private long waitNanos;
+
+        private Tenant(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final int concurrency;
+    private final int defaultWeight;
+    private final int maxTenants;
+    private final Map<String, Tenant> tenants = new LinkedHashMap<>(16, 0.75f, true);
+    private final Deque<Tenant> active = new ArrayDeque<>();
+    private int running;
+
+    /**
+     * @param concurrency The maximum number of dispatched jobs which are not done yet
+     * @param defaultWeight The weight of tenants without configured weight
+     */
+    FairDispatcher(int concurrency, int defaultWeight) {
+        this(concurrency, defaultWeight, DEFAULT_MAX_TENANTS);
+    }
+
+    /**
+     * @param concurrency The maximum number of dispatched jobs which are not done yet
+     * @param defaultWeight The weight of tenants without configured weight
+     * @param maxTenants The number of known tenants from which on idle tenants are forgotten
+     */
+    FairDispatcher(int concurrency, int defaultWeight, int maxTenants) {
+        this.concurrency = concurrency;
+        this.defaultWeight = defaultWeight;
+        this.maxTenants = maxTenants;
+    }
+
+    private Tenant tenant(String name) {
+        Tenant t = tenants.get(name);
+        if (Objects.isNull(t)) {
+            t = new Tenant(defaultWeight);
+            tenants.put(name, t);
+            forgetIdleTenants(t);
+        }
+        return t;
+    }
+
+    private void forgetIdleTenants(Tenant added) {
+        final Iterator<Tenant> it = tenants.values().iterator();
+        while ((tenants.size() > maxTenants) && it.hasNext()) {
+            final Tenant t = it.next();
+            if ((t != added) && t.queue.isEmpty() && !t.configured) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * @param tenant The name of the tenant
+     * @param weight The share of the workers of the tenant, must be at least 1
+     */
+    synchronized void setWeight(String tenant, int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Weight must be at least 1");
+        }
+        final Tenant t = tenant(tenant);
+        t.weight = weight;
+        t.configured = true;
+    }
+
+    /**
+     * Queues a job of a tenant, the job is run as soon as it is its turn.
+     *
+     * @param tenant The name of the tenant
+     * @param job The job, which must call {@link #done()} when it frees its worker
+     */
+    void submit(String tenant, Runnable job) {
+        synchronized (this) {
+            final Tenant t = tenant(tenant);
+            if (t.queue.isEmpty()) {
+                active.addLast(t);
+            }
+            t.queue.addLast(new Task(job));
+        }
+        dispatch();
+    }
+
+    /**
+     * Must be called when a dispatched job frees its worker.
+     */
+    void done() {
+        synchronized (this) {
+            running--;
+        }
+        dispatch();
+    }
+
+    private synchronized Task next() {
+        if ((running >= concurrency) || active.isEmpty()) {
+            return null;
+        }
+        Tenant t = active.peekFirst();
+        while (t.deficit <= 0) {
+            // The tenant used its quantum of this round, move on to the next one
+            active.addLast(active.pollFirst());
+            t = active.peekFirst();
+            t.deficit += t.weight;
+        }
+        final Task task = t.queue.pollFirst();
+        t.deficit--;
+        t.dispatched++;
+        t.waitNanos += System.nanoTime() - task.enqueued;
+        if (t.queue.isEmpty()) {
+            active.pollFirst();
+            t.deficit = 0;
+        }
+        running++;
+        return task;
+    }
+
+    private void dispatch() {
+        Task task;
+        while (Objects.nonNull(task = next())) {
+            task.runnable.run();
+        }
+    }
+
+    /**
+     * @return The queue depth, the number of dispatched jobs and the average wait time in milliseconds per tenant.
+     */
+    synchronized JsonObject getMetrics() {
+        final JsonObject metrics = new JsonObject();
+        tenants.forEach((name, t) -> metrics.put(name,
+                new JsonObject().put("weight", t.weight).put("queued", t.queue.size())
+                        .put("dispatched", t.dispatched).put("waitMillis", t.dispatched == 0 ? 0
+                                : TimeUnit.NANOSECONDS.toMillis(t.waitNanos / t.dispatched))));
+        return metrics;
+    }
+}
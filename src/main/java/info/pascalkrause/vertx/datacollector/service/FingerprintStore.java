@@ -0,0 +1,156 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Remembers a 64 bit fingerprint of the latest result of every key, so that the post-collect stage of a result which
+ * didn't change can be skipped. The store is bounded, the least recently used key is evicted first. If a file is
+ * passed, the fingerprints are loaded from it on creation and written to it by {@link #save()}.
+ */
+class FingerprintStore {
+
+    private static final int FILE_VERSION = 1;
+
+    private final int maxEntries;
+    private final Path file;
+    private final Map<String, Long> fingerprints;
+    private final AtomicLong checked = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+
+    /**
+     * @param maxEntries The maximum number of keys
+     * @param file The file in which the fingerprints are persisted, or null
+     * @throws IOException If the file exists but can't be read
+     */
+    FingerprintStore(int maxEntries, Path file) throws IOException {
+        this.maxEntries = maxEntries;
+        this.file = file;
+        fingerprints = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > FingerprintStore.this.maxEntries;
+            }
+        };
+        if (Objects.nonNull(file) && Files.exists(file)) {
+            load();
+        }
+    }
+
+    /**
+     * The fingerprint covers the source, the quality and the result tree, but not the creation time, which differs on
+     * every collect.
+     *
+     * @param result The result of a collect
+     * @return The fingerprint of the result
+     */
+    static long fingerprint(CollectorJobResult result) {
+        final JsonObject content = new JsonObject().put("source", result.getSource())
+                .put("quality", result.getQuality()).put("result", result.getResult());
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.toBuffer().getBytes());
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param key The key of the result
+     * @param fingerprint The fingerprint of the new result
+     * @return True if the fingerprint equals the fingerprint of the previous result of the key.
+     */
+    boolean isUnchanged(String key, long fingerprint) {
+        checked.incrementAndGet();
+        final Long previous;
+        synchronized (fingerprints) {
+            previous = fingerprints.get(key);
+        }
+        if (Objects.nonNull(previous) && (previous == fingerprint)) {
+            unchanged.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Must only be called when the result was processed, otherwise a result which was never processed would be
+     * skipped the next time.
+     *
+     * @param key The key of the result
+     * @param fingerprint The fingerprint of the processed result
+     */
+    void update(String key, long fingerprint) {
+        synchronized (fingerprints) {
+            fingerprints.put(key, fingerprint);
+        }
+    }
+
+    JsonObject getMetrics() {
+        final int entries;
+        synchronized (fingerprints) {
+            entries = fingerprints.size();
+        }
+        return new JsonObject().put("entries", entries).put("checked", checked.get()).put("unchanged",
+                unchanged.get());
+    }
+
+    private void load() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_VERSION) {
+                throw new IOException("Unsupported fingerprint file version in " + file);
+            }
+            final int size = in.readInt();
+            synchronized (fingerprints) {
+                for (int i = 0; i < size; i++) {
+                    fingerprints.put(in.readUTF(), in.readLong());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the fingerprints into a temporary file, which replaces the file afterwards, so that a crash never leaves
+     * a partial file behind. Does nothing if no file was passed.
+     *
+     * @throws IOException If the file can't be written
+     */
+    void save() throws IOException {
+        if (Objects.isNull(file)) {
+            return;
+        }
+        final Map<String, Long> entries;
+        synchronized (fingerprints) {
+            entries = new LinkedHashMap<>(fingerprints);
+        }
+        final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(FILE_VERSION);
+            out.writeInt(entries.size());
+            for (final Map.Entry<String, Long> entry : entries.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
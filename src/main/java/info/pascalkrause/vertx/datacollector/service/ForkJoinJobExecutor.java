@@ -0,0 +1,67 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A {@link JobExecutor} on a work-stealing ForkJoinPool, see {@link ExecutorBackend#FORK_JOIN}. Jobs which run on this
+ * executor can split CPU-bound work into subtasks with {@link java.util.concurrent.ForkJoinTask#fork()} or
+ * {@link java.util.concurrent.ForkJoinTask#getPool()}. The subtasks are pushed to the queue of the current worker,
+ * idle workers steal them, so a single large job uses all workers. Jobs which block on I/O should use the worker pool
+ * backend instead, because a blocked worker of a ForkJoinPool is not replaced.
+ */
+class ForkJoinJobExecutor implements JobExecutor {
+
+    private final Vertx vertx;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param vertx The Vertx instance
+     * @param name The prefix of the names of the worker threads
+     * @param parallelism The number of worker threads
+     */
+    ForkJoinJobExecutor(Vertx vertx, String name, int parallelism) {
+        this.vertx = vertx;
+        pool = new ForkJoinPool(parallelism, p -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName(name + "-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @Override
+    public <T> void executeBlocking(Handler<Future<T>> blockingHandler, Handler<AsyncResult<T>> resultHandler) {
+        final Context context = vertx.getOrCreateContext();
+        final Future<T> future = Future.future();
+        future.setHandler(res -> context.runOnContext(v -> resultHandler.handle(res)));
+        pool.execute(() -> {
+            try {
+                blockingHandler.handle(future);
+            } catch (final Throwable t) {
+                future.tryFail(t);
+            }
+        });
+    }
+
+    @Override
+    public JsonObject getMetrics() {
+        final int parallelism = pool.getParallelism();
+        final int active = pool.getActiveThreadCount();
+        return new JsonObject().put("backend", "forkJoin").put("poolSize", parallelism).put("active", active)
+                .put("utilisation", (double) active / parallelism).put("queuedSubmissions",
+                        pool.getQueuedSubmissionCount())
+                .put("queuedTasks", pool.getQueuedTaskCount()).put("steals", pool.getStealCount());
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
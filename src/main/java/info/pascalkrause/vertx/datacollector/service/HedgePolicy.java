@@ -0,0 +1,102 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Decides when a second attempt of a slow collect is started. The delay is a percentile of the recent collect
+ * latencies, so only the slowest requests are hedged. Every request earns a fraction of a hedge, every hedge spends a
+ * whole one, so the extra load is bounded by the budget even if all requests are slow.
+ */
+class HedgePolicy {
+
+    /**
+     * The number of recent latencies from which the delay is computed.
+     */
+    static final int WINDOW = 1000;
+
+    /**
+     * The minimum number of latencies before hedging starts.
+     */
+    static final int MIN_SAMPLES = 20;
+
+    /**
+     * The maximum number of hedges which can be saved up while no request is slow.
+     */
+    static final double MAX_CREDITS = 10;
+
+    private static final int RECOMPUTE_INTERVAL = 50;
+
+    private final double percentile;
+    private final double budget;
+    private final long[] latencies = new long[WINDOW];
+    private int samples;
+    private long delay = -1;
+    private double credits;
+    private long hedged;
+    private long won;
+
+    /**
+     * @param percentile The percentile of the recent latencies after which a request is hedged, between 0 and 100
+     * @param budget The maximum number of hedges per request, e.g. 0.05 for at most 5% extra load
+     */
+    HedgePolicy(double percentile, double budget) {
+        this.percentile = percentile;
+        this.budget = budget;
+    }
+
+    /**
+     * Records the latency of a collect, measured from the start of its first attempt.
+     *
+     * @param nanos The latency in nanoseconds
+     */
+    synchronized void recordLatency(long nanos) {
+        latencies[samples % WINDOW] = nanos;
+        samples++;
+        if ((samples >= MIN_SAMPLES) && ((delay < 0) || ((samples % RECOMPUTE_INTERVAL) == 0))) {
+            final long[] sorted = Arrays.copyOf(latencies, Math.min(samples, WINDOW));
+            Arrays.sort(sorted);
+            final int index = (int) Math.ceil((percentile / 100) * sorted.length) - 1;
+            delay = Math.max(1, TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]));
+        }
+    }
+
+    /**
+     * Must be called for every collect that could be hedged, to earn the budget.
+     *
+     * @return The time in milliseconds after which the collect should be hedged, or -1 if there are not enough
+     * latencies yet.
+     */
+    synchronized long onCollect() {
+        credits = Math.min(MAX_CREDITS, credits + budget);
+        return delay;
+    }
+
+    /**
+     * @return True if the budget allows another hedge, which is spent then.
+     */
+    synchronized boolean tryHedge() {
+        if (credits < 1) {
+            return false;
+        }
+        credits--;
+        hedged++;
+        return true;
+    }
+
+    /**
+     * Records a hedge which finished before the first attempt.
+     */
+    synchronized void registerWin() {
+        won++;
+    }
+
+    /**
+     * @return The number of hedges, the number of hedges which won and the current delay in milliseconds.
+     */
+    synchronized JsonObject getMetrics() {
+        return new JsonObject().put("hedged", hedged).put("won", won).put("delayMillis", delay);
+    }
+}
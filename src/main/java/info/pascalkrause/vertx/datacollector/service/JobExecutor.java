@@ -0,0 +1,32 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Runs the blocking stages of the jobs of a {@link DataCollectorServiceImpl}, see {@link ExecutorBackend}.
+ */
+public interface JobExecutor {
+
+    /**
+     * Runs the blocking handler on a thread of this executor. The result handler is called on the context of the
+     * caller, like {@link io.vertx.core.WorkerExecutor#executeBlocking(Handler, boolean, Handler)} with ordered set to
+     * false. If the blocking handler throws, the Future is failed with the exception.
+     *
+     * @param blockingHandler The handler which contains the blocking code.
+     * @param resultHandler The handler which receives the result of the Future.
+     */
+    public <T> void executeBlocking(Handler<Future<T>> blockingHandler, Handler<AsyncResult<T>> resultHandler);
+
+    /**
+     * @return The size, the utilisation and further implementation specific metrics of this executor.
+     */
+    public JsonObject getMetrics();
+
+    /**
+     * Releases the threads of this executor. Already submitted tasks are still executed.
+     */
+    public void close();
+}
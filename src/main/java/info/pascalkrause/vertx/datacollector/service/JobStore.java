@@ -0,0 +1,120 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+
+/**
+ * Keeps the outcomes of submitted jobs. Fetching an outcome doesn't remove it, so it can be fetched again until the
+ * job is evicted. Completed jobs are evicted after the time to live, or earlier if the store exceeds its maximum size,
+ * the oldest completed job first. Pending jobs are never evicted, their number is bounded by the queue size of the
+ * service.
+ */
+class JobStore {
+
+    private static class Job {
+        private final String requestId;
+        private AsyncResult<CollectorJobResult> outcome;
+
+        private Job(String requestId) {
+            this.requestId = requestId;
+        }
+    }
+
+    private static class Completion {
+        private final String jobId;
+        private final long completed;
+
+        private Completion(String jobId, long completed) {
+            this.jobId = jobId;
+            this.completed = completed;
+        }
+    }
+
+    private final int maxSize;
+    private final long ttl;
+    private final Map<String, Job> jobs = new HashMap<>();
+    private final Deque<Completion> completions = new ArrayDeque<>();
+
+    /**
+     * @param maxSize The maximum number of completed jobs
+     * @param ttl The time in milliseconds a completed job is kept
+     */
+    JobStore(int maxSize, long ttl) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+    }
+
+    private void evict(long now) {
+        while (!completions.isEmpty()
+                && ((completions.size() > maxSize) || ((completions.peekFirst().completed + ttl) <= now))) {
+            jobs.remove(completions.pollFirst().jobId);
+        }
+    }
+
+    synchronized void add(String jobId, String requestId) {
+        jobs.put(jobId, new Job(requestId));
+    }
+
+    synchronized void remove(String jobId) {
+        jobs.remove(jobId);
+    }
+
+    synchronized void complete(String jobId, AsyncResult<CollectorJobResult> outcome) {
+        final Job job = jobs.get(jobId);
+        if (Objects.nonNull(job)) {
+            job.outcome = outcome;
+            final long now = System.currentTimeMillis();
+            completions.addLast(new Completion(jobId, now));
+            evict(now);
+        }
+    }
+
+    /**
+     * @param jobId The id of the job.
+     * @return The status of the job, or null if the job is unknown or was evicted.
+     */
+    synchronized String status(String jobId) {
+        evict(System.currentTimeMillis());
+        final Job job = jobs.get(jobId);
+        if (Objects.isNull(job)) {
+            return null;
+        }
+        if (Objects.isNull(job.outcome)) {
+            return DataCollectorService.JOB_STATUS_PENDING;
+        }
+        return job.outcome.succeeded() ? DataCollectorService.JOB_STATUS_SUCCEEDED
+                : DataCollectorService.JOB_STATUS_FAILED;
+    }
+
+    /**
+     * Looks up the status and the outcome of the job at once, so that the job can't be evicted in between.
+     *
+     * @param jobId The id of the job.
+     * @return The outcome of the job, or a failed AsyncResult with {@link DataCollectorService#ERROR_JOB_PENDING} if
+     * the job is pending, or with {@link DataCollectorService#ERROR_JOB_NOT_FOUND} if it is unknown or was evicted.
+     */
+    synchronized AsyncResult<CollectorJobResult> fetch(String jobId) {
+        evict(System.currentTimeMillis());
+        final Job job = jobs.get(jobId);
+        if (Objects.isNull(job)) {
+            return Future.failedFuture(DataCollectorService.ERROR_JOB_NOT_FOUND);
+        }
+        return Objects.isNull(job.outcome) ? Future.failedFuture(DataCollectorService.ERROR_JOB_PENDING) : job.outcome;
+    }
+
+    /**
+     * @param jobId The id of the job.
+     * @return The requestId of the job, or null if the job is unknown or was evicted.
+     */
+    synchronized String requestId(String jobId) {
+        final Job job = jobs.get(jobId);
+        return Objects.isNull(job) ? null : job.requestId;
+    }
+}
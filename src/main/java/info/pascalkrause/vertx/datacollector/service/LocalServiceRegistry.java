@@ -0,0 +1,49 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.Objects;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * Keeps track of the {@link DataCollectorService} instances which are deployed in the current Vert.x instance, so that
+ * callers in the same JVM can use them directly instead of sending messages over the event bus.
+ */
+public class LocalServiceRegistry {
+
+    private static final String MAP_NAME = "info.pascalkrause.vertx.datacollector.localServices";
+
+    private static class Binding implements Shareable {
+        private final DataCollectorService service;
+
+        private Binding(DataCollectorService service) {
+            this.service = service;
+        }
+    }
+
+    private LocalServiceRegistry() {
+    }
+
+    private static LocalMap<String, Binding> getMap(Vertx vertx) {
+        return vertx.sharedData().getLocalMap(MAP_NAME);
+    }
+
+    public static void bind(Vertx vertx, String address, DataCollectorService service) {
+        getMap(vertx).put(address, new Binding(service));
+    }
+
+    public static void unbind(Vertx vertx, String address) {
+        getMap(vertx).remove(address);
+    }
+
+    /**
+     * @param vertx The Vert.x instance in which the service was deployed.
+     * @param address The eventbus address of the service.
+     * @return The service which is bound to the address, or null if there is no local service for this address.
+     */
+    public static DataCollectorService lookup(Vertx vertx, String address) {
+        final Binding binding = getMap(vertx).get(address);
+        return Objects.isNull(binding) ? null : binding.service;
+    }
+}
@@ -0,0 +1,122 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import info.pascalkrause.vertx.datacollector.job.BatchingCollectorJob;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+/**
+ * Accumulates the results of completed collects and runs the post-collect stage of a {@link BatchingCollectorJob} for
+ * all of them at once, when either the batch size or the linger time is reached. The outcome of every item is passed
+ * back to its handler on the context from which it was added.
+ */
+class PostCollectBatcher {
+
+    private static class Item {
+        private final AsyncResult<CollectorJobResult> collectResult;
+        private final Handler<AsyncResult<CollectorJobResult>> handler;
+        private final Context context;
+
+        private Item(AsyncResult<CollectorJobResult> collectResult, Handler<AsyncResult<CollectorJobResult>> handler,
+                Context context) {
+            this.collectResult = collectResult;
+            this.handler = handler;
+            this.context = context;
+        }
+
+        private void complete(AsyncResult<CollectorJobResult> outcome) {
+            context.runOnContext(v -> handler.handle(outcome));
+        }
+    }
+
+    private final Vertx vertx;
+    private final JobExecutor executor;
+    private final BatchingCollectorJob job;
+    private final int batchSize;
+    private final long linger;
+
+    private List<Item> pending = new ArrayList<>();
+    private long timerId = -1;
+
+    /**
+     * @param vertx The Vert.x instance
+     * @param executor The executor which runs the post-collect stage
+     * @param job The job which processes the batches
+     * @param batchSize The maximum number of results in a batch
+     * @param linger The maximum time in milliseconds a result waits for further results
+     */
+    PostCollectBatcher(Vertx vertx, JobExecutor executor, BatchingCollectorJob job, int batchSize, long linger) {
+        this.vertx = vertx;
+        this.executor = executor;
+        this.job = job;
+        this.batchSize = batchSize;
+        this.linger = linger;
+    }
+
+    /**
+     * Adds the result of a completed collect to the current batch.
+     *
+     * @param collectResult The result of the collect stage
+     * @param handler Receives the outcome of the post-collect stage of this result
+     */
+    void add(AsyncResult<CollectorJobResult> collectResult, Handler<AsyncResult<CollectorJobResult>> handler) {
+        final List<Item> batch;
+        synchronized (this) {
+            pending.add(new Item(collectResult, handler, vertx.getOrCreateContext()));
+            if (pending.size() < batchSize) {
+                if (timerId < 0) {
+                    timerId = vertx.setTimer(Math.max(1, linger), id -> flush(id));
+                }
+                return;
+            }
+            batch = takeBatch();
+        }
+        process(batch);
+    }
+
+    private List<Item> takeBatch() {
+        if (timerId >= 0) {
+            vertx.cancelTimer(timerId);
+            timerId = -1;
+        }
+        final List<Item> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void flush(long id) {
+        final List<Item> batch;
+        synchronized (this) {
+            // The batch of this timer was already taken, because it reached the batch size
+            if (id != timerId) {
+                return;
+            }
+            timerId = -1;
+            batch = takeBatch();
+        }
+        process(batch);
+    }
+
+    private void process(List<Item> batch) {
+        final List<AsyncResult<CollectorJobResult>> results = new ArrayList<>(batch.size());
+        batch.forEach(item -> results.add(item.collectResult));
+        executor.<List<AsyncResult<CollectorJobResult>>>executeBlocking(job.postCollectBatch(results), res -> {
+            if (res.succeeded() && (res.result().size() != batch.size())) {
+                final String msg = "Expected " + batch.size() + " outcomes, got " + res.result().size();
+                batch.forEach(item -> item.complete(Future.failedFuture(new IllegalStateException(msg))));
+            } else if (res.failed()) {
+                batch.forEach(item -> item.complete(Future.failedFuture(res.cause())));
+            } else {
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).complete(res.result().get(i));
+                }
+            }
+        });
+    }
+}
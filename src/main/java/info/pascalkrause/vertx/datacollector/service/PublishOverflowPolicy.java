@@ -0,0 +1,18 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+/**
+ * Defines which results the result publication of the {@link DataCollectorServiceImpl} drops when its buffer is full,
+ * because the subscriber doesn't acknowledge the batches fast enough.
+ */
+public enum PublishOverflowPolicy {
+
+    /**
+     * The new result is dropped, the buffered results are kept.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The oldest buffered result is dropped to make room for the new result.
+     */
+    DROP_OLDEST
+}
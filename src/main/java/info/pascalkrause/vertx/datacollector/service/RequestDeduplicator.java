@@ -0,0 +1,175 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+/**
+ * Detects repeated requests with the same requestId. A repeat of a running request is attached to it and receives the
+ * same outcome. The outcomes of completed requests are cached for the deduplication window. The cache consists of
+ * time buckets, whole buckets are dropped when they leave the window or when the cache exceeds its maximum size, so
+ * the memory stays bounded without tracking the age of every entry.
+ */
+class RequestDeduplicator {
+
+    /**
+     * The result of {@link RequestDeduplicator#begin(String, Handler)}.
+     */
+    enum Admission {
+        /**
+         * The request is new and must be executed, afterwards {@link RequestDeduplicator#complete} must be called.
+         */
+        EXECUTE,
+        /**
+         * The request is already running, the handler was attached to it.
+         */
+        ATTACHED,
+        /**
+         * The request was completed within the window, the handler was called with the cached outcome.
+         */
+        CACHED
+    }
+
+    private static final int BUCKETS = 4;
+
+    private static class Bucket {
+        private final long start;
+        private final Map<String, AsyncResult<CollectorJobResult>> outcomes = new HashMap<>();
+
+        private Bucket(long start) {
+            this.start = start;
+        }
+    }
+
+    private static class Waiter {
+        private final Handler<AsyncResult<CollectorJobResult>> handler;
+        private final Context context;
+
+        private Waiter(Handler<AsyncResult<CollectorJobResult>> handler, Context context) {
+            this.handler = handler;
+            this.context = context;
+        }
+    }
+
+    private final Vertx vertx;
+    private final long window;
+    private final long bucketDuration;
+    private final int maxEntries;
+
+    private final Map<String, List<Waiter>> running = new HashMap<>();
+    private final Deque<Bucket> buckets = new ArrayDeque<>();
+    private int cachedEntries;
+
+    /**
+     * @param vertx The Vert.x instance
+     * @param window The time in milliseconds in which the outcome of a completed request is reused
+     * @param maxEntries The maximum number of cached outcomes
+     */
+    RequestDeduplicator(Vertx vertx, long window, int maxEntries) {
+        this.vertx = vertx;
+        this.window = window;
+        this.maxEntries = maxEntries;
+        bucketDuration = Math.max(1, window / BUCKETS);
+    }
+
+    private void expire(long now) {
+        while (!buckets.isEmpty() && ((buckets.peekFirst().start + window + bucketDuration) <= now)) {
+            cachedEntries -= buckets.pollFirst().outcomes.size();
+        }
+    }
+
+    private AsyncResult<CollectorJobResult> lookup(String requestId) {
+        for (final Bucket bucket : buckets) {
+            final AsyncResult<CollectorJobResult> outcome = bucket.outcomes.get(requestId);
+            if (Objects.nonNull(outcome)) {
+                return outcome;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param requestId The requestId of the request.
+     * @param resultHandler The handler of the request.
+     * @return How the request must be handled.
+     */
+    Admission begin(String requestId, Handler<AsyncResult<CollectorJobResult>> resultHandler) {
+        final AsyncResult<CollectorJobResult> cached;
+        synchronized (this) {
+            final List<Waiter> waiters = running.get(requestId);
+            if (Objects.nonNull(waiters)) {
+                waiters.add(new Waiter(resultHandler, vertx.getOrCreateContext()));
+                return Admission.ATTACHED;
+            }
+            expire(System.currentTimeMillis());
+            cached = lookup(requestId);
+            if (Objects.isNull(cached)) {
+                running.put(requestId, new ArrayList<>());
+                return Admission.EXECUTE;
+            }
+        }
+        resultHandler.handle(cached);
+        return Admission.CACHED;
+    }
+
+    /**
+     * Removes a request without caching its outcome, e.g. because the queue was full or the job failed, so that a
+     * repeat is executed again. Attached requests receive the same outcome.
+     *
+     * @param requestId The requestId of the request.
+     * @param outcome The outcome that is passed to attached requests.
+     */
+    void release(String requestId, AsyncResult<CollectorJobResult> outcome) {
+        final List<Waiter> waiters;
+        synchronized (this) {
+            waiters = running.remove(requestId);
+        }
+        notifyWaiters(waiters, outcome);
+    }
+
+    /**
+     * Caches the outcome of an executed request and passes it to all attached requests.
+     *
+     * @param requestId The requestId of the request.
+     * @param outcome The outcome of the request.
+     */
+    void complete(String requestId, AsyncResult<CollectorJobResult> outcome) {
+        final List<Waiter> waiters;
+        synchronized (this) {
+            waiters = running.remove(requestId);
+            final long now = System.currentTimeMillis();
+            expire(now);
+            if (buckets.isEmpty() || ((buckets.peekLast().start + bucketDuration) <= now)) {
+                buckets.addLast(new Bucket(now - (now % bucketDuration)));
+            }
+            if (Objects.isNull(buckets.peekLast().outcomes.put(requestId, outcome))) {
+                cachedEntries++;
+            }
+            // Drop the oldest outcomes first, but always keep the current bucket
+            while ((cachedEntries > maxEntries) && (buckets.size() > 1)) {
+                cachedEntries -= buckets.pollFirst().outcomes.size();
+            }
+            if (cachedEntries > maxEntries) {
+                buckets.peekLast().outcomes.remove(requestId);
+                cachedEntries--;
+            }
+        }
+        notifyWaiters(waiters, outcome);
+    }
+
+    private void notifyWaiters(List<Waiter> waiters, AsyncResult<CollectorJobResult> outcome) {
+        if (Objects.nonNull(waiters)) {
+            waiters.forEach(w -> w.context.runOnContext(v -> w.handler.handle(outcome)));
+        }
+    }
+}
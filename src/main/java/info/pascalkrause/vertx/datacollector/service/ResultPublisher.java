@@ -0,0 +1,179 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Publishes the views of completed results in batches to an event bus address. A batch is sent when it reaches the
+ * batch size or when its oldest result has waited for the linger time. Without acknowledgement every batch is
+ * published to all consumers of the address as soon as it is full, so the buffer never grows and a slow subscriber
+ * isn't noticed. With acknowledgement every batch is sent to one consumer, which must reply within the ack timeout, and
+ * at most {@link #MAX_BATCHES_IN_FLIGHT} batches are unacknowledged. The results of slow subscribers are then kept in a
+ * bounded buffer, which drops results according to the overflow policy when it is full.
+ */
+class ResultPublisher {
+
+    /**
+     * The maximum number of batches which are not acknowledged yet.
+     */
+    static final int MAX_BATCHES_IN_FLIGHT = 4;
+
+    private final Vertx vertx;
+    private final String address;
+    private final Function<CollectorJobResult, JsonObject> projection;
+    private final int batchSize;
+    private final long linger;
+    private final int bufferSize;
+    private final PublishOverflowPolicy overflowPolicy;
+    private final long ackTimeout;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong failedProjections = new AtomicLong();
+
+    private final Deque<JsonObject> buffer = new ArrayDeque<>();
+    private long timerId = -1;
+    private int inFlight;
+
+    /**
+     * @param vertx The Vert.x instance
+     * @param address The address to which the batches are sent
+     * @param projection Returns the published view of a result, or null if the result is not published
+     * @param batchSize The maximum number of results in a batch
+     * @param linger The maximum time in milliseconds a result waits for further results
+     * @param bufferSize The maximum number of buffered results, or -1 for no limit
+     * @param overflowPolicy Defines which result is dropped when the buffer is full
+     * @param ackTimeout The time in milliseconds in which a batch must be acknowledged, or -1 to publish the batches
+     * without acknowledgement
+     */
+    ResultPublisher(Vertx vertx, String address, Function<CollectorJobResult, JsonObject> projection, int batchSize,
+            long linger, int bufferSize, PublishOverflowPolicy overflowPolicy, long ackTimeout) {
+        this.vertx = vertx;
+        this.address = address;
+        this.projection = projection;
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+        this.ackTimeout = ackTimeout;
+    }
+
+    /**
+     * Adds a completed result to the current batch. A result whose projection throws is not published.
+     *
+     * @param result The completed result
+     */
+    void publish(CollectorJobResult result) {
+        final JsonObject view;
+        try {
+            view = projection.apply(result);
+        } catch (final RuntimeException e) {
+            failedProjections.incrementAndGet();
+            return;
+        }
+        if (Objects.isNull(view)) {
+            return;
+        }
+        synchronized (this) {
+            if ((bufferSize >= 0) && (buffer.size() >= bufferSize)) {
+                dropped.incrementAndGet();
+                if (overflowPolicy == PublishOverflowPolicy.DROP_NEWEST) {
+                    return;
+                }
+                buffer.pollFirst();
+            }
+            buffer.add(view);
+            if (buffer.size() < batchSize) {
+                if (timerId < 0) {
+                    timerId = vertx.setTimer(Math.max(1, linger), this::lingerExpired);
+                }
+                return;
+            }
+        }
+        flush(false);
+    }
+
+    private void lingerExpired(long id) {
+        synchronized (this) {
+            if (timerId != id) {
+                return;
+            }
+            timerId = -1;
+        }
+        flush(true);
+    }
+
+    /**
+     * Sends full batches while the number of batches in flight allows it.
+     *
+     * @param all True to send the last batch even if it is not full
+     */
+    private void flush(boolean all) {
+        while (true) {
+            final JsonArray batch = new JsonArray();
+            synchronized (this) {
+                if (buffer.isEmpty() || (!all && (buffer.size() < batchSize))
+                        || ((ackTimeout >= 0) && (inFlight >= MAX_BATCHES_IN_FLIGHT))) {
+                    return;
+                }
+                while ((batch.size() < batchSize) && !buffer.isEmpty()) {
+                    batch.add(buffer.poll());
+                }
+                if (buffer.isEmpty() && (timerId >= 0)) {
+                    vertx.cancelTimer(timerId);
+                    timerId = -1;
+                }
+                if (ackTimeout >= 0) {
+                    inFlight++;
+                }
+            }
+            send(batch);
+        }
+    }
+
+    private void send(JsonArray batch) {
+        if (ackTimeout < 0) {
+            vertx.eventBus().publish(address, batch);
+            batches.incrementAndGet();
+            published.addAndGet(batch.size());
+            return;
+        }
+        vertx.eventBus().send(address, batch, new DeliveryOptions().setSendTimeout(Math.max(1, ackTimeout)), ack -> {
+            if (ack.failed()) {
+                // The batch is lost, the subscriber is gone or too slow
+                failedBatches.incrementAndGet();
+                dropped.addAndGet(batch.size());
+            } else {
+                batches.incrementAndGet();
+                published.addAndGet(batch.size());
+            }
+            final boolean lingerExpired;
+            synchronized (this) {
+                inFlight--;
+                // Without pending timer the buffered results have waited long enough
+                lingerExpired = timerId < 0;
+            }
+            flush(lingerExpired);
+        });
+    }
+
+    JsonObject getMetrics() {
+        final int buffered;
+        synchronized (this) {
+            buffered = buffer.size();
+        }
+        return new JsonObject().put("published", published.get()).put("batches", batches.get())
+                .put("dropped", dropped.get()).put("failedBatches", failedBatches.get())
+                .put("failedProjections", failedProjections.get()).put("buffered", buffered);
+    }
+}
@@ -0,0 +1,138 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobContext;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import info.pascalkrause.vertx.datacollector.job.ScatterGatherCollectorJob;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Runs the collect of a {@link ScatterGatherCollectorJob}: the feature is split, the parts are collected in parallel on
+ * the executor and the outcomes are merged. The parts bypass the bulkhead and the fair dispatcher, they run under the
+ * admission of their request. Unless a parallelism is configured, a request runs at most as many parts at the same
+ * time as the bulkhead of its job allows, or as the executor has workers.
+ */
+class ScatterGather {
+
+    private final JobExecutor executor;
+    private final int parallelism;
+    private final int workerPoolSize;
+
+    /**
+     * The parts of a single collect. The part handlers may be called concurrently from different threads.
+     */
+    private class Gather {
+        private final ScatterGatherCollectorJob job;
+        private final String requestId;
+        private final JsonObject feature;
+        private final CollectorJobContext context;
+        private final int limit;
+        private final List<JsonObject> parts;
+        private final AtomicReferenceArray<AsyncResult<CollectorJobResult>> outcomes;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final Future<CollectorJobResult> future;
+
+        private Gather(ScatterGatherCollectorJob job, String requestId, JsonObject feature,
+                CollectorJobContext context, int limit, List<JsonObject> parts, Future<CollectorJobResult> future) {
+            this.job = job;
+            this.requestId = requestId;
+            this.feature = feature;
+            this.context = context;
+            this.limit = limit;
+            this.parts = parts;
+            this.future = future;
+            outcomes = new AtomicReferenceArray<>(parts.size());
+            remaining = new AtomicInteger(parts.size());
+        }
+
+        private void start() {
+            final int inFlight = Math.min(limit, parts.size());
+            for (int i = 0; i < inFlight; i++) {
+                startNext();
+            }
+        }
+
+        private void startNext() {
+            final int index = next.getAndIncrement();
+            if (index >= parts.size()) {
+                return;
+            }
+            executor.<CollectorJobResult>executeBlocking(fut -> {
+                // Skip the parts which were not started yet when the request was cancelled
+                if (context.isCancelled()) {
+                    fut.fail(DataCollectorService.ERROR_CANCELLED);
+                } else if (context.isExpired()) {
+                    fut.fail(DataCollectorService.ERROR_EXPIRED);
+                } else {
+                    job.collect(requestId, parts.get(index), context).handle(fut);
+                }
+            }, outcome -> {
+                outcomes.set(index, outcome);
+                if (remaining.decrementAndGet() == 0) {
+                    merge();
+                } else {
+                    startNext();
+                }
+            });
+        }
+
+        private void merge() {
+            final List<AsyncResult<CollectorJobResult>> results = new ArrayList<>(parts.size());
+            for (int i = 0; i < outcomes.length(); i++) {
+                results.add(outcomes.get(i));
+            }
+            if (results.stream().noneMatch(AsyncResult::succeeded)) {
+                future.fail(results.get(0).cause());
+                return;
+            }
+            executor.<CollectorJobResult>executeBlocking(fut -> fut.complete(job.merge(requestId, feature, results)),
+                    future);
+        }
+    }
+
+    /**
+     * @param executor The executor which runs the parts and the merge
+     * @param parallelism The maximum number of parts of a single request which run at the same time, or -1 for the
+     * maximum concurrency of the bulkhead of the job, or the worker pool size if the job has no bulkhead
+     * @param workerPoolSize The number of workers of the executor
+     */
+    ScatterGather(JobExecutor executor, int parallelism, int workerPoolSize) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.workerPoolSize = workerPoolSize;
+    }
+
+    /**
+     * Is used as collect of a {@link ScatterGatherCollectorJob}. The returned handler splits the feature in the
+     * worker thread and completes its future when the merged result is available.
+     *
+     * @param job The job
+     * @param requestId The request id
+     * @param feature The feature of the request
+     * @param context The context of the request, which is shared by all parts
+     * @param bulkhead The bulkhead of the job, or null
+     * @return A Handler with the Future which contains the collection logic.
+     */
+    Handler<Future<CollectorJobResult>> collect(ScatterGatherCollectorJob job, String requestId, JsonObject feature,
+            CollectorJobContext context, Bulkhead bulkhead) {
+        final int limit = (parallelism > 0) ? parallelism
+                : Objects.isNull(bulkhead) ? workerPoolSize : bulkhead.getMaxConcurrency();
+        return fut -> {
+            final List<JsonObject> parts = job.split(requestId, feature);
+            if (Objects.isNull(parts) || parts.isEmpty()) {
+                job.collect(requestId, feature, context).handle(fut);
+            } else {
+                new Gather(job, requestId, feature, context, limit, parts, fut).start();
+            }
+        };
+    }
+}
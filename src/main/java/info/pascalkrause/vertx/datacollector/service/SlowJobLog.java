@@ -0,0 +1,73 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Objects;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A bounded ring buffer with the requests which took longer than a threshold. When the log is full, the oldest entry
+ * is dropped.
+ */
+class SlowJobLog {
+
+    /**
+     * The maximum length of the encoded feature in an entry.
+     */
+    static final int FEATURE_SUMMARY_LENGTH = 256;
+
+    private final long threshold;
+    private final int capacity;
+    private final Deque<JsonObject> entries = new ArrayDeque<>();
+
+    /**
+     * @param threshold The time in milliseconds above which a request is logged
+     * @param capacity The maximum number of entries
+     */
+    SlowJobLog(long threshold, int capacity) {
+        this.threshold = threshold;
+        this.capacity = capacity;
+    }
+
+    static String summarize(JsonObject feature) {
+        if (Objects.isNull(feature)) {
+            return null;
+        }
+        final String encoded = feature.encode();
+        return encoded.length() <= FEATURE_SUMMARY_LENGTH ? encoded
+                : encoded.substring(0, FEATURE_SUMMARY_LENGTH) + "...";
+    }
+
+    /**
+     * Adds the request to the log, if it took longer than the threshold.
+     */
+    void record(String requestId, JsonObject feature, StageTrace trace, AsyncResult<CollectorJobResult> outcome) {
+        if (trace.getTotalMillis() <= threshold) {
+            return;
+        }
+        final JsonObject entry = new JsonObject().put("requestId", requestId)
+                .put("completed", System.currentTimeMillis())
+                .put("outcome", outcome.succeeded() ? "succeeded" : outcome.cause().getMessage())
+                .put("feature", summarize(feature)).put("phases", trace.toJson());
+        synchronized (entries) {
+            if (entries.size() >= capacity) {
+                entries.pollFirst();
+            }
+            entries.addLast(entry);
+        }
+    }
+
+    /**
+     * @return The logged requests, the oldest first.
+     */
+    JsonArray getEntries() {
+        synchronized (entries) {
+            return new JsonArray(new ArrayList<>(entries));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The monotonic timestamps of the stages of a single request. The stages are marked from different threads, the
+ * phases between them are computed when the request is completed. A stage which was not reached has the timestamp 0.
+ */
+class StageTrace {
+
+    private final long received;
+    private volatile long admitted;
+    private volatile long started;
+    private volatile long collected;
+    private volatile long postCollected;
+    private volatile long completed;
+
+    /**
+     * @param received The time in nanoseconds ({@link System#nanoTime()}) at which the service received the request
+     */
+    StageTrace(long received) {
+        this.received = received;
+    }
+
+    /**
+     * The request passed the admission and is queued for a worker.
+     */
+    void admitted() {
+        admitted = System.nanoTime();
+    }
+
+    /**
+     * A worker started the collect.
+     */
+    void started() {
+        started = System.nanoTime();
+    }
+
+    void collected() {
+        collected = System.nanoTime();
+    }
+
+    void postCollected() {
+        postCollected = System.nanoTime();
+    }
+
+    void completed() {
+        completed = System.nanoTime();
+    }
+
+    /**
+     * @return The time in milliseconds from receiving the request until its completion.
+     */
+    double getTotalMillis() {
+        return millis(received, completed);
+    }
+
+    private static double millis(long from, long to) {
+        return ((from == 0) || (to == 0)) ? 0 : (to - from) / 1e6;
+    }
+
+    /**
+     * Phases whose end was not reached, e.g. because the request was cancelled in the queue, are 0.
+     *
+     * @return The duration in milliseconds of the phases admission (incl. the journal), queue (waiting for a worker),
+     * collect, postCollect and sink, and the total.
+     */
+    JsonObject toJson() {
+        return new JsonObject().put("admissionMillis", millis(received, admitted))
+                .put("queueMillis", millis(admitted, started)).put("collectMillis", millis(started, collected))
+                .put("postCollectMillis", millis(collected, postCollected))
+                .put("sinkMillis", millis(postCollected, completed)).put("totalMillis", getTotalMillis());
+    }
+}
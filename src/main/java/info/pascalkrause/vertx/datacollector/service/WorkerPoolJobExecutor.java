@@ -0,0 +1,56 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A {@link JobExecutor} on a shared Vert.x worker pool, see {@link ExecutorBackend#WORKER_POOL}.
+ */
+class WorkerPoolJobExecutor implements JobExecutor {
+
+    private final WorkerExecutor executor;
+    private final int poolSize;
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * @param vertx The Vertx instance
+     * @param name The name of the shared worker pool
+     * @param poolSize The number of worker threads
+     * @param maxExecuteTimeout The time in milliseconds after which Vert.x warns about a blocked worker
+     */
+    WorkerPoolJobExecutor(Vertx vertx, String name, int poolSize, long maxExecuteTimeout) {
+        this.poolSize = poolSize;
+        executor = vertx.createSharedWorkerExecutor(name, poolSize, TimeUnit.MILLISECONDS.toNanos(maxExecuteTimeout));
+    }
+
+    @Override
+    public <T> void executeBlocking(Handler<Future<T>> blockingHandler, Handler<AsyncResult<T>> resultHandler) {
+        executor.executeBlocking(fut -> {
+            active.incrementAndGet();
+            try {
+                blockingHandler.handle(fut);
+            } finally {
+                active.decrementAndGet();
+            }
+        }, false, resultHandler);
+    }
+
+    @Override
+    public JsonObject getMetrics() {
+        final int running = active.get();
+        return new JsonObject().put("backend", "workerPool").put("poolSize", poolSize).put("active", running)
+                .put("utilisation", (double) running / poolSize);
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,22 @@
+package info.pascalkrause.vertx.datacollector.sink;
+
+/**
+ * Defines when the {@link ResultSink} forces the written results to disk.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * The results are never forced, the operating system decides when they are written to disk.
+     */
+    NEVER,
+
+    /**
+     * A segment is forced when it is rotated or the sink is closed.
+     */
+    ON_ROTATE,
+
+    /**
+     * Every batch of results is forced before their handlers are called.
+     */
+    BATCH
+}
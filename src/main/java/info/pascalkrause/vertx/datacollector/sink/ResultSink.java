@@ -0,0 +1,359 @@
+package info.pascalkrause.vertx.datacollector.sink;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import info.pascalkrause.vertx.datacollector.codec.ResultCompression;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Appends {@link CollectorJobResult CollectorJobResults} to rotating segment files. All results are written by a
+ * single writer thread, which encodes and writes every result that was appended in the meantime with one gathering
+ * write. Every segment has an index file, which maps the request ids to the positions of the results. The index files
+ * are read once when the sink is opened, afterwards the position of the last result of every request id is kept in
+ * memory, so that a lookup never has to scan the segments.
+ * <p>
+ * A result is stored as <code>[int length][byte encoding][result]</code>, where the result is encoded with
+ * {@link ResultCompression}. An index entry is stored as <code>[int length][requestId][long position]</code>.
+ */
+public class ResultSink {
+
+    public static final long DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "results-";
+    private static final String DATA_SUFFIX = ".dat";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final byte ENCODING_IDENTITY = 0;
+    private static final byte ENCODING_DEFLATE = 1;
+
+    private static class Location {
+        private final long segment;
+        private final long position;
+
+        private Location(long segment, long position) {
+            this.segment = segment;
+            this.position = position;
+        }
+    }
+
+    private static class Pending {
+        private final CollectorJobResult result;
+        private final Handler<AsyncResult<Void>> handler;
+        private ByteBuffer header;
+        private ByteBuffer payload;
+
+        private Pending(CollectorJobResult result, Handler<AsyncResult<Void>> handler) {
+            this.result = result;
+            this.handler = handler;
+        }
+    }
+
+    private static final Pending CLOSE = new Pending(null, null);
+
+    private final Path directory;
+    private final long segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final int compressionThreshold;
+
+    // Guarded by itself
+    private final Map<String, Location> index = new HashMap<>();
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    // Guarded by the queue, so that no result can be queued after the close marker
+    private boolean closed;
+
+    private long segment;
+    private FileChannel data;
+    private FileChannel indexData;
+
+    /**
+     * Opens the sink and reads the index files of the existing segments. New results are always written into a new
+     * segment.
+     *
+     * @param directory The directory of the segment files.
+     * @param segmentSize The size in bytes from which on a new segment is started.
+     * @param fsyncPolicy Defines when the results are forced to disk.
+     * @param compressionThreshold The minimum size in bytes of an encoded result, from which on it is compressed. A
+     * negative value disables compression.
+     * @throws IOException If the directory or an index file can't be read.
+     */
+    public ResultSink(Path directory, long segmentSize, FsyncPolicy fsyncPolicy, int compressionThreshold)
+            throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.compressionThreshold = compressionThreshold;
+        Files.createDirectories(directory);
+        final List<Long> existing = listSegments();
+        // From the oldest to the newest segment, so that the last result of a request id wins
+        for (final long s : existing) {
+            loadIndex(s);
+        }
+        openSegment(existing.isEmpty() ? 0 : existing.get(existing.size() - 1) + 1);
+        writer = new Thread(this::writeLoop, "ResultSink-Writer-" + directory.getFileName());
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private Path segmentPath(long s, String suffix) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, s, suffix));
+    }
+
+    /**
+     * @return The existing segments, the oldest first.
+     */
+    private List<Long> listSegments() throws IOException {
+        final List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + INDEX_SUFFIX)) {
+            for (final Path path : stream) {
+                final String name = path.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - INDEX_SUFFIX.length())));
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Adds the positions of the results in the passed segment to the index.
+     */
+    private void loadIndex(long s) throws IOException {
+        final Path dataPath = segmentPath(s, DATA_SUFFIX);
+        if (!Files.exists(dataPath)) {
+            return;
+        }
+        final Buffer entries = Buffer.buffer(Files.readAllBytes(segmentPath(s, INDEX_SUFFIX)));
+        final long dataSize = Files.size(dataPath);
+        int pos = 0;
+        while ((pos + 4) <= entries.length()) {
+            final int length = entries.getInt(pos);
+            if ((pos + 4 + length + 8) > entries.length()) {
+                // The last entry was not written completely
+                break;
+            }
+            final long position = entries.getLong(pos + 4 + length);
+            // The result of an index entry which was written before a crash may be missing
+            if (position < dataSize) {
+                index.put(entries.getString(pos + 4, pos + 4 + length, StandardCharsets.UTF_8.name()),
+                        new Location(s, position));
+            }
+            pos += 4 + length + 8;
+        }
+    }
+
+    private void openSegment(long s) throws IOException {
+        segment = s;
+        data = FileChannel.open(segmentPath(s, DATA_SUFFIX), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        indexData = FileChannel.open(segmentPath(s, INDEX_SUFFIX), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeSegment() throws IOException {
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            data.force(false);
+            indexData.force(false);
+        }
+        data.close();
+        indexData.close();
+    }
+
+    /**
+     * Queues the result for the writer thread, which also encodes it. The handler is called from the writer thread,
+     * after the result was written (and forced, if the {@link FsyncPolicy} is BATCH).
+     *
+     * @param result The result to append.
+     * @param handler Is called when the result was written.
+     */
+    public void append(CollectorJobResult result, Handler<AsyncResult<Void>> handler) {
+        synchronized (queue) {
+            if (!closed) {
+                queue.add(new Pending(result, handler));
+                return;
+            }
+        }
+        handler.handle(Future.failedFuture(new IllegalStateException("ResultSink is closed")));
+    }
+
+    private void encode(Pending p) {
+        final ResultCompression.Encoded encoded = ResultCompression.encode(p.result,
+                compressionThreshold < 0 ? Integer.MAX_VALUE : compressionThreshold, null);
+        p.header = ByteBuffer.allocate(5).putInt(1 + encoded.getBuffer().length())
+                .put(ResultCompression.ENCODING_DEFLATE.equals(encoded.getEncoding()) ? ENCODING_DEFLATE
+                        : ENCODING_IDENTITY);
+        p.header.flip();
+        p.payload = encoded.getBuffer().getByteBuf().nioBuffer();
+    }
+
+    private void writeLoop() {
+        final List<Pending> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch);
+            if (batch.remove(CLOSE)) {
+                running = false;
+            }
+            for (final Iterator<Pending> it = batch.iterator(); it.hasNext();) {
+                final Pending p = it.next();
+                try {
+                    encode(p);
+                } catch (final RuntimeException e) {
+                    it.remove();
+                    p.handler.handle(Future.failedFuture(e));
+                }
+            }
+            AsyncResult<Void> result;
+            try {
+                writeBatch(batch);
+                result = Future.succeededFuture();
+            } catch (final IOException | RuntimeException e) {
+                result = Future.failedFuture(e);
+            }
+            for (final Pending p : batch) {
+                p.handler.handle(result);
+            }
+            batch.clear();
+        }
+        // No result is queued after the close marker, so every appended result was written
+        try {
+            closeSegment();
+        } catch (final IOException e) {
+            // Nothing to report anymore
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (data.size() >= segmentSize) {
+            closeSegment();
+            openSegment(segment + 1);
+        }
+        final ByteBuffer[] records = new ByteBuffer[batch.size() * 2];
+        final Buffer entries = Buffer.buffer();
+        final List<Location> locations = new ArrayList<>(batch.size());
+        long position = data.size();
+        for (int i = 0; i < batch.size(); i++) {
+            final Pending p = batch.get(i);
+            records[i * 2] = p.header;
+            records[(i * 2) + 1] = p.payload;
+            if (Objects.nonNull(p.result.getRequestId())) {
+                final byte[] requestId = p.result.getRequestId().getBytes(StandardCharsets.UTF_8);
+                entries.appendInt(requestId.length).appendBytes(requestId).appendLong(position);
+            }
+            locations.add(new Location(segment, position));
+            position += p.header.remaining() + p.payload.remaining();
+        }
+        while (records[records.length - 1].hasRemaining()) {
+            data.write(records);
+        }
+        final ByteBuffer indexBuffer = entries.getByteBuf().nioBuffer();
+        while (indexBuffer.hasRemaining()) {
+            indexData.write(indexBuffer);
+        }
+        if (fsyncPolicy == FsyncPolicy.BATCH) {
+            data.force(false);
+            indexData.force(false);
+        }
+        synchronized (index) {
+            for (int i = 0; i < batch.size(); i++) {
+                if (Objects.nonNull(batch.get(i).result.getRequestId())) {
+                    index.put(batch.get(i).result.getRequestId(), locations.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The position of the last result of the passed request id, or null.
+     */
+    private Location locate(String requestId) {
+        synchronized (index) {
+            return index.get(requestId);
+        }
+    }
+
+    /**
+     * Reads the last result which was written for the passed request id. This method does blocking IO.
+     *
+     * @param requestId The request id of the result.
+     * @return The result, or null if no result was written for this request id.
+     * @throws IOException If the segment can't be read.
+     */
+    public CollectorJobResult read(String requestId) throws IOException {
+        final Location location = locate(requestId);
+        if (Objects.isNull(location)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(segmentPath(location.segment, DATA_SUFFIX),
+                StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(5);
+            readFully(channel, header, location.position);
+            final ByteBuffer payload = ByteBuffer.allocate(header.getInt(0) - 1);
+            readFully(channel, payload, location.position + 5);
+            return ResultCompression.decode(header.get(4) == ENCODING_DEFLATE ? ResultCompression.ENCODING_DEFLATE
+                    : ResultCompression.ENCODING_IDENTITY, Buffer.buffer(payload.array()));
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+    }
+
+    /**
+     * @param requestId The request id of a result.
+     * @return True if a result was written for this request id.
+     */
+    public boolean contains(String requestId) {
+        return Objects.nonNull(locate(requestId));
+    }
+
+    /**
+     * Writes all queued results and closes the current segment.
+     */
+    public void close() {
+        synchronized (queue) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(CLOSE);
+        }
+        try {
+            writer.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
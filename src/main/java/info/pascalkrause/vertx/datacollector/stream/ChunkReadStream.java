@@ -0,0 +1,143 @@
+package info.pascalkrause.vertx.datacollector.stream;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * A ReadStream which receives the chunks that are written into a {@link ChunkWriteStream}. Every chunk is acknowledged
+ * after it was passed to the handler. While the stream is paused, received chunks are queued and not acknowledged, so
+ * the writer stops sending as soon as its write queue is full. This keeps the memory of both sides bounded.
+ */
+public class ChunkReadStream implements ReadStream<Buffer> {
+
+    private final Vertx vertx;
+    private final String address;
+    private final MessageConsumer<Buffer> consumer;
+    private final Queue<Buffer> pending = new ArrayDeque<>();
+    private boolean paused;
+    private long delivered;
+    private long expected = -1;
+    private boolean ended;
+    private Handler<Buffer> handler;
+    private Handler<Void> endHandler;
+    private Handler<Throwable> exceptionHandler;
+
+    /**
+     * Creates a stream which listens on a new, random address.
+     *
+     * @param vertx The Vert.x instance
+     */
+    public ChunkReadStream(Vertx vertx) {
+        this(vertx, "datacollector.stream." + UUID.randomUUID().toString());
+    }
+
+    public ChunkReadStream(Vertx vertx, String address) {
+        this.vertx = vertx;
+        this.address = address;
+        consumer = vertx.eventBus().consumer(address, this::receive);
+    }
+
+    /**
+     * @return The address which must be passed to the {@link ChunkWriteStream}.
+     */
+    public String address() {
+        return address;
+    }
+
+    /**
+     * @param completionHandler A handler which is called when the stream is ready to receive chunks.
+     * @return A reference to this, so the API can be used fluently
+     */
+    public ChunkReadStream completionHandler(Handler<AsyncResult<Void>> completionHandler) {
+        consumer.completionHandler(completionHandler);
+        return this;
+    }
+
+    private void receive(Message<Buffer> msg) {
+        final String type = msg.headers().get(ChunkWriteStream.HEADER_TYPE);
+        if (ChunkWriteStream.TYPE_CHUNK.equals(type)) {
+            pending.add(msg.body());
+            deliver();
+        } else if (ChunkWriteStream.TYPE_END.equals(type)) {
+            expected = Long.parseLong(msg.headers().get(ChunkWriteStream.HEADER_COUNT));
+            deliver();
+        } else if (ChunkWriteStream.TYPE_ERROR.equals(type)) {
+            fail(new IllegalStateException(msg.body().toString()));
+        }
+    }
+
+    private void deliver() {
+        while (!paused && !ended && Objects.nonNull(handler) && !pending.isEmpty()) {
+            final Buffer chunk = pending.poll();
+            delivered++;
+            vertx.eventBus().send(address + ChunkWriteStream.ACK_SUFFIX, 1);
+            handler.handle(chunk);
+        }
+        if (!paused && !ended && (delivered == expected)) {
+            ended = true;
+            consumer.unregister();
+            if (Objects.nonNull(endHandler)) {
+                endHandler.handle(null);
+            }
+        }
+    }
+
+    /**
+     * Aborts the stream without waiting for further chunks.
+     *
+     * @param cause The cause which is passed to the exception handler.
+     */
+    public void fail(Throwable cause) {
+        if (ended) {
+            return;
+        }
+        ended = true;
+        pending.clear();
+        consumer.unregister();
+        if (Objects.nonNull(exceptionHandler)) {
+            exceptionHandler.handle(cause);
+        }
+    }
+
+    @Override
+    public ChunkReadStream exceptionHandler(Handler<Throwable> handler) {
+        exceptionHandler = handler;
+        return this;
+    }
+
+    @Override
+    public ChunkReadStream handler(Handler<Buffer> handler) {
+        this.handler = handler;
+        deliver();
+        return this;
+    }
+
+    @Override
+    public ChunkReadStream pause() {
+        paused = true;
+        return this;
+    }
+
+    @Override
+    public ChunkReadStream resume() {
+        paused = false;
+        deliver();
+        return this;
+    }
+
+    @Override
+    public ChunkReadStream endHandler(Handler<Void> endHandler) {
+        this.endHandler = endHandler;
+        return this;
+    }
+}
@@ -0,0 +1,250 @@
+package info.pascalkrause.vertx.datacollector.stream;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.streams.WriteStream;
+
+/**
+ * A WriteStream which sends every written Buffer as a chunk to a {@link ChunkReadStream} listening on the stream
+ * address. The reader acknowledges every chunk it has delivered, and the stream counts the chunks which are not
+ * acknowledged yet. If this number reaches the write queue max size, {@link #writeQueueFull()} returns true and
+ * writes from a worker thread or a non Vert.x thread block until the reader has caught up, or fail if the reader does
+ * not acknowledge a chunk within the ack timeout. Writes from an event loop never block.
+ */
+public class ChunkWriteStream implements WriteStream<Buffer> {
+
+    public static final int DEFAULT_WRITE_QUEUE_MAX_SIZE = 16;
+    public static final long DEFAULT_ACK_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+    static final String HEADER_TYPE = "type";
+    static final String HEADER_COUNT = "count";
+    static final String TYPE_CHUNK = "chunk";
+    static final String TYPE_END = "end";
+    static final String TYPE_ERROR = "error";
+    static final String ACK_SUFFIX = ".ack";
+
+    private final Vertx vertx;
+    private final String address;
+    private MessageConsumer<Integer> ackConsumer;
+    private int maxSize = DEFAULT_WRITE_QUEUE_MAX_SIZE;
+    private long ackTimeout = DEFAULT_ACK_TIMEOUT;
+    private int inFlight;
+    private long written;
+    private boolean closed;
+    private Handler<Void> drainHandler;
+    private Handler<Throwable> exceptionHandler;
+
+    public ChunkWriteStream(Vertx vertx, String address) {
+        this.vertx = vertx;
+        this.address = address;
+    }
+
+    /**
+     * Registers the consumer for the acknowledgements of the reader. No chunk should be written before the passed
+     * handler was called.
+     *
+     * @param readyHandler A handler which is called when the stream is ready to be written.
+     * @return A reference to this, so the API can be used fluently
+     */
+    public ChunkWriteStream open(Handler<AsyncResult<Void>> readyHandler) {
+        ackConsumer = vertx.eventBus().<Integer>consumer(address + ACK_SUFFIX, msg -> acknowledge(msg.body()));
+        ackConsumer.completionHandler(readyHandler);
+        return this;
+    }
+
+    private void acknowledge(int count) {
+        final Handler<Void> handler;
+        synchronized (this) {
+            inFlight -= count;
+            notifyAll();
+            handler = (inFlight <= (maxSize / 2)) ? drainHandler : null;
+            if (Objects.nonNull(handler)) {
+                drainHandler = null;
+            }
+        }
+        if (Objects.nonNull(handler)) {
+            handler.handle(null);
+        }
+    }
+
+    private static boolean canBlock() {
+        return !Context.isOnEventLoopThread();
+    }
+
+    private void awaitWritable() {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeout);
+        while ((inFlight >= maxSize) && !closed) {
+            final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                throw new IllegalStateException("Reader did not acknowledge chunks within " + ackTimeout + "ms");
+            }
+            try {
+                wait(remaining);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the reader", e);
+            }
+        }
+    }
+
+    @Override
+    public ChunkWriteStream write(Buffer chunk) {
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Stream is closed");
+            }
+            if (canBlock()) {
+                awaitWritable();
+                if (closed) {
+                    throw new IllegalStateException("Stream is closed");
+                }
+            }
+            inFlight++;
+            written++;
+        }
+        vertx.eventBus().send(address, chunk, new DeliveryOptions().addHeader(HEADER_TYPE, TYPE_CHUNK));
+        return this;
+    }
+
+    /**
+     * Writes the passed data in chunks and ends the stream. Chunks are only written while the write queue is not full,
+     * the remaining chunks are written when the reader has caught up, so that the reader holds at most the write queue
+     * max size of chunks. If the reader does not acknowledge a chunk within the ack timeout, the stream fails.
+     *
+     * @param data The data to write.
+     * @param chunkSize The maximum size of a chunk.
+     * @param endHandler A handler which is called when the stream was ended or failed.
+     */
+    public void writeAll(Buffer data, int chunkSize, Handler<AsyncResult<Void>> endHandler) {
+        writeFrom(data, 0, chunkSize, endHandler);
+    }
+
+    private void writeFrom(Buffer data, int start, int chunkSize, Handler<AsyncResult<Void>> endHandler) {
+        int pos = start;
+        while (pos < data.length()) {
+            if (isClosed()) {
+                endHandler.handle(Future.failedFuture("Stream is closed"));
+                return;
+            }
+            if (writeQueueFull()) {
+                final int next = pos;
+                final long timerId = vertx.setTimer(Math.max(1, ackTimeout), id -> {
+                    drainHandler(null);
+                    final Throwable cause = new IllegalStateException(
+                            "Reader did not acknowledge chunks within " + ackTimeout + "ms");
+                    fail(cause);
+                    endHandler.handle(Future.failedFuture(cause));
+                });
+                final Handler<Void> resume = v -> {
+                    if (vertx.cancelTimer(timerId)) {
+                        writeFrom(data, next, chunkSize, endHandler);
+                    }
+                };
+                synchronized (this) {
+                    // The reader may have caught up since the check
+                    if (inFlight > (maxSize / 2)) {
+                        drainHandler = resume;
+                        return;
+                    }
+                }
+                resume.handle(null);
+                return;
+            }
+            write(data.getBuffer(pos, Math.min(pos + chunkSize, data.length())));
+            pos += chunkSize;
+        }
+        end();
+        endHandler.handle(Future.succeededFuture());
+    }
+
+    /**
+     * Ends the stream. The reader will end its stream after all written chunks were delivered.
+     */
+    @Override
+    public void end() {
+        final long count;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            count = written;
+            notifyAll();
+        }
+        vertx.eventBus().send(address, Buffer.buffer(),
+                new DeliveryOptions().addHeader(HEADER_TYPE, TYPE_END).addHeader(HEADER_COUNT, Long.toString(count)));
+        unregister();
+    }
+
+    /**
+     * Aborts the stream and passes the cause to the exception handler of the reader.
+     *
+     * @param cause The reason why the stream was aborted.
+     */
+    public void fail(Throwable cause) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        vertx.eventBus().send(address, Buffer.buffer(String.valueOf(cause.getMessage())),
+                new DeliveryOptions().addHeader(HEADER_TYPE, TYPE_ERROR));
+        unregister();
+        if (Objects.nonNull(exceptionHandler)) {
+            exceptionHandler.handle(cause);
+        }
+    }
+
+    private void unregister() {
+        if (Objects.nonNull(ackConsumer)) {
+            ackConsumer.unregister();
+        }
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @param ackTimeout The time in milliseconds a blocking write waits for the reader.
+     * @return A reference to this, so the API can be used fluently
+     */
+    public synchronized ChunkWriteStream setAckTimeout(long ackTimeout) {
+        this.ackTimeout = ackTimeout;
+        return this;
+    }
+
+    @Override
+    public synchronized ChunkWriteStream setWriteQueueMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    @Override
+    public synchronized boolean writeQueueFull() {
+        return inFlight >= maxSize;
+    }
+
+    @Override
+    public synchronized ChunkWriteStream drainHandler(Handler<Void> handler) {
+        drainHandler = handler;
+        return this;
+    }
+
+    @Override
+    public ChunkWriteStream exceptionHandler(Handler<Throwable> handler) {
+        exceptionHandler = handler;
+        return this;
+    }
+}
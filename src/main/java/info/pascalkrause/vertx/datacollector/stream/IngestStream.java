@@ -0,0 +1,241 @@
+package info.pascalkrause.vertx.datacollector.stream;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorService;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * A ReadStream of the results of a ReadStream of features. Every feature is collected with
+ * {@link DataCollectorService#collectAndReceive(String, JsonObject, Handler)}, the results are emitted in the order in
+ * which they complete. The number of requests in flight is limited by a window, the source is paused while the window
+ * is full. A request counts as in flight until its result was passed to the handler, so a paused result stream pauses
+ * the source as well.
+ * <p>
+ * Requests which are rejected with {@link DataCollectorService#ERROR_QUEUE_LIMIT_REACHED} are retried when another
+ * request completes, and the window shrinks to the number of requests in flight. Every successful result grows it
+ * again by one, up to the maximum. This keeps the queue of the service full, even if it is shared with other callers.
+ * <p>
+ * Other failures don't stop the stream, they are emitted as a result with an error whose name is the message of the
+ * cause. An exception of the source is passed to the exception handler, the stream ends when the requests in flight
+ * are completed. Must be used on a single Vert.x context.
+ */
+public class IngestStream implements ReadStream<CollectorJobResult> {
+
+    /**
+     * The time in milliseconds after which a rejected request is retried, if no request is in flight whose completion
+     * would trigger the retry.
+     */
+    public static final long RETRY_DELAY = 10;
+
+    private static class Request {
+        private final String requestId;
+        private final JsonObject feature;
+
+        private Request(String requestId, JsonObject feature) {
+            this.requestId = requestId;
+            this.feature = feature;
+        }
+    }
+
+    private final Vertx vertx;
+    private final Context context;
+    private final DataCollectorService service;
+    private final ReadStream<JsonObject> source;
+    private final int maxInFlight;
+    private final Deque<Request> backlog = new ArrayDeque<>();
+    private final Deque<CollectorJobResult> results = new ArrayDeque<>();
+    private int window;
+    private int inFlight;
+    private boolean sourcePaused;
+    private boolean sourceEnded;
+    private boolean retryScheduled;
+    private boolean paused;
+    private boolean ended;
+    private Handler<CollectorJobResult> handler;
+    private Handler<Void> endHandler;
+    private Handler<Throwable> exceptionHandler;
+
+    /**
+     * The source is paused until a handler is set.
+     *
+     * @param vertx The Vert.x instance
+     * @param service The service which collects the features
+     * @param source The features
+     * @param requestIds Returns the request id of a feature
+     * @param maxInFlight The maximum number of requests in flight, e.g. the queue size of the service
+     */
+    public IngestStream(Vertx vertx, DataCollectorService service, ReadStream<JsonObject> source,
+            Function<JsonObject, String> requestIds, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.vertx = vertx;
+        this.service = service;
+        this.source = source;
+        this.maxInFlight = maxInFlight;
+        window = maxInFlight;
+        context = vertx.getOrCreateContext();
+        source.pause();
+        sourcePaused = true;
+        source.handler(feature -> {
+            backlog.add(new Request(requestIds.apply(feature), feature));
+            flow();
+        });
+        source.endHandler(v -> {
+            sourceEnded = true;
+            flow();
+        });
+        source.exceptionHandler(t -> {
+            sourceEnded = true;
+            if (Objects.nonNull(exceptionHandler)) {
+                exceptionHandler.handle(t);
+            }
+            flow();
+        });
+    }
+
+    /**
+     * @param key The key in the feature whose value is the request id, or null
+     * @return A function which returns the value of the key, or a random UUID if the feature doesn't contain the key.
+     */
+    public static Function<JsonObject, String> requestIdFromKey(String key) {
+        return feature -> {
+            final Object requestId = Objects.isNull(key) ? null : feature.getValue(key);
+            return Objects.isNull(requestId) ? UUID.randomUUID().toString() : requestId.toString();
+        };
+    }
+
+    /**
+     * @return The current number of requests in flight, including the results which were not emitted yet.
+     */
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return The current maximum number of requests in flight.
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    private void send(Request request) {
+        inFlight++;
+        service.collectAndReceive(request.requestId, request.feature, res -> {
+            if (Vertx.currentContext() == context) {
+                onResult(request, res);
+            } else {
+                context.runOnContext(v -> onResult(request, res));
+            }
+        });
+    }
+
+    private void onResult(Request request, AsyncResult<CollectorJobResult> res) {
+        if (res.failed() && DataCollectorService.ERROR_QUEUE_LIMIT_REACHED.equals(res.cause().getMessage())) {
+            inFlight--;
+            window = Math.max(1, inFlight);
+            backlog.addFirst(request);
+            if (inFlight == 0) {
+                scheduleRetry();
+            }
+            flow();
+            return;
+        }
+        if (res.succeeded()) {
+            window = Math.min(maxInFlight, window + 1);
+            results.add(res.result());
+        } else {
+            final String name = Objects.isNull(res.cause().getMessage()) ? res.cause().getClass().getName()
+                    : res.cause().getMessage();
+            results.add(new CollectorJobResult(request.requestId, null, null, null, null,
+                    new CollectorJobResult.Error(name)));
+        }
+        flow();
+    }
+
+    private void scheduleRetry() {
+        if (!retryScheduled) {
+            retryScheduled = true;
+            vertx.setTimer(RETRY_DELAY, id -> {
+                retryScheduled = false;
+                flow();
+            });
+        }
+    }
+
+    /**
+     * Emits the completed results, sends the backlog while the window allows it and pauses or resumes the source.
+     */
+    private void flow() {
+        while (!paused && !ended && Objects.nonNull(handler) && !results.isEmpty()) {
+            inFlight--;
+            handler.handle(results.poll());
+        }
+        if (ended || Objects.isNull(handler)) {
+            return;
+        }
+        while (!retryScheduled && !backlog.isEmpty() && (inFlight < window)) {
+            send(backlog.poll());
+        }
+        // A request which completed synchronously ran a nested flow, which may have ended the stream already
+        if (ended) {
+            return;
+        }
+        final boolean full = !backlog.isEmpty() || (inFlight >= window);
+        if (!sourceEnded && full && !sourcePaused) {
+            sourcePaused = true;
+            source.pause();
+        } else if (!sourceEnded && !full && sourcePaused) {
+            sourcePaused = false;
+            source.resume();
+        } else if (sourceEnded && backlog.isEmpty() && (inFlight == 0)) {
+            ended = true;
+            if (Objects.nonNull(endHandler)) {
+                endHandler.handle(null);
+            }
+        }
+    }
+
+    @Override
+    public IngestStream exceptionHandler(Handler<Throwable> handler) {
+        exceptionHandler = handler;
+        return this;
+    }
+
+    @Override
+    public IngestStream handler(Handler<CollectorJobResult> handler) {
+        this.handler = handler;
+        flow();
+        return this;
+    }
+
+    @Override
+    public IngestStream pause() {
+        paused = true;
+        return this;
+    }
+
+    @Override
+    public IngestStream resume() {
+        paused = false;
+        flow();
+        return this;
+    }
+
+    @Override
+    public IngestStream endHandler(Handler<Void> endHandler) {
+        this.endHandler = endHandler;
+        return this;
+    }
+}
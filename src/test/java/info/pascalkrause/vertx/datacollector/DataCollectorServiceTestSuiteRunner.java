@@ -4,6 +4,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
@@ -12,9 +13,13 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import info.pascalkrause.vertx.datacollector.client.DataCollectorServiceClient;
+import info.pascalkrause.vertx.datacollector.client.DataCollectorServiceFactory;
+import info.pascalkrause.vertx.datacollector.client.error.JobNotFound;
 import info.pascalkrause.vertx.datacollector.client.error.QueueLimitReached;
+import info.pascalkrause.vertx.datacollector.client.error.Timeout;
 import info.pascalkrause.vertx.datacollector.job.CollectorJob;
 import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorService;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
@@ -35,12 +40,27 @@ public class DataCollectorServiceTestSuiteRunner {
 
     @Test
     public void testDataCollectorService(TestContext testContext) {
+        runTestSuite(testContext, "DataCollectorService", DataCollectorServiceFactory::create);
+    }
+
+    @Test
+    public void testDataCollectorServiceBinary(TestContext testContext) {
+        runTestSuite(testContext, "DataCollectorServiceBinary", DataCollectorServiceFactory::createBinary);
+    }
+
+    @Test
+    public void testDataCollectorServiceLocal(TestContext testContext) {
+        runTestSuite(testContext, "DataCollectorServiceLocal", DataCollectorServiceFactory::createLocal);
+    }
+
+    private void runTestSuite(TestContext testContext, String name,
+            BiFunction<DataCollectorServiceFactory, DeliveryOptions, DataCollectorService> proxyCreator) {
         final Async testContextComplete = testContext.async();
         final DataCollectorServiceVerticle verticle = new DataCollectorServiceVerticle(serviceAddress, job,
                 workerPoolSize, workerPoolSize, false);
         final DeliveryOptions delOpts = new DeliveryOptions()
                 .setSendTimeout(TimeUnit.SECONDS.toMillis(TestUtils.DEBUG_MODE ? 999999 : 1));
-        final DataCollectorTestSuite testSute = new DataCollectorTestSuite("DataCollectorService", verticle, delOpts);
+        final DataCollectorTestSuite testSute = new DataCollectorTestSuite(name, verticle, delOpts, proxyCreator);
 
         testSute.addTest("collectAndReceive", getCollectAndReceiveTest());
         testSute.addTest("collectAndReceiveWithError", getCollectAndReceiveWithErrorTest());
@@ -48,6 +68,9 @@ public class DataCollectorServiceTestSuiteRunner {
         testSute.addTest("responseQueueFull", getResponseQueueFullTest());
         testSute.addTest("queueAcceptsJobsAgainAfterFull", getQueueAcceptsJobsAgainAfterFullTest());
         testSute.addTest("getMetricsSnapshot", getMetricsSnapshotTest());
+        testSute.addTest("submitAndFetch", getSubmitAndFetchTest());
+        testSute.addTest("submitAndFetchTimeout", getSubmitAndFetchTimeoutTest());
+        testSute.addTest("fetchUnknownJob", getFetchUnknownJobTest());
 
         final TestCompletion tc = testSute.get().run(Vertx.vertx(), TestUtils.getTestOptions());
         if (TestUtils.DEBUG_MODE) {
@@ -169,4 +192,50 @@ public class DataCollectorServiceTestSuiteRunner {
             };
         };
     }
+
+    private Function<Supplier<DataCollectorServiceClient>, Handler<TestContext>> getSubmitAndFetchTest() {
+        return dcs -> {
+            final String requestId = UUID.randomUUID().toString();
+            final CollectorJobResult expectedResult = new CollectorJobResult(requestId, "test-src", "test-quality",
+                    "test-created", new JsonObject(), null);
+            return c -> {
+                final Async testComplete = c.async();
+                dcs.get().submitAndFetch(requestId, feature, res -> {
+                    TestUtils.runTruthTests(c, v -> {
+                        assertThat(res.succeeded()).isTrue();
+                        assertThat(res.result()).isEqualTo(expectedResult);
+                    });
+                    testComplete.complete();
+                });
+            };
+        };
+    }
+
+    private Function<Supplier<DataCollectorServiceClient>, Handler<TestContext>> getSubmitAndFetchTimeoutTest() {
+        return dcs -> {
+            return c -> {
+                final Async testComplete = c.async();
+                dcs.get().submitAndFetch(UUID.randomUUID().toString(), feature.copy().put(TestJob.KEY_SLEEP, 300), 50,
+                        res -> {
+                            TestUtils.runTruthTests(c, v -> assertThat(res.cause()).isInstanceOf(Timeout.class));
+                            testComplete.complete();
+                        });
+            };
+        };
+    }
+
+    private Function<Supplier<DataCollectorServiceClient>, Handler<TestContext>> getFetchUnknownJobTest() {
+        return dcs -> {
+            return c -> {
+                final Async testComplete = c.async();
+                dcs.get().fetch("unknown", res -> {
+                    TestUtils.runTruthTests(c, v -> assertThat(res.cause()).isInstanceOf(JobNotFound.class));
+                    dcs.get().status("unknown", res2 -> {
+                        TestUtils.runTruthTests(c, v -> assertThat(res2.cause()).isInstanceOf(JobNotFound.class));
+                        testComplete.complete();
+                    });
+                });
+            };
+        };
+    }
 }
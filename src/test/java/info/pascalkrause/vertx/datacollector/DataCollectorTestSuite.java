@@ -1,10 +1,12 @@
 package info.pascalkrause.vertx.datacollector;
 
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 import info.pascalkrause.vertx.datacollector.client.DataCollectorServiceClient;
 import info.pascalkrause.vertx.datacollector.client.DataCollectorServiceFactory;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorService;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
@@ -19,12 +21,19 @@ public class DataCollectorTestSuite {
     private final DataCollectorServiceVerticle verticle;
     private DataCollectorServiceClient dcsc;
     private final DeliveryOptions deliveryOptions;
+    private final BiFunction<DataCollectorServiceFactory, DeliveryOptions, DataCollectorService> proxyCreator;
 
     public DataCollectorTestSuite(String name, DataCollectorServiceVerticle verticle, DeliveryOptions deliveryOptions) {
+        this(name, verticle, deliveryOptions, DataCollectorServiceFactory::create);
+    }
+
+    public DataCollectorTestSuite(String name, DataCollectorServiceVerticle verticle, DeliveryOptions deliveryOptions,
+            BiFunction<DataCollectorServiceFactory, DeliveryOptions, DataCollectorService> proxyCreator) {
         suite = TestSuite.create(name);
         vertx = Vertx.vertx();
         this.verticle = verticle;
         this.deliveryOptions = deliveryOptions;
+        this.proxyCreator = proxyCreator;
         before();
         after();
     }
@@ -33,8 +42,8 @@ public class DataCollectorTestSuite {
         suite.before(c -> {
             final Async complete = c.async();
             vertx.deployVerticle(verticle, deployResult -> {
-                dcsc = new DataCollectorServiceClient(
-                        new DataCollectorServiceFactory(vertx, verticle.getServiceAddress()).create(deliveryOptions));
+                dcsc = new DataCollectorServiceClient(vertx, proxyCreator
+                        .apply(new DataCollectorServiceFactory(vertx, verticle.getServiceAddress()), deliveryOptions));
                 complete.complete();
             });
         });
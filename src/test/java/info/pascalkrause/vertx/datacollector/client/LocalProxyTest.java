@@ -0,0 +1,77 @@
+package info.pascalkrause.vertx.datacollector.client;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.DataCollectorServiceVerticle;
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorService;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class LocalProxyTest {
+
+    private static final String ADDRESS = "local";
+
+    private Vertx vertx;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    private String deploy(TestContext c) {
+        final Async deployed = c.async();
+        final String[] deploymentId = new String[1];
+        vertx.deployVerticle(new DataCollectorServiceVerticle(ADDRESS, new TestJob(), 1, 1, false),
+                c.asyncAssertSuccess(id -> {
+                    deploymentId[0] = id;
+                    deployed.complete();
+                }));
+        deployed.await();
+        return deploymentId[0];
+    }
+
+    @Test
+    public void testProxyFollowsRedeployedService(TestContext c) {
+        final String deploymentId = deploy(c);
+        final DataCollectorService dcs = new DataCollectorServiceFactory(vertx, ADDRESS)
+                .createLocal(new DeliveryOptions().setSendTimeout(1000));
+        final Async first = c.async();
+        dcs.collectAndReceive("first", TestJob.FEATURE_SUCCEEDED, c.asyncAssertSuccess(res -> first.complete()));
+        first.await();
+        final Async undeployed = c.async();
+        vertx.undeploy(deploymentId, c.asyncAssertSuccess(v -> undeployed.complete()));
+        undeployed.await();
+        // Without a local service the call is sent over the event bus, where nobody listens
+        final Async missing = c.async();
+        dcs.collectAndReceive("missing", TestJob.FEATURE_SUCCEEDED, c.asyncAssertFailure(t -> {
+            TestUtils.runTruthTests(c, x -> {
+                assertThat(t).isInstanceOf(ReplyException.class);
+                assertThat(((ReplyException) t).failureType()).isEqualTo(ReplyFailure.NO_HANDLERS);
+            });
+            missing.complete();
+        }));
+        missing.await();
+        deploy(c);
+        dcs.collectAndReceive("second", TestJob.FEATURE_SUCCEEDED, c.asyncAssertSuccess(res -> {
+            TestUtils.runTruthTests(c, x -> assertThat(res.getRequestId()).isEqualTo("second"));
+        }));
+    }
+}
@@ -0,0 +1,126 @@
+package info.pascalkrause.vertx.datacollector.codec;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobRequest;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+public class CodecTest {
+
+    private final JsonObject complexJson = new JsonObject().put("string", "v\u00e4lue").put("int", 42)
+            .put("long", Long.MAX_VALUE).put("double", 4.2d).put("float", 2.4f).put("true", true).put("false", false)
+            .putNull("null").put("object", new JsonObject().put("nested", "value"))
+            .put("array", new JsonArray().add(1).add("two").add(new JsonObject()).addNull());
+
+    @Test
+    public void testCollectorJobResultCodec() {
+        final CollectorJobResultCodec codec = new CollectorJobResultCodec();
+        final CollectorJobResult result = new CollectorJobResult("requestId", "source", "quality", "created",
+                complexJson, new CollectorJobResult.Error("myError"));
+
+        final Buffer buffer = Buffer.buffer().appendString("prefix");
+        codec.encodeToWire(buffer, result);
+        final CollectorJobResult decoded = codec.decodeFromWire(6, buffer);
+
+        assertThat(decoded).isEqualTo(result);
+        assertThat(decoded.getResult()).isEqualTo(complexJson);
+        assertThat(decoded.getError().get().getName()).isEqualTo("myError");
+        final CollectorJobResult transformed = codec.transform(result);
+        assertThat(transformed).isEqualTo(result);
+        // Local receivers must not share the result tree of the sender
+        transformed.getResult().put("added", true);
+        assertThat(result.getResult().containsKey("added")).isFalse();
+    }
+
+    @Test
+    public void testBinaryJsonKeepsInstantsAndBigNumbers() {
+        final Instant instant = Instant.parse("2018-03-01T12:30:15.123Z");
+        final BigDecimal decimal = new BigDecimal("12345678901234567890.12345678901234567890");
+        final BigInteger integer = new BigInteger("123456789012345678901234567890");
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("instant", instant);
+        map.put("decimal", decimal);
+        map.put("integer", integer);
+
+        final Buffer buffer = Buffer.buffer();
+        BinaryJson.writeJsonObject(buffer, new JsonObject(map));
+        final JsonObject decoded = new BinaryJson.Reader(buffer, 0).readJsonObject();
+
+        // Like the textual encoding, an Instant is written as ISO-8601 string
+        assertThat(decoded.getString("instant")).isEqualTo("2018-03-01T12:30:15.123Z");
+        assertThat(decoded.getInstant("instant")).isEqualTo(instant);
+        assertThat(decoded.getValue("decimal")).isEqualTo(decimal);
+        assertThat(decoded.getValue("integer")).isEqualTo(integer);
+    }
+
+    @Test
+    public void testCollectorJobRequestCodec() {
+        final CollectorJobRequestCodec codec = new CollectorJobRequestCodec();
+        final CollectorJobRequest request = new CollectorJobRequest("requestId", complexJson);
+
+        final Buffer buffer = Buffer.buffer();
+        codec.encodeToWire(buffer, request);
+        final CollectorJobRequest decoded = codec.decodeFromWire(0, buffer);
+
+        assertThat(decoded.getRequestId()).isEqualTo("requestId");
+        assertThat(decoded.getFeature()).isEqualTo(complexJson);
+        assertThat(codec.transform(request)).isSameAs(request);
+    }
+
+    @Test
+    public void testBinaryIsSmallerThanJson() {
+        final CollectorJobResult result = new CollectorJobResult("requestId", "source", "quality", "created",
+                complexJson, null);
+        final Buffer binary = Buffer.buffer();
+        new CollectorJobResultCodec().encodeToWire(binary, result);
+
+        assertThat(binary.length()).isLessThan(result.toJson().toBuffer().length());
+    }
+
+    @Test
+    public void testResultCompression() {
+        final JsonArray items = new JsonArray();
+        for (int i = 0; i < 1000; i++) {
+            items.add(complexJson);
+        }
+        final CollectorJobResult result = new CollectorJobResult("requestId", "source", "quality", "created",
+                new JsonObject().put("items", items), null);
+        final AtomicInteger compressions = new AtomicInteger();
+        final ResultCompression.Listener listener = (uncompressed, compressed, nanos) -> {
+            assertThat(compressed).isLessThan(uncompressed);
+            compressions.incrementAndGet();
+        };
+
+        final ResultCompression.Encoded deflated = ResultCompression.encode(result, 1024, listener);
+        assertThat(deflated.getEncoding()).isEqualTo(ResultCompression.ENCODING_DEFLATE);
+        assertThat(ResultCompression.decode(deflated.getEncoding(), deflated.getBuffer())).isEqualTo(result);
+        assertThat(compressions.get()).isEqualTo(1);
+
+        final ResultCompression.Encoded identity = ResultCompression.encode(result, Integer.MAX_VALUE, listener);
+        assertThat(identity.getEncoding()).isEqualTo(ResultCompression.ENCODING_IDENTITY);
+        assertThat(ResultCompression.decode(identity.getEncoding(), identity.getBuffer())).isEqualTo(result);
+        assertThat(compressions.get()).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCorruptInflatedLength() {
+        final CollectorJobResult result = new CollectorJobResult("requestId", "source", "quality", "created",
+                complexJson, null);
+        final ResultCompression.Encoded deflated = ResultCompression.encode(result, 0, null);
+        // The length is read from the wire and must not be allocated blindly
+        ResultCompression.decode(ResultCompression.ENCODING_DEFLATE,
+                deflated.getBuffer().copy().setInt(0, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,42 @@
+package info.pascalkrause.vertx.datacollector.job;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+import io.vertx.core.json.JsonObject;
+
+public class CollectorJobResultTest {
+
+    private final JsonObject result = new JsonObject().put("key", "value");
+
+    @Test
+    public void testEqualsAndHashCode() {
+        final CollectorJobResult a = new CollectorJobResult("id", "src", "quality", "created", result, null);
+        final CollectorJobResult b = new CollectorJobResult(a.toJson().copy());
+
+        assertThat(b).isEqualTo(a);
+        assertThat(b.hashCode()).isEqualTo(a.hashCode());
+        assertThat(new CollectorJobResult("id", "src", "quality", "created", new JsonObject(), null)).isNotEqualTo(a);
+        assertThat(new CollectorJobResult("id", "src", "quality", "created", result,
+                new CollectorJobResult.Error("myError"))).isNotEqualTo(a);
+    }
+
+    @Test
+    public void testJsonConstructorWrapsWithoutCopy() {
+        final JsonObject json = new CollectorJobResult("id", "src", "quality", "created", result, null).toJson();
+        assertThat(new CollectorJobResult(json).toJson()).isSameAs(json);
+    }
+
+    @Test
+    public void testErrorIsParsedOnce() {
+        final JsonObject error = new JsonObject().put("_name", "myError").put("detail", "some detail");
+        final CollectorJobResult r = new CollectorJobResult(
+                new JsonObject().put("requestId", "id").put("result", result).put("error", error));
+
+        assertThat(r.getError().get().getName()).isEqualTo("myError");
+        assertThat(r.getError().get().getString("detail")).isEqualTo("some detail");
+        assertThat(r.getError().get()).isSameAs(r.getError().get());
+        assertThat(new CollectorJobResult("id", null, null, null, result, null).getError().isPresent()).isFalse();
+    }
+}
@@ -0,0 +1,114 @@
+package info.pascalkrause.vertx.datacollector.journal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.vertx.core.json.JsonObject;
+
+public class JobJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static long append(JobJournal journal, String requestId, JsonObject feature) throws Exception {
+        final CompletableFuture<Long> committed = new CompletableFuture<>();
+        journal.append(requestId, feature, res -> {
+            if (res.succeeded()) {
+                committed.complete(res.result());
+            } else {
+                committed.completeExceptionally(res.cause());
+            }
+        });
+        return committed.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testRecoverUnacknowledged() throws Exception {
+        final Path dir = folder.getRoot().toPath();
+        final JobJournal journal = new JobJournal(dir, 1024, 1);
+        assertThat(journal.recover()).isEmpty();
+        final long first = append(journal, "first", new JsonObject().put("key", "value"));
+        append(journal, "second", new JsonObject().put("number", 2));
+        journal.acknowledge(first);
+        journal.close();
+
+        final JobJournal reopened = new JobJournal(dir, 1024, 1);
+        final List<JournalEntry> entries = reopened.recover();
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).getRequestId()).isEqualTo("second");
+        assertThat(entries.get(0).getFeature()).isEqualTo(new JsonObject().put("number", 2));
+        assertThat(reopened.size()).isEqualTo(1);
+
+        reopened.acknowledge(entries.get(0).getSequence());
+        reopened.close();
+        final JobJournal empty = new JobJournal(dir, 1024, 1);
+        assertThat(empty.recover()).isEmpty();
+        empty.close();
+    }
+
+    @Test
+    public void testSegmentsAreCompacted() throws Exception {
+        final File dir = folder.getRoot();
+        final JobJournal journal = new JobJournal(dir.toPath(), 128, 0);
+        journal.recover();
+        final JsonObject feature = new JsonObject().put("payload", "0123456789012345678901234567890123456789");
+        final long[] sequences = new long[10];
+        for (int i = 0; i < sequences.length; i++) {
+            sequences[i] = append(journal, "id" + i, feature);
+        }
+        assertThat(dir.list().length).isGreaterThan(1);
+
+        for (final long sequence : sequences) {
+            journal.acknowledge(sequence);
+        }
+        assertThat(dir.list()).hasLength(1);
+        journal.close();
+    }
+
+    @Test
+    public void testFailedCommitIsNotReplayed() throws Exception {
+        final Path dir = folder.getRoot().toPath();
+        final AtomicBoolean failing = new AtomicBoolean();
+        final JobJournal journal = new JobJournal(dir, 1024, 1) {
+            @Override
+            void force(MappedByteBuffer buffer) {
+                if (failing.get()) {
+                    throw new IllegalStateException("Disk failure");
+                }
+                super.force(buffer);
+            }
+        };
+        journal.recover();
+        failing.set(true);
+        try {
+            append(journal, "failed", new JsonObject());
+            fail("The commit must fail");
+        } catch (final ExecutionException e) {
+            assertThat(e.getCause()).hasMessageThat().isEqualTo("Disk failure");
+        }
+        assertThat(journal.size()).isEqualTo(0);
+        failing.set(false);
+        append(journal, "committed", new JsonObject());
+        journal.close();
+
+        // The appender of the failed request was told that it failed, so it must not run again
+        final JobJournal reopened = new JobJournal(dir, 1024, 1);
+        final List<JournalEntry> entries = reopened.recover();
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).getRequestId()).isEqualTo("committed");
+        reopened.close();
+    }
+}
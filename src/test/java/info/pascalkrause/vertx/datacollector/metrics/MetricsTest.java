@@ -42,7 +42,8 @@ public class MetricsTest {
 
         final JsonObject total = new JsonObject();
         total.put("jobs", new JsonObject().put("count", METRIC_TOTAL_JOBS_COUNT).put("failed", METRIC_TOTAL_JOBS_FAILED)
-                .put("succeeded", METRIC_TOTAL_JOBS_SUCCEEDED).put("exception", METRIC_TOTAL_JOBS_EXCEPTION));
+                .put("succeeded", METRIC_TOTAL_JOBS_SUCCEEDED).put("exception", METRIC_TOTAL_JOBS_EXCEPTION)
+                .put("cancelled", 0).put("expired", 0));
         total.put("quality", quality);
         total.put("errors", errors);
 
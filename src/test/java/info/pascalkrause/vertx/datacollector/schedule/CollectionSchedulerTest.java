@@ -0,0 +1,82 @@
+package info.pascalkrause.vertx.datacollector.schedule;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorServiceImpl;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorServiceOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class CollectionSchedulerTest {
+
+    private static class CountingJob extends TestJob {
+        private final Map<String, AtomicInteger> runs = new ConcurrentHashMap<>();
+
+        @Override
+        public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature) {
+            runs.computeIfAbsent(requestId, id -> new AtomicInteger()).incrementAndGet();
+            return super.collect(requestId, feature);
+        }
+
+        private int runs(String requestId) {
+            return runs.getOrDefault(requestId, new AtomicInteger()).get();
+        }
+    }
+
+    private Vertx vertx;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testRecurringCollections(TestContext c) {
+        final CountingJob job = new CountingJob();
+        // A queue of 1 forces most runs to be retried
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, job,
+                new DataCollectorServiceOptions().setQueueSize(1), "scheduler");
+        final CollectionScheduler scheduler = new CollectionScheduler(vertx, dcs, 5, 16);
+        for (int i = 0; i < 20; i++) {
+            scheduler.schedule("id" + i, new JsonObject().put(TestJob.KEY_SLEEP, 1), 50, 10);
+        }
+        final CollectionScheduler.ScheduledCollection cancelled = scheduler.schedule("cancelled",
+                TestJob.FEATURE_SUCCEEDED, 50, 0);
+        cancelled.cancel();
+
+        final Async async = c.async();
+        vertx.setTimer(1000, id -> {
+            scheduler.stop();
+            TestUtils.runTruthTests(c, v -> {
+                for (int i = 0; i < 20; i++) {
+                    assertThat(job.runs("id" + i)).isAtLeast(2);
+                }
+                assertThat(job.runs("cancelled")).isEqualTo(0);
+            });
+            async.complete();
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package info.pascalkrause.vertx.datacollector.schedule;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimingWheelTest {
+
+    @Test
+    public void testTimeoutsExpireInTheirTick() {
+        final TimingWheel<Long> wheel = new TimingWheel<>(10, 8, 0);
+        final Random random = new Random(42);
+        // Spans several levels of the wheel
+        for (int i = 0; i < 10000; i++) {
+            final long deadline = random.nextInt(100000);
+            wheel.add(deadline, deadline);
+        }
+        assertThat(wheel.size()).isEqualTo(10000);
+
+        final List<Long> expired = new ArrayList<>();
+        for (long now = 0; now <= 100010; now += 7) {
+            final long current = now;
+            wheel.advance(now, deadline -> {
+                assertThat(deadline).isAtMost(current);
+                assertThat(deadline).isAtLeast(current - 20);
+                expired.add(deadline);
+            });
+        }
+        assertThat(expired).hasSize(10000);
+        assertThat(wheel.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testCancel() {
+        final TimingWheel<String> wheel = new TimingWheel<>(10, 8, 0);
+        final TimingWheel.Timeout<String> cancelled = wheel.add("cancelled", 5000);
+        wheel.add("expired", 5000);
+        assertThat(wheel.cancel(cancelled)).isTrue();
+        assertThat(wheel.cancel(cancelled)).isFalse();
+
+        final List<String> expired = new ArrayList<>();
+        wheel.advance(6000, expired::add);
+        assertThat(expired).containsExactly("expired");
+        assertThat(cancelled.isPending()).isFalse();
+    }
+
+    @Test
+    public void testPastDeadlineExpiresWithNextTick() {
+        final TimingWheel<String> wheel = new TimingWheel<>(10, 8, 1000);
+        wheel.add("past", 0);
+        final List<String> expired = new ArrayList<>();
+        wheel.advance(1010, expired::add);
+        assertThat(expired).containsExactly("past");
+    }
+}
@@ -0,0 +1,103 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import info.pascalkrause.vertx.datacollector.job.BatchingCollectorJob;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class BatchingTest {
+
+    private static final String REQUEST_REJECTED = "rejected";
+
+    private static class BatchingTestJob extends TestJob implements BatchingCollectorJob {
+
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Handler<Future<List<AsyncResult<CollectorJobResult>>>> postCollectBatch(
+                List<AsyncResult<CollectorJobResult>> results) {
+            return fut -> {
+                batchSizes.add(results.size());
+                final List<AsyncResult<CollectorJobResult>> outcomes = new ArrayList<>();
+                for (final AsyncResult<CollectorJobResult> result : results) {
+                    if (result.succeeded() && REQUEST_REJECTED.equals(result.result().getRequestId())) {
+                        outcomes.add(Future.failedFuture("Insert failed"));
+                    } else {
+                        outcomes.add(result);
+                    }
+                }
+                fut.complete(outcomes);
+            };
+        }
+
+        @Override
+        public Handler<Future<CollectorJobResult>> postCollectAction(AsyncResult<CollectorJobResult> result) {
+            return BatchingCollectorJob.super.postCollectAction(result);
+        }
+    }
+
+    private Vertx vertx;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testResultsAreBatched(TestContext c) {
+        final BatchingTestJob job = new BatchingTestJob();
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, job,
+                new DataCollectorServiceOptions().setPostCollectBatchSize(3).setPostCollectBatchLinger(100), "batch");
+        final Async async = c.async(5);
+        vertx.runOnContext(v -> {
+            for (int i = 0; i < 4; i++) {
+                final String requestId = "id" + i;
+                dcs.collectAndReceive(requestId, TestJob.FEATURE_SUCCEEDED, c.asyncAssertSuccess(res -> {
+                    TestUtils.runTruthTests(c, x -> assertThat(res.getRequestId()).isEqualTo(requestId));
+                    async.countDown();
+                }));
+            }
+            dcs.collectAndReceive(REQUEST_REJECTED, TestJob.FEATURE_SUCCEEDED, c.asyncAssertFailure(t -> {
+                TestUtils.runTruthTests(c, x -> assertThat(t.getMessage()).isEqualTo("Insert failed"));
+                async.countDown();
+            }));
+        });
+        async.await();
+        assertThat(job.batchSizes).containsExactly(3, 2);
+    }
+
+    @Test
+    public void testSingleResult(TestContext c) {
+        final BatchingTestJob job = new BatchingTestJob();
+        final Future<CollectorJobResult> fut = Future.future();
+        job.postCollectAction(Future.succeededFuture(new CollectorJobResult(new JsonObject().put("requestId", "id"))))
+                .handle(fut);
+        assertThat(fut.result().getRequestId()).isEqualTo("id");
+        assertThat(job.batchSizes).containsExactly(1);
+    }
+}
@@ -0,0 +1,101 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class BulkheadTest {
+
+    private Vertx vertx;
+    private DataCollectorServiceImpl dcs;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+        dcs = new DataCollectorServiceImpl(vertx, null,
+                new DataCollectorServiceOptions().setMetricsEnabled(true).setWorkerPoolSize(2), "bulkhead");
+        dcs.registerJob("slow", new TestJob(), new BulkheadOptions().setMaxConcurrency(1).setQueueSize(2));
+        dcs.registerJob("fast", new TestJob(), new BulkheadOptions());
+        dcs.registerJob("limited", new TestJob(), new BulkheadOptions().setTimeout(50));
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    private JsonObject feature(String job) {
+        return new JsonObject().put(DataCollectorServiceOptions.DEFAULT_JOB_NAME_KEY, job);
+    }
+
+    @Test
+    public void testSlowJobCannotStarveOthers(TestContext c) {
+        final List<String> completed = new CopyOnWriteArrayList<>();
+        final Async done = c.async(3);
+        final JsonObject slow = feature("slow").put(TestJob.KEY_SLEEP, 200);
+        vertx.runOnContext(v -> {
+            dcs.collectAndReceive("slow1", slow, c.asyncAssertSuccess(res -> {
+                completed.add(res.getRequestId());
+                done.countDown();
+            }));
+            dcs.collectAndReceive("slow2", slow, c.asyncAssertSuccess(res -> {
+                completed.add(res.getRequestId());
+                done.countDown();
+            }));
+            dcs.collectAndReceive("slow3", slow, c.asyncAssertFailure(t -> {
+                TestUtils.runTruthTests(c, x -> assertThat(t.getMessage())
+                        .isEqualTo(DataCollectorService.ERROR_QUEUE_LIMIT_REACHED));
+            }));
+            dcs.collectAndReceive("fast", feature("fast"), c.asyncAssertSuccess(res -> {
+                completed.add(res.getRequestId());
+                done.countDown();
+            }));
+        });
+        done.await();
+        // The second worker was free for the fast job, while the slow jobs were processed one after the other
+        assertThat(completed).containsExactly("fast", "slow1", "slow2").inOrder();
+        final JsonObject bulkhead = dcs.getMetricsSnapshot().getJsonObject("bulkheads").getJsonObject("slow");
+        assertThat(bulkhead.getLong("rejected")).isEqualTo(1L);
+        assertThat(bulkhead.getInteger("admitted")).isEqualTo(0);
+    }
+
+    @Test
+    public void testTimeout(TestContext c) {
+        final Async done = c.async();
+        dcs.collectAndReceive("id", feature("limited").put(TestJob.KEY_SLEEP, 300), c.asyncAssertFailure(t -> {
+            TestUtils.runTruthTests(c, x -> assertThat(t.getMessage()).isEqualTo(DataCollectorService.ERROR_TIMEOUT));
+            done.complete();
+        }));
+        done.await();
+        final JsonObject metrics = dcs.getMetricsSnapshot();
+        assertThat(metrics.getJsonObject("bulkheads").getJsonObject("limited").getLong("timeouts")).isEqualTo(1L);
+        assertThat(metrics.getJsonObject("queue").getInteger("occupied")).isEqualTo(0);
+    }
+
+    @Test
+    public void testUnknownJob(TestContext c) {
+        dcs.collectAndReceive("id", feature("unknown"), c.asyncAssertFailure(t -> {
+            TestUtils.runTruthTests(c,
+                    x -> assertThat(t.getMessage()).isEqualTo(DataCollectorService.ERROR_UNKNOWN_JOB));
+        }));
+        dcs.collectAndReceive("id", new JsonObject(), c.asyncAssertFailure(t -> {
+            TestUtils.runTruthTests(c,
+                    x -> assertThat(t.getMessage()).isEqualTo(DataCollectorService.ERROR_UNKNOWN_JOB));
+        }));
+    }
+}
@@ -0,0 +1,155 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import info.pascalkrause.vertx.datacollector.job.MemoryAwareCollectorJob;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class ByteBudgetTest {
+
+    private static final String KEY_BYTES = "bytes";
+    private static final String KEY_PAYLOAD = "payload";
+    private static final String KEY_HOLD = "hold";
+
+    /**
+     * Estimates the bytes from the feature. The post-collect action and the collect of features with the hold key wait
+     * until they are released, otherwise the estimate would be replaced by the size of the actual result.
+     */
+    private static class SizedJob extends TestJob implements MemoryAwareCollectorJob {
+        private final CountDownLatch collect = new CountDownLatch(1);
+        private final CountDownLatch postCollect = new CountDownLatch(1);
+
+        @Override
+        public long estimateBytes(String requestId, JsonObject feature) {
+            return feature.getLong(KEY_BYTES, 0L);
+        }
+
+        @Override
+        public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature) {
+            final Handler<Future<CollectorJobResult>> collect = super.collect(requestId, feature);
+            if (feature.containsKey(KEY_PAYLOAD)) {
+                return fut -> fut.complete(new CollectorJobResult(requestId, "src", "complete", "now",
+                        new JsonObject().put(KEY_PAYLOAD, feature.getString(KEY_PAYLOAD)), null));
+            }
+            return fut -> {
+                if (feature.containsKey(KEY_HOLD)) {
+                    await(this.collect);
+                }
+                collect.handle(fut);
+            };
+        }
+
+        @Override
+        public Handler<Future<CollectorJobResult>> postCollectAction(AsyncResult<CollectorJobResult> result) {
+            final Handler<Future<CollectorJobResult>> post = super.postCollectAction(result);
+            return fut -> {
+                await(postCollect);
+                post.handle(fut);
+            };
+        }
+
+        private static void await(CountDownLatch latch) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void release() {
+            collect.countDown();
+            postCollect.countDown();
+        }
+    }
+
+    private Vertx vertx;
+    private SizedJob job;
+    private DataCollectorServiceImpl dcs;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+        job = new SizedJob();
+        dcs = new DataCollectorServiceImpl(vertx, job,
+                new DataCollectorServiceOptions().setMetricsEnabled(true).setMemoryBudget(10000), "bytes");
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        job.release();
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    private long bytesInFlight() {
+        return dcs.getMetricsSnapshot().getJsonObject("queue").getLong("bytesInFlight");
+    }
+
+    @Test
+    public void testAdmissionAgainstBudget(TestContext c) {
+        final Async done = c.async(3);
+        dcs.collectAndReceive("big", new JsonObject().put(KEY_BYTES, 6000).put(KEY_HOLD, true),
+                c.asyncAssertSuccess(res -> done.countDown()));
+        dcs.collectAndReceive("tooBig", new JsonObject().put(KEY_BYTES, 6000), c.asyncAssertFailure(t -> {
+            TestUtils.runTruthTests(c,
+                    x -> assertThat(t.getMessage()).isEqualTo(DataCollectorService.ERROR_QUEUE_LIMIT_REACHED));
+            done.countDown();
+        }));
+        dcs.collectAndReceive("small", new JsonObject().put(KEY_BYTES, 3000), c.asyncAssertSuccess(res -> {
+            done.countDown();
+        }));
+        assertThat(dcs.getMetricsSnapshot().getJsonObject("queue").getLong("bytesBudget")).isEqualTo(10000L);
+        job.release();
+        done.await();
+        assertThat(bytesInFlight()).isEqualTo(0L);
+    }
+
+    @Test
+    public void testOversizedRequestIsAdmittedAlone(TestContext c) {
+        dcs.collectAndReceive("huge", new JsonObject().put(KEY_BYTES, 50000).put(KEY_HOLD, true),
+                c.asyncAssertSuccess());
+        dcs.collectAndReceive("next", new JsonObject().put(KEY_BYTES, 1), c.asyncAssertFailure());
+        job.release();
+    }
+
+    @Test
+    public void testActualResultSizeReplacesEstimate(TestContext c) {
+        final StringBuilder payload = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            payload.append('x');
+        }
+        final Async done = c.async();
+        dcs.collectAndReceive("id", new JsonObject().put(KEY_BYTES, 10).put(KEY_PAYLOAD, payload.toString()),
+                c.asyncAssertSuccess(res -> done.complete()));
+        final Async reconciled = c.async();
+        vertx.setPeriodic(10, id -> {
+            // The post-collect action holds the result, which is larger than the estimate
+            if (bytesInFlight() > 4000) {
+                vertx.cancelTimer(id);
+                reconciled.complete();
+            }
+        });
+        reconciled.await();
+        job.release();
+        done.await();
+        assertThat(bytesInFlight()).isEqualTo(0L);
+    }
+}
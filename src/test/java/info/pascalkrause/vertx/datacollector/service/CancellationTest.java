@@ -0,0 +1,107 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobContext;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class CancellationTest {
+
+    /**
+     * Runs until it is cancelled.
+     */
+    private static class EndlessJob extends TestJob {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch stopped = new CountDownLatch(1);
+
+        @Override
+        public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature,
+                CollectorJobContext context) {
+            return fut -> {
+                started.countDown();
+                while (!context.isCancelled()) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(1);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                stopped.countDown();
+                fut.fail("stopped");
+            };
+        }
+    }
+
+    private Vertx vertx;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testCancelRunningJob(TestContext c) throws InterruptedException {
+        final EndlessJob job = new EndlessJob();
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, job, 1, 5, true, 60000, "cancel");
+        final Async cancelled = c.async();
+        dcs.collectAndReceive("id", new JsonObject(), c.asyncAssertFailure(t -> {
+            TestUtils.runTruthTests(c,
+                    v -> assertThat(t.getMessage()).isEqualTo(DataCollectorService.ERROR_CANCELLED));
+            cancelled.complete();
+        }));
+        assertThat(job.started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        dcs.cancel("id", c.asyncAssertSuccess(count -> assertThat(count).isEqualTo(1)));
+        cancelled.await();
+        assertThat(job.stopped.await(1, TimeUnit.SECONDS)).isTrue();
+        final JsonObject metrics = dcs.getMetricsSnapshot();
+        assertThat(metrics.getJsonObject("queue").getInteger("occupied")).isEqualTo(0);
+        assertThat(metrics.getJsonObject("total").getJsonObject("jobs").getLong("cancelled")).isEqualTo(1L);
+    }
+
+    @Test
+    public void testCancelQueuedJob(TestContext c) {
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, new TestJob(), 1, 5, true, 60000,
+                "cancel");
+        final Async done = c.async(2);
+        dcs.collectAndReceive("slow", new JsonObject().put(TestJob.KEY_SLEEP, 200), c.asyncAssertSuccess(res -> {
+            done.countDown();
+        }));
+        dcs.collectAndReceive("queued", new JsonObject(), c.asyncAssertFailure(t -> {
+            TestUtils.runTruthTests(c,
+                    v -> assertThat(t.getMessage()).isEqualTo(DataCollectorService.ERROR_CANCELLED));
+            done.countDown();
+        }));
+
+        // The slot is released immediately, not after the slow job
+        dcs.cancel("queued", c.asyncAssertSuccess(count -> {
+            assertThat(count).isEqualTo(1);
+            assertThat(dcs.getMetricsSnapshot().getJsonObject("queue").getInteger("occupied")).isEqualTo(1);
+        }));
+        done.await();
+        dcs.cancel("queued", c.asyncAssertSuccess(count -> assertThat(count).isEqualTo(0)));
+    }
+}
@@ -0,0 +1,146 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class ChangeDetectionTest {
+
+    private static final String KEY_VALUE = "value";
+    private static final String KEY_FAIL_POST = "failPost";
+
+    /**
+     * Returns the feature as result and counts the post-collect calls.
+     */
+    private static class CountingJob extends TestJob {
+        private final AtomicInteger postCollects = new AtomicInteger();
+
+        @Override
+        public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature) {
+            return fut -> fut.complete(new CollectorJobResult(requestId, "src", "complete",
+                    Long.toString(System.nanoTime()), feature.copy(), null));
+        }
+
+        @Override
+        public Handler<Future<CollectorJobResult>> postCollectAction(AsyncResult<CollectorJobResult> result) {
+            postCollects.incrementAndGet();
+            if (result.succeeded() && result.result().getResult().containsKey(KEY_FAIL_POST)) {
+                return fut -> fut.fail("post-collect failed");
+            }
+            return super.postCollectAction(result);
+        }
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Vertx vertx;
+    private CountingJob job;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+        job = new CountingJob();
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    private DataCollectorServiceImpl createService(String file) {
+        return new DataCollectorServiceImpl(vertx, job, new DataCollectorServiceOptions().setMetricsEnabled(true)
+                .setChangeDetectionSize(100).setChangeDetectionFile(file), "changes");
+    }
+
+    private String collect(TestContext c, DataCollectorServiceImpl dcs, String requestId, JsonObject feature) {
+        final Async done = c.async();
+        final String[] quality = new String[1];
+        dcs.collectAndReceive(requestId, feature, res -> {
+            quality[0] = res.succeeded() ? res.result().getQuality() : res.cause().getMessage();
+            done.complete();
+        });
+        done.await();
+        return quality[0];
+    }
+
+    @Test
+    public void testUnchangedResultSkipsPostCollect(TestContext c) {
+        final DataCollectorServiceImpl dcs = createService(null);
+        final JsonObject feature = new JsonObject().put(KEY_VALUE, 1);
+        assertThat(collect(c, dcs, "id", feature)).isEqualTo("complete");
+        assertThat(collect(c, dcs, "id", feature)).isEqualTo(DataCollectorService.QUALITY_UNCHANGED);
+        assertThat(collect(c, dcs, "otherId", feature)).isEqualTo("complete");
+        assertThat(collect(c, dcs, "id", new JsonObject().put(KEY_VALUE, 2))).isEqualTo("complete");
+        assertThat(job.postCollects.get()).isEqualTo(3);
+        final JsonObject metrics = dcs.getMetricsSnapshot();
+        assertThat(metrics.getJsonObject("total").getJsonObject("quality")
+                .getLong(DataCollectorService.QUALITY_UNCHANGED)).isEqualTo(1L);
+        assertThat(metrics.getJsonObject("changeDetection"))
+                .isEqualTo(new JsonObject().put("entries", 2).put("checked", 4L).put("unchanged", 1L));
+    }
+
+    @Test
+    public void testFailedPostCollectIsRepeated(TestContext c) {
+        final DataCollectorServiceImpl dcs = createService(null);
+        final JsonObject feature = new JsonObject().put(KEY_FAIL_POST, true);
+        assertThat(collect(c, dcs, "id", feature)).isEqualTo("post-collect failed");
+        assertThat(collect(c, dcs, "id", feature)).isEqualTo("post-collect failed");
+        assertThat(job.postCollects.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFingerprintsArePersisted(TestContext c) throws Exception {
+        final String file = folder.getRoot().toPath().resolve("fingerprints").toString();
+        final JsonObject feature = new JsonObject().put(KEY_VALUE, 1);
+        final DataCollectorServiceImpl first = createService(file);
+        assertThat(collect(c, first, "id", feature)).isEqualTo("complete");
+        first.stop();
+        final DataCollectorServiceImpl second = createService(file);
+        assertThat(collect(c, second, "id", feature)).isEqualTo(DataCollectorService.QUALITY_UNCHANGED);
+        second.stop();
+    }
+
+    @Test
+    public void testExecutorsAreClosedIfFingerprintsCannotBeSaved(TestContext c) throws Exception {
+        final Path dir = folder.newFolder().toPath();
+        final DataCollectorServiceImpl dcs = createService(dir.resolve("fingerprints").toString());
+        assertThat(collect(c, dcs, "id", new JsonObject().put(KEY_VALUE, 1))).isEqualTo("complete");
+        Files.delete(dir);
+        try {
+            dcs.stop();
+            fail("Saving the fingerprints must fail");
+        } catch (final UncheckedIOException e) {
+            // expected
+        }
+        try {
+            dcs.collectAndReceive("otherId", new JsonObject(), res -> {});
+            fail("The executor must be closed");
+        } catch (final IllegalStateException e) {
+            assertThat(e.getMessage()).isEqualTo("Worker executor closed");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobContext;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobRequest;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class DeadlineTest {
+
+    private static class DeadlineJob extends TestJob {
+        private final Map<String, Long> deadlines = new ConcurrentHashMap<>();
+
+        @Override
+        public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature,
+                CollectorJobContext context) {
+            final Handler<Future<CollectorJobResult>> collect = super.collect(requestId, feature);
+            return fut -> {
+                deadlines.put(requestId, context.getDeadline());
+                collect.handle(fut);
+            };
+        }
+    }
+
+    private Vertx vertx;
+    private DeadlineJob job;
+    private DataCollectorServiceImpl dcs;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+        job = new DeadlineJob();
+        dcs = new DataCollectorServiceImpl(vertx, job, 1, 5, true, 60000, "deadline");
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testDeadlineIsVisibleToJob(TestContext c) {
+        final long deadline = System.currentTimeMillis() + 60000;
+        final Async done = c.async();
+        dcs.collectAndReceive("id", new JsonObject(), deadline, c.asyncAssertSuccess(res -> done.complete()));
+        done.await();
+        assertThat(job.deadlines.get("id")).isEqualTo(deadline);
+    }
+
+    @Test
+    public void testExpiredRequestIsDropped(TestContext c) {
+        final Async done = c.async(2);
+        vertx.runOnContext(v -> {
+            dcs.collectAndReceive("slow", new JsonObject().put(TestJob.KEY_SLEEP, 200),
+                    c.asyncAssertSuccess(res -> done.countDown()));
+            dcs.collectAndReceive("queued", new JsonObject(), System.currentTimeMillis() + 50,
+                    c.asyncAssertFailure(t -> {
+                        TestUtils.runTruthTests(c,
+                                x -> assertThat(t.getMessage()).isEqualTo(DataCollectorService.ERROR_EXPIRED));
+                        done.countDown();
+                    }));
+        });
+        done.await();
+        // The expired request was never dispatched
+        assertThat(job.deadlines).doesNotContainKey("queued");
+
+        final Async expired = c.async();
+        dcs.collect("late", new JsonObject(), System.currentTimeMillis() - 1, c.asyncAssertFailure(t -> {
+            expired.complete();
+        }));
+        expired.await();
+        final JsonObject metrics = dcs.getMetricsSnapshot();
+        assertThat(metrics.getJsonObject("total").getJsonObject("jobs").getLong("expired")).isEqualTo(2L);
+        assertThat(metrics.getJsonObject("queue").getInteger("occupied")).isEqualTo(0);
+    }
+
+    @Test
+    public void testDeadlineHeader(TestContext c) {
+        new DataCollectorServiceMessageHandler(vertx, dcs).register("deadline");
+        final DeliveryOptions options = new DeliveryOptions()
+                .addHeader(DataCollectorServiceMessageHandler.HEADER_ACTION, "collectAndReceive")
+                .addHeader(DataCollectorServiceMessageHandler.HEADER_DEADLINE, "-1");
+        vertx.eventBus().send("deadline", new CollectorJobRequest("id", new JsonObject()), options,
+                c.asyncAssertFailure(t -> {
+                    TestUtils.runTruthTests(c, x -> {
+                        assertThat(t).isInstanceOf(ReplyException.class);
+                        assertThat(t.getMessage()).isEqualTo(DataCollectorService.ERROR_EXPIRED);
+                    });
+                }));
+    }
+}
@@ -0,0 +1,102 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class DeduplicationTest {
+
+    private static class CountingJob extends TestJob {
+        private final Map<String, AtomicInteger> runs = new ConcurrentHashMap<>();
+
+        @Override
+        public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature) {
+            runs.computeIfAbsent(requestId, id -> new AtomicInteger()).incrementAndGet();
+            return super.collect(requestId, feature);
+        }
+    }
+
+    private Vertx vertx;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testRepeatsAreDeduplicated(TestContext c) {
+        final CountingJob job = new CountingJob();
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, job,
+                new DataCollectorServiceOptions().setMetricsEnabled(true).setDeduplicationWindow(60000), "dedup");
+        final JsonObject slow = new JsonObject().put(TestJob.KEY_SLEEP, 200);
+        final Async running = c.async(3);
+        vertx.runOnContext(v -> {
+            for (int i = 0; i < 3; i++) {
+                dcs.collectAndReceive("id", slow, c.asyncAssertSuccess(res -> {
+                    TestUtils.runTruthTests(c, x -> assertThat(res.getRequestId()).isEqualTo("id"));
+                    running.countDown();
+                }));
+            }
+        });
+        running.await();
+
+        final Async cached = c.async();
+        dcs.collectAndReceive("id", slow, c.asyncAssertSuccess(res -> cached.complete()));
+        cached.await();
+        assertThat(job.runs.get("id").get()).isEqualTo(1);
+        assertThat(dcs.getMetricsSnapshot().getJsonObject("deduplication"))
+                .isEqualTo(new JsonObject().put("hits", 3).put("attached", 2).put("cached", 1));
+    }
+
+    @Test
+    public void testFailuresAreNotCached(TestContext c) {
+        final CountingJob job = new CountingJob();
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, job,
+                new DataCollectorServiceOptions().setDeduplicationWindow(60000), "dedup");
+        final Async first = c.async();
+        dcs.collectAndReceive("id", TestJob.FEATURE_HANDLED_EXCEPTION, c.asyncAssertFailure(t -> first.complete()));
+        first.await();
+        final Async second = c.async();
+        dcs.collectAndReceive("id", TestJob.FEATURE_HANDLED_EXCEPTION, c.asyncAssertFailure(t -> second.complete()));
+        second.await();
+        assertThat(job.runs.get("id").get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testWindowIsBounded() {
+        final RequestDeduplicator deduplicator = new RequestDeduplicator(vertx, 60000, 2);
+        for (int i = 0; i < 3; i++) {
+            assertThat(deduplicator.begin("id" + i, res -> {
+            })).isEqualTo(RequestDeduplicator.Admission.EXECUTE);
+            deduplicator.complete("id" + i, Future.succeededFuture());
+        }
+        assertThat(deduplicator.begin("id1", res -> {
+        })).isEqualTo(RequestDeduplicator.Admission.CACHED);
+        assertThat(deduplicator.begin("id2", res -> {
+        })).isEqualTo(RequestDeduplicator.Admission.EXECUTE);
+    }
+}
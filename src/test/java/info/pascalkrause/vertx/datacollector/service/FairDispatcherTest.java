@@ -0,0 +1,79 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class FairDispatcherTest {
+
+    @Test
+    public void testWorkersAreSharedByWeight() {
+        final FairDispatcher dispatcher = new FairDispatcher(1, 1);
+        dispatcher.setWeight("a", 2);
+        final List<String> order = new ArrayList<>();
+        dispatcher.submit("blocker", () -> order.add("blocker"));
+        IntStream.range(0, 6).forEach(i -> {
+            dispatcher.submit("a", () -> order.add("a"));
+            dispatcher.submit("b", () -> order.add("b"));
+        });
+        assertThat(order).containsExactly("blocker");
+
+        IntStream.range(0, 9).forEach(i -> dispatcher.done());
+        final List<String> firstRounds = order.subList(1, order.size());
+        assertThat(Collections.frequency(firstRounds, "a")).isEqualTo(6);
+        assertThat(Collections.frequency(firstRounds, "b")).isEqualTo(3);
+        assertThat(dispatcher.getMetrics().getJsonObject("b").getInteger("queued")).isEqualTo(3);
+    }
+
+    @Test
+    public void testIdleTenantsAreForgotten() {
+        final FairDispatcher dispatcher = new FairDispatcher(1, 1, 2);
+        dispatcher.setWeight("configured", 2);
+        final Runnable job = () -> {
+        };
+        dispatcher.submit("a", job);
+        dispatcher.submit("b", job);
+        dispatcher.submit("c", job);
+        // a is idle, b and c have queued jobs
+        assertThat(dispatcher.getMetrics().fieldNames()).containsExactly("configured", "b", "c");
+
+        dispatcher.done();
+        dispatcher.done();
+        dispatcher.submit("d", job);
+        assertThat(dispatcher.getMetrics().fieldNames()).containsExactly("configured", "d");
+    }
+
+    @Test
+    public void testTenantMetrics(TestContext c) {
+        final Vertx vertx = Vertx.vertx();
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, new TestJob(),
+                new DataCollectorServiceOptions().setMetricsEnabled(true).setWorkerPoolSize(1).setTenantKey("tenant"),
+                "fair");
+        dcs.setTenantWeight("teamA", 3);
+        final Async done = c.async(2);
+        dcs.collect("1", new JsonObject().put("tenant", "teamA"), c.asyncAssertSuccess(v -> done.countDown()));
+        dcs.collect("2", new JsonObject(), c.asyncAssertSuccess(v -> done.countDown()));
+        done.await();
+
+        final JsonObject tenants = dcs.getMetricsSnapshot().getJsonObject("tenants");
+        assertThat(tenants.getJsonObject("teamA").getInteger("weight")).isEqualTo(3);
+        assertThat(tenants.getJsonObject("teamA").getLong("dispatched")).isEqualTo(1L);
+        assertThat(tenants.getJsonObject(DataCollectorServiceImpl.DEFAULT_TENANT).getLong("dispatched"))
+                .isEqualTo(1L);
+        vertx.close(c.asyncAssertSuccess());
+    }
+}
@@ -0,0 +1,162 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class ForkJoinExecutorTest {
+
+    private static final String KEY_BLOCK = "block";
+
+    /**
+     * Sums the numbers from 1 to n in forked subtasks and records the threads which computed the leaves.
+     */
+    private static class SumTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+        private final Set<Thread> leafThreads;
+
+        private SumTask(long from, long to, Set<Thread> leafThreads) {
+            this.from = from;
+            this.to = to;
+            this.leafThreads = leafThreads;
+        }
+
+        @Override
+        protected Long compute() {
+            if ((to - from) < 1000) {
+                leafThreads.add(Thread.currentThread());
+                long sum = 0;
+                for (long i = from; i <= to; i++) {
+                    sum += i;
+                }
+                return sum;
+            }
+            final long middle = (from + to) / 2;
+            final ForkJoinTask<Long> left = new SumTask(from, middle, leafThreads).fork();
+            return new SumTask(middle + 1, to, leafThreads).compute() + left.join();
+        }
+    }
+
+    /**
+     * Blocks a request with the block key until it is released.
+     */
+    private static class SumJob extends TestJob {
+        private final Set<Thread> leafThreads = ConcurrentHashMap.newKeySet();
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature) {
+            return fut -> {
+                if (!(Thread.currentThread() instanceof ForkJoinWorkerThread)) {
+                    throw new IllegalStateException("Not running in a ForkJoinPool");
+                }
+                if (feature.containsKey(KEY_BLOCK)) {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                final long sum = new SumTask(1, feature.getLong("n"), leafThreads).invoke();
+                fut.complete(new CollectorJobResult(requestId, "sum", "complete", "now",
+                        new JsonObject().put("sum", sum), null));
+            };
+        }
+    }
+
+    private Vertx vertx;
+    private SumJob job;
+    private DataCollectorServiceImpl dcs;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+        job = new SumJob();
+        dcs = new DataCollectorServiceImpl(vertx, job, new DataCollectorServiceOptions()
+                .setWorkerPoolSize(4).setMetricsEnabled(true).setExecutorBackend(ExecutorBackend.FORK_JOIN), "fj");
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        dcs.stop();
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testJobForksSubtasks(TestContext c) {
+        final Async done = c.async(4);
+        vertx.runOnContext(v -> {
+            final Thread caller = Thread.currentThread();
+            for (int i = 0; i < 4; i++) {
+                dcs.collectAndReceive("id" + i, new JsonObject().put("n", 1000000), c.asyncAssertSuccess(res -> {
+                    TestUtils.runTruthTests(c, x -> {
+                        // The result is delivered on the context of the caller
+                        assertThat(Thread.currentThread()).isSameAs(caller);
+                        assertThat(res.getResult().getLong("sum")).isEqualTo(500000500000L);
+                    });
+                    done.countDown();
+                }));
+            }
+        });
+        done.await();
+        final JsonObject executor = dcs.getMetricsSnapshot().getJsonObject("executor");
+        assertThat(executor.getString("backend")).isEqualTo("forkJoin");
+        assertThat(executor.getInteger("poolSize")).isEqualTo(4);
+        // The forked subtasks were spread over the workers of the pool
+        assertThat(job.leafThreads.size()).isGreaterThan(1);
+        assertThat(job.leafThreads.stream().allMatch(t -> t instanceof ForkJoinWorkerThread)).isTrue();
+    }
+
+    @Test
+    public void testBlockedJobIsActive(TestContext c) {
+        final Async done = c.async();
+        dcs.collectAndReceive("id", new JsonObject().put("n", 10).put(KEY_BLOCK, true),
+                c.asyncAssertSuccess(res -> done.complete()));
+        final Async active = c.async();
+        vertx.setPeriodic(10, id -> {
+            if (dcs.getMetricsSnapshot().getJsonObject("executor").getInteger("active") == 1) {
+                vertx.cancelTimer(id);
+                active.complete();
+            }
+        });
+        active.await();
+        final JsonObject executor = dcs.getMetricsSnapshot().getJsonObject("executor");
+        assertThat(executor.getInteger("active")).isEqualTo(1);
+        assertThat(executor.getDouble("utilisation")).isWithin(0.001).of(0.25);
+        job.release.countDown();
+        done.await();
+    }
+
+    @Test
+    public void testExceptionFailsCollect(TestContext c) {
+        dcs.collectAndReceive("id", new JsonObject(), c.asyncAssertFailure(t -> {
+            TestUtils.runTruthTests(c, x -> assertThat(t).isInstanceOf(NullPointerException.class));
+        }));
+    }
+}
@@ -0,0 +1,169 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobContext;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class HedgingTest {
+
+    private static final String KEY_STUCK = "stuck";
+
+    /**
+     * The first attempt of a request with the stuck key blocks until it is cancelled, further attempts are fast.
+     */
+    private static class StuckJob extends TestJob {
+        private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        private final AtomicBoolean firstAttemptCancelled = new AtomicBoolean(false);
+
+        @Override
+        public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature,
+                CollectorJobContext context) {
+            final Handler<Future<CollectorJobResult>> collect = super.collect(requestId, feature);
+            return fut -> {
+                final int attempt = attempts.computeIfAbsent(requestId, id -> new AtomicInteger()).incrementAndGet();
+                if (feature.containsKey(KEY_STUCK) && (attempt == 1)) {
+                    final CountDownLatch cancelled = new CountDownLatch(1);
+                    context.onCancel(cancelled::countDown);
+                    try {
+                        firstAttemptCancelled.set(cancelled.await(5, TimeUnit.SECONDS));
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                collect.handle(fut);
+            };
+        }
+    }
+
+    private Vertx vertx;
+    private StuckJob job;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+        job = new StuckJob();
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    private DataCollectorServiceImpl createService(double budget) {
+        return new DataCollectorServiceImpl(vertx, job, new DataCollectorServiceOptions().setMetricsEnabled(true)
+                .setHedgePercentile(90).setHedgeBudget(budget), "hedging");
+    }
+
+    /**
+     * Collects enough latencies to compute the hedge delay.
+     */
+    private void warmup(TestContext c, DataCollectorServiceImpl dcs) {
+        warmup(c, dcs, new JsonObject());
+    }
+
+    private void warmup(TestContext c, DataCollectorServiceImpl dcs, JsonObject feature) {
+        final Async warmup = c.async(HedgePolicy.MIN_SAMPLES);
+        for (int i = 0; i < HedgePolicy.MIN_SAMPLES; i++) {
+            dcs.collectAndReceive("warmup" + i, feature.copy().put(TestJob.KEY_SLEEP, 5),
+                    c.asyncAssertSuccess(res -> warmup.countDown()));
+        }
+        warmup.await();
+    }
+
+    @Test
+    public void testHedgeWinsAndCancelsFirstAttempt(TestContext c) {
+        final DataCollectorServiceImpl dcs = createService(1);
+        warmup(c, dcs);
+        final long start = System.currentTimeMillis();
+        final Async done = c.async();
+        dcs.collectAndReceive("id", new JsonObject().put(KEY_STUCK, true), c.asyncAssertSuccess(res -> {
+            TestUtils.runTruthTests(c, x -> {
+                assertThat(res.getRequestId()).isEqualTo("id");
+                assertThat(System.currentTimeMillis() - start).isLessThan(TimeUnit.SECONDS.toMillis(5));
+            });
+            done.complete();
+        }));
+        done.await();
+        final JsonObject hedging = dcs.getMetricsSnapshot().getJsonObject("hedging");
+        assertThat(hedging.getLong("hedged")).isEqualTo(1L);
+        assertThat(hedging.getLong("won")).isEqualTo(1L);
+        final Async cancelled = c.async();
+        vertx.setPeriodic(10, id -> {
+            if (job.firstAttemptCancelled.get()) {
+                vertx.cancelTimer(id);
+                cancelled.complete();
+            }
+        });
+    }
+
+    @Test
+    public void testBudgetLimitsHedges(TestContext c) {
+        final DataCollectorServiceImpl dcs = createService(0);
+        warmup(c, dcs);
+        final Async done = c.async();
+        // Without budget the first attempt is never hedged, so it is stuck until the caller cancels it
+        dcs.collectAndReceive("id", new JsonObject().put(KEY_STUCK, true), c.asyncAssertFailure(t -> {
+            TestUtils.runTruthTests(c,
+                    x -> assertThat(t.getMessage()).isEqualTo(DataCollectorService.ERROR_CANCELLED));
+            done.complete();
+        }));
+        vertx.setTimer(500, id -> dcs.cancel("id", c.asyncAssertSuccess()));
+        done.awaitSuccess(TimeUnit.SECONDS.toMillis(10));
+        assertThat(dcs.getMetricsSnapshot().getJsonObject("hedging").getLong("hedged")).isEqualTo(0L);
+    }
+
+    @Test
+    public void testHedgeWaitsForBulkhead(TestContext c) {
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, null,
+                new DataCollectorServiceOptions().setMetricsEnabled(true).setHedgePercentile(90).setHedgeBudget(1),
+                "hedging");
+        dcs.registerJob("stuck", job, new BulkheadOptions().setMaxConcurrency(1));
+        final JsonObject feature = new JsonObject().put(DataCollectorServiceOptions.DEFAULT_JOB_NAME_KEY, "stuck");
+        warmup(c, dcs, feature);
+        final Async done = c.async();
+        // The first attempt holds the only worker of the bulkhead, so the hedge is queued until the caller cancels
+        dcs.collectAndReceive("id", feature.copy().put(KEY_STUCK, true), c.asyncAssertFailure(t -> {
+            TestUtils.runTruthTests(c,
+                    x -> assertThat(t.getMessage()).isEqualTo(DataCollectorService.ERROR_CANCELLED));
+            done.complete();
+        }));
+        vertx.setTimer(500, id -> dcs.cancel("id", c.asyncAssertSuccess()));
+        done.awaitSuccess(TimeUnit.SECONDS.toMillis(10));
+        final Async idle = c.async();
+        vertx.setPeriodic(10, id -> {
+            if (dcs.getMetricsSnapshot().getJsonObject("bulkheads").getJsonObject("stuck").getInteger("running") == 0) {
+                vertx.cancelTimer(id);
+                idle.complete();
+            }
+        });
+        idle.await();
+        final JsonObject hedging = dcs.getMetricsSnapshot().getJsonObject("hedging");
+        assertThat(hedging.getLong("hedged")).isEqualTo(1L);
+        assertThat(hedging.getLong("won")).isEqualTo(0L);
+        // The queued hedge was skipped, the collect of the job ran only once
+        assertThat(job.attempts.get("id").get()).isEqualTo(1);
+    }
+}
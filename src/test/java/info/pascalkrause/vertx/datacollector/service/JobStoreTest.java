@@ -0,0 +1,36 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+
+public class JobStoreTest {
+
+    private static final CollectorJobResult RESULT = new CollectorJobResult("request", "source", "quality", "created",
+            new JsonObject().put("key", "value"), null);
+
+    @Test
+    public void testFetchReturnsTheOutcomeUntilTheJobIsEvicted() {
+        final JobStore store = new JobStore(1, 60000);
+        store.add("first", "request");
+        assertThat(store.fetch("first").cause().getMessage()).isEqualTo(DataCollectorService.ERROR_JOB_PENDING);
+
+        store.complete("first", Future.succeededFuture(RESULT));
+        assertThat(store.fetch("first").result()).isSameAs(RESULT);
+        // Fetching doesn't remove the outcome
+        assertThat(store.fetch("first").result()).isSameAs(RESULT);
+
+        store.add("second", "request");
+        store.complete("second", Future.failedFuture("failed"));
+        final AsyncResult<CollectorJobResult> evicted = store.fetch("first");
+        assertThat(evicted.failed()).isTrue();
+        assertThat(evicted.cause().getMessage()).isEqualTo(DataCollectorService.ERROR_JOB_NOT_FOUND);
+        assertThat(store.fetch("second").cause().getMessage()).isEqualTo("failed");
+        assertThat(store.fetch("unknown").cause().getMessage()).isEqualTo(DataCollectorService.ERROR_JOB_NOT_FOUND);
+    }
+}
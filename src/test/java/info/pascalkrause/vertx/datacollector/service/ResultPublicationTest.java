@@ -0,0 +1,157 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class ResultPublicationTest {
+
+    private static final String ADDRESS = "results";
+
+    private Vertx vertx;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    private void collect(TestContext c, DataCollectorServiceImpl dcs, int count) {
+        final Async done = c.async(count);
+        for (int i = 0; i < count; i++) {
+            dcs.collectAndReceive("id" + i, new JsonObject(), c.asyncAssertSuccess(res -> done.countDown()));
+        }
+        done.await();
+    }
+
+    private void await(TestContext c, DataCollectorServiceImpl dcs, String key, long expected) {
+        final Async reached = c.async();
+        vertx.setPeriodic(10, id -> {
+            if (dcs.getMetricsSnapshot().getJsonObject("publication").getLong(key) == expected) {
+                vertx.cancelTimer(id);
+                reached.complete();
+            }
+        });
+        reached.await();
+    }
+
+    @Test
+    public void testBatchesArePublishedToAllSubscribers(TestContext c) {
+        final List<JsonArray> first = new CopyOnWriteArrayList<>();
+        final List<JsonArray> second = new CopyOnWriteArrayList<>();
+        final Async registered = c.async(2);
+        vertx.eventBus().<JsonArray>consumer(ADDRESS, msg -> first.add(msg.body()))
+                .completionHandler(c.asyncAssertSuccess(v -> registered.countDown()));
+        vertx.eventBus().<JsonArray>consumer(ADDRESS, msg -> second.add(msg.body()))
+                .completionHandler(c.asyncAssertSuccess(v -> registered.countDown()));
+        registered.await();
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, new TestJob(),
+                new DataCollectorServiceOptions().setMetricsEnabled(true).setPublishAddress(ADDRESS)
+                        .setPublishBatchSize(3).setPublishBatchLinger(500).setPublishProjection(
+                                r -> "id0".equals(r.getRequestId()) ? null
+                                        : new JsonObject().put("requestId", r.getRequestId())),
+                "publish");
+        collect(c, dcs, 8);
+        await(c, dcs, "published", 7);
+        // Two full batches and the rest after the linger time
+        assertThat(first.stream().mapToInt(JsonArray::size).toArray()).asList().containsExactly(3, 3, 1);
+        assertThat(second).isEqualTo(first);
+        assertThat(first.get(0).getJsonObject(0).fieldNames()).containsExactly("requestId");
+        assertThat(dcs.getMetricsSnapshot().getJsonObject("publication").getLong("batches")).isEqualTo(3L);
+    }
+
+    @Test
+    public void testSlowSubscriberOverflowsBuffer(TestContext c) {
+        final List<Message<JsonArray>> unacknowledged = new CopyOnWriteArrayList<>();
+        final Async registered = c.async();
+        vertx.eventBus().<JsonArray>consumer(ADDRESS, unacknowledged::add)
+                .completionHandler(c.asyncAssertSuccess(v -> registered.complete()));
+        registered.await();
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, new TestJob(),
+                new DataCollectorServiceOptions().setMetricsEnabled(true).setPublishAddress(ADDRESS)
+                        .setPublishBatchSize(1).setPublishBufferSize(2)
+                        .setPublishOverflowPolicy(PublishOverflowPolicy.DROP_OLDEST).setPublishAckTimeout(5000),
+                "publish");
+        collect(c, dcs, 10);
+        // The subscriber holds the maximum number of batches, two results are buffered and the rest is dropped
+        await(c, dcs, "dropped", 10 - ResultPublisher.MAX_BATCHES_IN_FLIGHT - 2);
+        assertThat(unacknowledged).hasSize(ResultPublisher.MAX_BATCHES_IN_FLIGHT);
+        assertThat(dcs.getMetricsSnapshot().getJsonObject("publication").getInteger("buffered")).isEqualTo(2);
+        unacknowledged.forEach(msg -> msg.reply(null));
+        await(c, dcs, "published", ResultPublisher.MAX_BATCHES_IN_FLIGHT);
+        await(c, dcs, "buffered", 0);
+        assertThat(unacknowledged).hasSize(ResultPublisher.MAX_BATCHES_IN_FLIGHT + 2);
+    }
+
+    @Test
+    public void testSlowSubscriberWithoutAckIsNotBuffered(TestContext c) {
+        final List<JsonArray> received = new CopyOnWriteArrayList<>();
+        final Async registered = c.async();
+        vertx.eventBus().<JsonArray>consumer(ADDRESS, msg -> {
+            received.add(msg.body());
+            // Blocks the event loop of the subscriber, the batches queue up in the event bus
+            sleep(20);
+        }).completionHandler(c.asyncAssertSuccess(v -> registered.complete()));
+        registered.await();
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, new TestJob(),
+                new DataCollectorServiceOptions().setMetricsEnabled(true).setPublishAddress(ADDRESS)
+                        .setPublishBatchSize(1).setPublishBufferSize(2),
+                "publish");
+        collect(c, dcs, 10);
+        // Every full batch was handed to the event bus at once, the buffer and the overflow policy don't apply
+        final JsonObject publication = dcs.getMetricsSnapshot().getJsonObject("publication");
+        assertThat(publication.getLong("published")).isEqualTo(10L);
+        assertThat(publication.getLong("dropped")).isEqualTo(0L);
+        assertThat(publication.getInteger("buffered")).isEqualTo(0);
+        final Async delivered = c.async();
+        vertx.setPeriodic(10, id -> {
+            if (received.size() == 10) {
+                vertx.cancelTimer(id);
+                delivered.complete();
+            }
+        });
+    }
+
+    @Test
+    public void testFailedProjectionIsCounted(TestContext c) {
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, new TestJob(),
+                new DataCollectorServiceOptions().setMetricsEnabled(true).setPublishAddress(ADDRESS)
+                        .setPublishBatchSize(1).setPublishProjection(r -> {
+                            throw new IllegalStateException("broken projection");
+                        }),
+                "publish");
+        // Every caller still gets its result
+        collect(c, dcs, 3);
+        final JsonObject publication = dcs.getMetricsSnapshot().getJsonObject("publication");
+        assertThat(publication.getLong("failedProjections")).isEqualTo(3L);
+        assertThat(publication.getLong("published")).isEqualTo(0L);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
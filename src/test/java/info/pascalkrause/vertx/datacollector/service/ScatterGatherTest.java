@@ -0,0 +1,162 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import info.pascalkrause.vertx.datacollector.job.ScatterGatherCollectorJob;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class ScatterGatherTest {
+
+    private static final String KEY_PAGES = "pages";
+
+    /**
+     * Splits the feature into the features of its pages and records the maximum number of concurrent parts.
+     */
+    private static class PagedJob extends TestJob implements ScatterGatherCollectorJob {
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger maxActive = new AtomicInteger();
+
+        @Override
+        public List<JsonObject> split(String requestId, JsonObject feature) {
+            final JsonArray pages = feature.getJsonArray(KEY_PAGES);
+            return pages == null ? Collections.emptyList()
+                    : pages.stream().map(JsonObject.class::cast).collect(Collectors.toList());
+        }
+
+        @Override
+        public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature) {
+            final Handler<Future<CollectorJobResult>> collect = super.collect(requestId, feature);
+            return fut -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    collect.handle(fut);
+                } finally {
+                    active.decrementAndGet();
+                }
+            };
+        }
+    }
+
+    private static JsonObject pages(JsonObject... pages) {
+        final JsonArray array = new JsonArray();
+        for (final JsonObject page : pages) {
+            array.add(page);
+        }
+        return new JsonObject().put(KEY_PAGES, array);
+    }
+
+    private Vertx vertx;
+    private PagedJob job;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+        job = new PagedJob();
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    private DataCollectorServiceImpl createService(int parallelism) {
+        return new DataCollectorServiceImpl(vertx, job, new DataCollectorServiceOptions().setWorkerPoolSize(4)
+                .setQueueSize(1).setScatterParallelism(parallelism), "scatter");
+    }
+
+    @Test
+    public void testPartsAreCollectedInParallel(TestContext c) {
+        final DataCollectorServiceImpl dcs = createService(-1);
+        final JsonObject page = new JsonObject().put(TestJob.KEY_SLEEP, 100);
+        dcs.collectAndReceive("id", pages(page, page, page), c.asyncAssertSuccess(res -> {
+            TestUtils.runTruthTests(c, x -> {
+                assertThat(res.getQuality()).isEqualTo(ScatterGatherCollectorJob.QUALITY_COMPLETE);
+                assertThat(res.getResult().getJsonArray(ScatterGatherCollectorJob.KEY_PARTS).size()).isEqualTo(3);
+                assertThat(res.getResult().getJsonArray(ScatterGatherCollectorJob.KEY_FAILED_PARTS).isEmpty())
+                        .isTrue();
+                assertThat(job.maxActive.get()).isEqualTo(3);
+            });
+        }));
+    }
+
+    @Test
+    public void testParallelismIsLimited(TestContext c) {
+        final DataCollectorServiceImpl dcs = createService(2);
+        final JsonObject page = new JsonObject().put(TestJob.KEY_SLEEP, 50);
+        dcs.collectAndReceive("id", pages(page, page, page, page), c.asyncAssertSuccess(res -> {
+            TestUtils.runTruthTests(c, x -> assertThat(job.maxActive.get()).isEqualTo(2));
+        }));
+    }
+
+    @Test
+    public void testDefaultParallelismIsWorkerPoolSize(TestContext c) {
+        final DataCollectorServiceImpl dcs = createService(-1);
+        final JsonObject page = new JsonObject().put(TestJob.KEY_SLEEP, 50);
+        dcs.collectAndReceive("id", pages(page, page, page, page, page, page), c.asyncAssertSuccess(res -> {
+            TestUtils.runTruthTests(c, x -> assertThat(job.maxActive.get()).isEqualTo(4));
+        }));
+    }
+
+    @Test
+    public void testDefaultParallelismIsBulkheadConcurrency(TestContext c) {
+        final DataCollectorServiceImpl dcs = createService(-1);
+        dcs.registerJob("paged", job, new BulkheadOptions().setMaxConcurrency(2));
+        final JsonObject page = new JsonObject().put(TestJob.KEY_SLEEP, 50);
+        final JsonObject feature = pages(page, page, page, page).put(DataCollectorServiceOptions.DEFAULT_JOB_NAME_KEY,
+                "paged");
+        dcs.collectAndReceive("id", feature, c.asyncAssertSuccess(res -> {
+            TestUtils.runTruthTests(c, x -> assertThat(job.maxActive.get()).isEqualTo(2));
+        }));
+    }
+
+    @Test
+    public void testFailedPartsMakeResultPartial(TestContext c) {
+        final DataCollectorServiceImpl dcs = createService(-1);
+        dcs.collectAndReceive("id", pages(TestJob.FEATURE_SUCCEEDED, TestJob.FEATURE_UNHANDLED_EXCEPTION,
+                TestJob.FEATURE_ERROR), c.asyncAssertSuccess(res -> {
+                    TestUtils.runTruthTests(c, x -> {
+                        assertThat(res.getQuality()).isEqualTo(ScatterGatherCollectorJob.QUALITY_PARTIAL);
+                        assertThat(res.getError().isPresent()).isFalse();
+                        assertThat(res.getResult().getJsonArray(ScatterGatherCollectorJob.KEY_FAILED_PARTS))
+                                .isEqualTo(new JsonArray().add(1).add(2));
+                    });
+                }));
+    }
+
+    @Test
+    public void testAllPartsFailed(TestContext c) {
+        final DataCollectorServiceImpl dcs = createService(-1);
+        final Async done = c.async();
+        dcs.collectAndReceive("id", pages(TestJob.FEATURE_HANDLED_EXCEPTION, TestJob.FEATURE_UNHANDLED_EXCEPTION),
+                c.asyncAssertFailure(t -> {
+                    TestUtils.runTruthTests(c, x -> assertThat(t.getMessage()).isEqualTo("Some handled exception"));
+                    done.complete();
+                }));
+        done.await();
+        // The queue slot of the request is free again
+        dcs.collectAndReceive("unsplit", TestJob.FEATURE_SUCCEEDED, c.asyncAssertSuccess(res -> {
+            TestUtils.runTruthTests(c, x -> assertThat(res.getQuality()).isEqualTo("test-quality"));
+        }));
+    }
+}
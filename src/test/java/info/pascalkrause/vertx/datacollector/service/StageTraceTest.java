@@ -0,0 +1,104 @@
+package info.pascalkrause.vertx.datacollector.service;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class StageTraceTest {
+
+    private Vertx vertx;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testTraceIsReturnedWithResult(TestContext c) {
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, new TestJob(),
+                new DataCollectorServiceOptions().setWorkerPoolSize(1).setTraceEnabled(true), "trace");
+        final Async done = c.async(2);
+        vertx.runOnContext(v -> {
+            dcs.collectAndReceive("slow", new JsonObject().put(TestJob.KEY_SLEEP, 100),
+                    c.asyncAssertSuccess(res -> {
+                        TestUtils.runTruthTests(c, x -> {
+                            assertThat(res.getTrace().isPresent()).isTrue();
+                            assertThat(res.getTrace().get().getDouble("collectMillis")).isAtLeast(100d);
+                        });
+                        done.countDown();
+                    }));
+            dcs.collectAndReceive("queued", new JsonObject(), c.asyncAssertSuccess(res -> {
+                TestUtils.runTruthTests(c, x -> {
+                    // Waited for the worker of the first request
+                    final JsonObject trace = res.getTrace().get();
+                    assertThat(trace.getDouble("queueMillis")).isAtLeast(50d);
+                    assertThat(trace.getDouble("totalMillis")).isAtLeast(trace.getDouble("queueMillis"));
+                });
+                done.countDown();
+            }));
+        });
+    }
+
+    @Test
+    public void testNoTraceByDefault(TestContext c) {
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, new TestJob(),
+                new DataCollectorServiceOptions(), "notrace");
+        dcs.collectAndReceive("id", new JsonObject(), c.asyncAssertSuccess(res -> {
+            TestUtils.runTruthTests(c, x -> assertThat(res.getTrace().isPresent()).isFalse());
+        }));
+    }
+
+    @Test
+    public void testSlowJobLog(TestContext c) {
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, new TestJob(),
+                new DataCollectorServiceOptions().setWorkerPoolSize(1).setSlowJobThreshold(50).setSlowJobLogSize(2),
+                "slowlog");
+        final Async done = c.async(4);
+        vertx.runOnContext(v -> {
+            dcs.collectAndReceive("fast", new JsonObject(), c.asyncAssertSuccess(res -> done.countDown()));
+            for (int i = 0; i < 3; i++) {
+                dcs.collectAndReceive("slow" + i, new JsonObject().put(TestJob.KEY_SLEEP, 60),
+                        c.asyncAssertSuccess(res -> done.countDown()));
+            }
+        });
+        done.await();
+        dcs.getSlowJobs(c.asyncAssertSuccess(entries -> {
+            TestUtils.runTruthTests(c, x -> {
+                // The log keeps only the latest entries
+                assertThat(entries.size()).isEqualTo(2);
+                final JsonObject entry = entries.getJsonObject(1);
+                assertThat(entry.getString("requestId")).isEqualTo("slow2");
+                assertThat(entry.getString("outcome")).isEqualTo("succeeded");
+                assertThat(entry.getString("feature")).isEqualTo("{\"sleep\":60}");
+                assertThat(entry.getJsonObject("phases").getDouble("collectMillis")).isAtLeast(60d);
+            });
+        }));
+    }
+
+    @Test
+    public void testSlowJobLogDisabled(TestContext c) {
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, new TestJob(),
+                new DataCollectorServiceOptions(), "noslowlog");
+        dcs.getSlowJobs(c.asyncAssertSuccess(entries -> {
+            TestUtils.runTruthTests(c, x -> assertThat(entries).isEqualTo(new JsonArray()));
+        }));
+    }
+}
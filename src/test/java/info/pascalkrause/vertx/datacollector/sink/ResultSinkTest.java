@@ -0,0 +1,116 @@
+package info.pascalkrause.vertx.datacollector.sink;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import io.vertx.core.json.JsonObject;
+
+public class ResultSinkTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static CollectorJobResult result(String requestId, int size) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append("value ").append(i % 10);
+        }
+        return new CollectorJobResult(requestId, "test-src", "test-quality", "test-created",
+                new JsonObject().put("data", sb.toString()), null);
+    }
+
+    private static void append(ResultSink sink, CollectorJobResult result) throws Exception {
+        final CompletableFuture<Void> written = new CompletableFuture<>();
+        sink.append(result, res -> {
+            if (res.succeeded()) {
+                written.complete(null);
+            } else {
+                written.completeExceptionally(res.cause());
+            }
+        });
+        written.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testAppendAndRead() throws Exception {
+        final ResultSink sink = new ResultSink(folder.getRoot().toPath(), 1024 * 1024, FsyncPolicy.BATCH, 256);
+        final CollectorJobResult small = result("small", 1);
+        final CollectorJobResult large = result("large", 1000);
+        append(sink, small);
+        append(sink, large);
+
+        assertThat(sink.read("small")).isEqualTo(small);
+        assertThat(sink.read("large")).isEqualTo(large);
+        assertThat(sink.read("unknown")).isNull();
+        sink.close();
+    }
+
+    @Test
+    public void testRotationAndReopen() throws Exception {
+        final File dir = folder.getRoot();
+        final ResultSink sink = new ResultSink(dir.toPath(), 512, FsyncPolicy.ON_ROTATE, -1);
+        for (int i = 0; i < 10; i++) {
+            append(sink, result("id" + i, 20));
+        }
+        sink.close();
+        assertThat(dir.list().length).isGreaterThan(2);
+
+        final ResultSink reopened = new ResultSink(dir.toPath(), 512, FsyncPolicy.NEVER, -1);
+        for (int i = 0; i < 10; i++) {
+            assertThat(reopened.contains("id" + i)).isTrue();
+            assertThat(reopened.read("id" + i)).isEqualTo(result("id" + i, 20));
+        }
+        reopened.close();
+    }
+
+    @Test
+    public void testReopenedSinkReadsTheLastResult() throws Exception {
+        final File dir = folder.getRoot();
+        final ResultSink sink = new ResultSink(dir.toPath(), 512, FsyncPolicy.NEVER, -1);
+        for (int i = 0; i < 10; i++) {
+            append(sink, result("id" + i, 20));
+        }
+        // Overwrites the first result in a newer segment
+        append(sink, result("id0", 30));
+        sink.close();
+
+        final ResultSink reopened = new ResultSink(dir.toPath(), 512, FsyncPolicy.NEVER, -1);
+        for (int i = 1; i < 10; i++) {
+            assertThat(reopened.read("id" + i)).isEqualTo(result("id" + i, 20));
+        }
+        assertThat(reopened.read("id0")).isEqualTo(result("id0", 30));
+        assertThat(reopened.contains("unknown")).isFalse();
+        reopened.close();
+    }
+
+    @Test
+    public void testEveryAppendIsCompletedWhenClosedConcurrently() throws Exception {
+        final ResultSink sink = new ResultSink(folder.getRoot().toPath(), 1024 * 1024, FsyncPolicy.NEVER, -1);
+        final CollectorJobResult result = result("id", 1);
+        final AtomicInteger appended = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+        final Thread appender = new Thread(() -> {
+            for (int i = 0; i < 100000; i++) {
+                appended.incrementAndGet();
+                sink.append(result, res -> completed.incrementAndGet());
+            }
+        });
+        appender.start();
+        while (appended.get() < 1000) {
+            Thread.yield();
+        }
+        sink.close();
+        appender.join();
+        // Appends after close are failed directly, all others were written by the writer before it stopped
+        assertThat(completed.get()).isEqualTo(appended.get());
+    }
+}
@@ -0,0 +1,210 @@
+package info.pascalkrause.vertx.datacollector.stream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import info.pascalkrause.vertx.datacollector.client.DataCollectorServiceClient;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import info.pascalkrause.vertx.datacollector.service.BulkheadOptions;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorService;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorServiceImpl;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorServiceOptions;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class IngestTest {
+
+    private static final String KEY_ID = "id";
+
+    /**
+     * Emits the features of a queue while it is not paused.
+     */
+    private static class FeatureStream implements ReadStream<JsonObject> {
+        private final Queue<JsonObject> features = new ArrayDeque<>();
+        private int emitted;
+        // Like a source which delivers its buffered features after it was paused
+        private boolean ignorePause;
+        private boolean paused;
+        private Handler<JsonObject> handler;
+        private Handler<Void> endHandler;
+
+        private FeatureStream(int count, JsonObject feature) {
+            for (int i = 0; i < count; i++) {
+                features.add(feature.copy().put(KEY_ID, "id" + i));
+            }
+        }
+
+        private FeatureStream(JsonObject... features) {
+            for (int i = 0; i < features.length; i++) {
+                this.features.add(features[i].copy().put(KEY_ID, "id" + i));
+            }
+        }
+
+        private void emit() {
+            while ((!paused || ignorePause) && Objects.nonNull(handler) && !features.isEmpty()) {
+                emitted++;
+                handler.handle(features.poll());
+            }
+            if (features.isEmpty() && Objects.nonNull(endHandler)) {
+                final Handler<Void> end = endHandler;
+                endHandler = null;
+                end.handle(null);
+            }
+        }
+
+        @Override
+        public FeatureStream exceptionHandler(Handler<Throwable> handler) {
+            return this;
+        }
+
+        @Override
+        public FeatureStream handler(Handler<JsonObject> handler) {
+            this.handler = handler;
+            emit();
+            return this;
+        }
+
+        @Override
+        public FeatureStream pause() {
+            paused = true;
+            return this;
+        }
+
+        @Override
+        public FeatureStream resume() {
+            paused = false;
+            emit();
+            return this;
+        }
+
+        @Override
+        public FeatureStream endHandler(Handler<Void> endHandler) {
+            this.endHandler = endHandler;
+            return this;
+        }
+    }
+
+    private Vertx vertx;
+    private DataCollectorServiceImpl dcs;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+        dcs = new DataCollectorServiceImpl(vertx, new TestJob(),
+                new DataCollectorServiceOptions().setWorkerPoolSize(2).setQueueSize(4), "ingest");
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testRejectedRequestsAreRetried(TestContext c) {
+        final Async done = c.async();
+        final Set<String> requestIds = new HashSet<>();
+        vertx.runOnContext(v -> {
+            // More requests in flight than the queue accepts
+            final IngestStream results = new DataCollectorServiceClient(vertx, dcs)
+                    .ingest(new FeatureStream(200, new JsonObject().put(TestJob.KEY_SLEEP, 1)), KEY_ID, 8);
+            results.handler(res -> {
+                TestUtils.runTruthTests(c, x -> assertThat(res.getError().isPresent()).isFalse());
+                requestIds.add(res.getRequestId());
+            });
+            results.endHandler(end -> {
+                TestUtils.runTruthTests(c, x -> {
+                    assertThat(requestIds).hasSize(200);
+                    assertThat(results.getInFlight()).isEqualTo(0);
+                });
+                done.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testPausedResultsPauseTheSource(TestContext c) {
+        final Async paused = c.async();
+        final FeatureStream features = new FeatureStream(50, new JsonObject());
+        final IngestStream[] results = new IngestStream[1];
+        vertx.runOnContext(v -> {
+            results[0] = dcs.ingest(features, KEY_ID);
+            results[0].pause();
+            results[0].handler(res -> {
+            });
+            vertx.setTimer(200, id -> paused.complete());
+        });
+        paused.await();
+        final Async done = c.async();
+        vertx.runOnContext(v -> {
+            TestUtils.runTruthTests(c, x -> {
+                // Nothing is pulled while all slots hold results which were not emitted
+                assertThat(features.emitted).isAtMost(5);
+                assertThat(results[0].getInFlight()).isEqualTo(4);
+            });
+            results[0].endHandler(end -> done.complete());
+            results[0].resume();
+        });
+    }
+
+    @Test
+    public void testFailuresAreEmittedAsErrors(TestContext c) {
+        final Async done = c.async(3);
+        vertx.runOnContext(v -> {
+            final IngestStream results = dcs.ingest(new FeatureStream(3, TestJob.FEATURE_HANDLED_EXCEPTION), null);
+            results.handler(res -> {
+                TestUtils.runTruthTests(c, x -> {
+                    assertThat(res.getRequestId()).isNotEmpty();
+                    assertThat(res.getError().get().getName()).isEqualTo("Some handled exception");
+                });
+                done.countDown();
+            });
+        });
+    }
+
+    @Test
+    public void testEndHandlerIsCalledOnceAfterSynchronousFailure(TestContext c) {
+        dcs.registerJob("known", new TestJob(), new BulkheadOptions());
+        final Async done = c.async();
+        final List<CollectorJobResult> emitted = new ArrayList<>();
+        final AtomicInteger ended = new AtomicInteger();
+        vertx.runOnContext(v -> {
+            // The second request is sent when the first completes and fails synchronously, after the source ended
+            final FeatureStream features = new FeatureStream(new JsonObject().put(TestJob.KEY_SLEEP, 100),
+                    new JsonObject().put(DataCollectorServiceOptions.DEFAULT_JOB_NAME_KEY, "missing"));
+            features.ignorePause = true;
+            final IngestStream results = new IngestStream(vertx, dcs, features, IngestStream.requestIdFromKey(KEY_ID),
+                    1);
+            results.handler(emitted::add);
+            results.endHandler(end -> {
+                if (ended.incrementAndGet() == 1) {
+                    vertx.setTimer(100, id -> done.complete());
+                }
+            });
+        });
+        done.await();
+        assertThat(emitted).hasSize(2);
+        assertThat(emitted.get(1).getError().get().getName()).isEqualTo(DataCollectorService.ERROR_UNKNOWN_JOB);
+        assertThat(ended.get()).isEqualTo(1);
+    }
+}
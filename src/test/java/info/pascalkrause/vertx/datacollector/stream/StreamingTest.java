@@ -0,0 +1,170 @@
+package info.pascalkrause.vertx.datacollector.stream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.pascalkrause.vertx.datacollector.DataCollectorServiceVerticle;
+import info.pascalkrause.vertx.datacollector.TestJob;
+import info.pascalkrause.vertx.datacollector.TestUtils;
+import info.pascalkrause.vertx.datacollector.client.DataCollectorServiceClient;
+import info.pascalkrause.vertx.datacollector.client.DataCollectorServiceFactory;
+import info.pascalkrause.vertx.datacollector.job.CollectorJobResult;
+import info.pascalkrause.vertx.datacollector.job.StreamingCollectorJob;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorServiceImpl;
+import info.pascalkrause.vertx.datacollector.service.DataCollectorServiceOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.core.streams.WriteStream;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class StreamingTest {
+
+    private static final String KEY_CHUNKS = "chunks";
+
+    private static class StreamingTestJob extends TestJob implements StreamingCollectorJob {
+
+        @Override
+        public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature,
+                WriteStream<Buffer> chunks) {
+            return fut -> {
+                for (int i = 0; i < feature.getInteger(KEY_CHUNKS); i++) {
+                    chunks.write(Buffer.buffer().appendInt(i));
+                }
+                fut.complete(new CollectorJobResult(requestId, "test-src", "test-quality", "test-created", null,
+                        null));
+            };
+        }
+    }
+
+    /**
+     * Returns a result whose JSON encoding needs many chunks.
+     */
+    private static class LargeResultJob extends TestJob {
+
+        @Override
+        public Handler<Future<CollectorJobResult>> collect(String requestId, JsonObject feature) {
+            final char[] payload = new char[DataCollectorServiceImpl.STREAM_CHUNK_SIZE
+                    * feature.getInteger(KEY_CHUNKS)];
+            Arrays.fill(payload, 'x');
+            return fut -> fut.complete(new CollectorJobResult(requestId, "test-src", "test-quality", "test-created",
+                    new JsonObject().put("payload", new String(payload)), null));
+        }
+    }
+
+    private Vertx vertx;
+
+    @Before
+    public void beforeEach(TestContext c) {
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void afterEach(TestContext c) {
+        vertx.close(c.asyncAssertSuccess());
+    }
+
+    private DataCollectorServiceClient deploy(TestContext c, String address, TestJob job) {
+        vertx.deployVerticle(new DataCollectorServiceVerticle(address, job, 2, 2, false), c.asyncAssertSuccess());
+        return new DataCollectorServiceClient(vertx, new DataCollectorServiceFactory(vertx, address).create());
+    }
+
+    @Test
+    public void testStreamingJobWithPausedReader(TestContext c) {
+        final Async complete = c.async();
+        final DataCollectorServiceClient client = deploy(c, "streaming", new StreamingTestJob());
+        final AtomicInteger received = new AtomicInteger();
+        final ReadStream<Buffer> stream = client.collectAndStream("req",
+                new JsonObject().put(KEY_CHUNKS, ChunkWriteStream.DEFAULT_WRITE_QUEUE_MAX_SIZE * 10),
+                c.asyncAssertSuccess(res -> assertThat(res.getRequestId()).isEqualTo("req")));
+        stream.pause();
+        stream.handler(chunk -> TestUtils.runTruthTests(c,
+                v -> assertThat(chunk.getInt(0)).isEqualTo(received.getAndIncrement())));
+        stream.endHandler(v -> {
+            TestUtils.runTruthTests(c,
+                    x -> assertThat(received.get()).isEqualTo(ChunkWriteStream.DEFAULT_WRITE_QUEUE_MAX_SIZE * 10));
+            complete.complete();
+        });
+        vertx.setTimer(100, id -> stream.resume());
+    }
+
+    @Test
+    public void testNonStreamingJobRespectsWindow(TestContext c) {
+        final DataCollectorServiceImpl dcs = new DataCollectorServiceImpl(vertx, new LargeResultJob(),
+                new DataCollectorServiceOptions(), "window");
+        final Buffer received = Buffer.buffer();
+        final AtomicInteger unacknowledged = new AtomicInteger();
+        final AtomicInteger maxUnacknowledged = new AtomicInteger();
+        final AtomicBoolean acknowledging = new AtomicBoolean();
+        final Async ended = c.async();
+        final Async complete = c.async();
+        vertx.eventBus().<Buffer>consumer("window.stream", msg -> {
+            if (ChunkWriteStream.TYPE_END.equals(msg.headers().get(ChunkWriteStream.HEADER_TYPE))) {
+                ended.complete();
+                return;
+            }
+            received.appendBuffer(msg.body());
+            maxUnacknowledged.accumulateAndGet(unacknowledged.incrementAndGet(), Math::max);
+            if (acknowledging.get()) {
+                unacknowledged.decrementAndGet();
+                vertx.eventBus().send("window.stream" + ChunkWriteStream.ACK_SUFFIX, 1);
+            }
+        }).completionHandler(c.asyncAssertSuccess(v -> {
+            dcs.collectAndStream("req", new JsonObject().put(KEY_CHUNKS, 40), "window.stream",
+                    c.asyncAssertSuccess(res -> complete.complete()));
+        }));
+        final Async windowReached = c.async();
+        vertx.setPeriodic(10, id -> {
+            if (unacknowledged.get() >= ChunkWriteStream.DEFAULT_WRITE_QUEUE_MAX_SIZE) {
+                vertx.cancelTimer(id);
+                windowReached.complete();
+            }
+        });
+        windowReached.await();
+        // The reader doesn't acknowledge anything, so the service must stop at the window
+        vertx.setTimer(200, id -> {
+            TestUtils.runTruthTests(c, x -> {
+                assertThat(unacknowledged.get()).isEqualTo(ChunkWriteStream.DEFAULT_WRITE_QUEUE_MAX_SIZE);
+                assertThat(complete.isCompleted()).isFalse();
+            });
+            acknowledging.set(true);
+            vertx.eventBus().send("window.stream" + ChunkWriteStream.ACK_SUFFIX, unacknowledged.getAndSet(0));
+        });
+        ended.await();
+        complete.await();
+        assertThat(maxUnacknowledged.get()).isAtMost(ChunkWriteStream.DEFAULT_WRITE_QUEUE_MAX_SIZE);
+        assertThat(new JsonObject(received).getString("payload"))
+                .hasLength(DataCollectorServiceImpl.STREAM_CHUNK_SIZE * 40);
+    }
+
+    @Test
+    public void testNonStreamingJob(TestContext c) {
+        final Async complete = c.async();
+        final DataCollectorServiceClient client = deploy(c, "nonStreaming", new TestJob());
+        final Buffer received = Buffer.buffer();
+        // The stream receives the chunks on the context which creates it, so the handlers must be set there as well
+        vertx.runOnContext(v -> {
+            final ReadStream<Buffer> stream = client.collectAndStream("req", new JsonObject(),
+                    c.asyncAssertSuccess(res -> assertThat(res.getResult()).isEqualTo(new JsonObject())));
+            stream.endHandler(end -> {
+                TestUtils.runTruthTests(c, x -> assertThat(new JsonObject(received)).isEqualTo(new JsonObject()));
+                complete.complete();
+            });
+            stream.handler(received::appendBuffer);
+        });
+    }
+}